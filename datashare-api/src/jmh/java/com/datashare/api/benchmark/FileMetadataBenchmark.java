@@ -0,0 +1,81 @@
+package com.datashare.api.benchmark;
+
+import com.datashare.api.dto.FileMetadataResponse;
+import com.datashare.api.entities.File;
+import com.datashare.api.entities.Token;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+/** Benchmarks of the file history response, mapped from the entities and serialized to JSON. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileMetadataBenchmark {
+
+  /** Number of files of the history page */
+  @Param({"1", "100"})
+  public int files;
+
+  private final JsonMapper mapper = new JsonMapper();
+
+  private List<File> entities;
+  private List<FileMetadataResponse> responses;
+
+  @Setup
+  public void setUp() {
+    Instant now = Instant.now();
+    entities = new ArrayList<>(files);
+    for (int i = 0; i < files; i++) {
+      File file = new File();
+      file.setId((long) i);
+      file.setUserId(1L);
+      file.setFilename("document-" + i + ".pdf");
+      file.setContentType("application/pdf");
+      file.setSize(1_048_576L);
+      file.setS3Key("uploads/document-" + i + ".pdf");
+      file.setCreatedAt(now);
+
+      Token token = new Token();
+      token.setTokenString("ABCDE" + (char) ('A' + i % 26));
+      token.setExpiresAt(now.plus(Duration.ofDays(7)));
+      token.setFile(file);
+      file.setToken(token);
+
+      entities.add(file);
+    }
+    responses = map();
+  }
+
+  @Benchmark
+  public List<FileMetadataResponse> map() {
+    return entities.stream().map(FileMetadataResponse::fromEntity).toList();
+  }
+
+  @Benchmark
+  public byte[] serialize() {
+    return mapper.writeValueAsBytes(responses);
+  }
+
+  @Benchmark
+  public byte[] mapAndSerialize() {
+    return mapper.writeValueAsBytes(map());
+  }
+}
@@ -0,0 +1,83 @@
+package com.datashare.api.benchmark;
+
+import com.datashare.api.configuration.CacheConfig;
+import com.datashare.api.security.ClaimsPrincipal;
+import com.datashare.api.security.JwtService;
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+/**
+ * Benchmarks of the JWT signature and verification, run on each authenticated request.
+ *
+ * <p>{@code cached} compares the full verification with the verified-token cache hit.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+  private static final String SECRET = "unit-and-it-test-secret-key-32-bytes-min-here-it-is";
+  private static final String ISSUER = "datashare-api";
+
+  @Param({"false", "true"})
+  public boolean cached;
+
+  private JwtService jwtService;
+  private UserDetails userDetails;
+  private String token;
+
+  @Setup
+  public void setUp() {
+    SecretKey key = new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    NimbusJwtEncoder encoder = new NimbusJwtEncoder(new ImmutableSecret<>(key));
+    NimbusJwtDecoder decoder = NimbusJwtDecoder.withSecretKey(key).build();
+    jwtService =
+        cached
+            ? new JwtService(
+                encoder, decoder, 900, ISSUER, new ConcurrentMapCacheManager(CacheConfig.JWT))
+            : new JwtService(encoder, decoder, 900, ISSUER);
+
+    userDetails =
+        new ClaimsPrincipal(
+            42L, "bench@datashare.com", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    token = jwtService.generateToken(userDetails);
+  }
+
+  @Benchmark
+  public String generateToken() {
+    return jwtService.generateToken(userDetails);
+  }
+
+  @Benchmark
+  public String extractUsername() {
+    return jwtService.extractUsername(token);
+  }
+
+  @Benchmark
+  public boolean isTokenValid() {
+    return jwtService.isTokenValid(token, userDetails);
+  }
+}
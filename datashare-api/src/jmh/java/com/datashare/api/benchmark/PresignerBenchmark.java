@@ -0,0 +1,79 @@
+package com.datashare.api.benchmark;
+
+import com.datashare.api.configuration.S3Config;
+import com.datashare.api.configuration.S3Properties;
+import com.datashare.api.service.FileService;
+import com.datashare.api.service.PresignedDownloadUrls;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+
+/**
+ * Benchmarks of the presigned URLs, built with the presigner of {@link S3Config} and the requests
+ * of {@link FileService} and {@link PresignedDownloadUrls}.
+ *
+ * <p>Signing is local (no network call): it measures the SigV4 computation only.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PresignerBenchmark {
+
+  private static final String KEY = "uploads/" + UUID.randomUUID() + "-document.pdf";
+
+  private S3Properties properties;
+  private S3Presigner presigner;
+  private PresignedDownloadUrls downloadUrls;
+
+  @Setup
+  public void setUp() {
+    properties = new S3Properties();
+    properties.setEndpoint("http://localhost:4566");
+    properties.setRegion("eu-west-3");
+    properties.setBucket("datashare-bucket");
+    properties.setAccessKey("test");
+    properties.setSecretKey("test");
+    presigner = new S3Config(properties).s3Presigner(properties);
+    downloadUrls = new PresignedDownloadUrls(presigner, properties, new SimpleMeterRegistry());
+  }
+
+  @TearDown
+  public void tearDown() {
+    presigner.close();
+  }
+
+  @Benchmark
+  public PresignedPutObjectRequest presignPut() {
+    return presigner.presignPutObject(
+        FileService.uploadPresignRequest(properties.getBucket(), KEY, "application/pdf"));
+  }
+
+  @Benchmark
+  public PresignedGetObjectRequest presignGet() {
+    return presigner.presignGetObject(
+        PresignedDownloadUrls.downloadPresignRequest(properties, KEY));
+  }
+
+  /** Download URL served from the memo, as for a popular file */
+  @Benchmark
+  public PresignedGetObjectRequest presignGetMemoized() {
+    return downloadUrls.get(KEY);
+  }
+}
@@ -0,0 +1,68 @@
+package com.datashare.api.benchmark;
+
+import com.datashare.api.entities.File;
+import com.datashare.api.entities.Token;
+import com.datashare.api.service.TokenAllocator;
+import com.datashare.api.service.TokenService;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Benchmarks of the download token generation of an upload.
+ *
+ * <p>The allocator is renewed on each iteration so that the token space is never exhausted, and
+ * its block source is in memory: only the permutation and the block lock are measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenServiceBenchmark {
+
+  private TokenService tokenService;
+  private TokenAllocator tokenAllocator;
+  private Instant expiresAt;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    AtomicLong blocks = new AtomicLong();
+    tokenAllocator = new TokenAllocator("benchmark-key", 1000, blocks::getAndIncrement);
+    tokenService = new TokenService();
+    ReflectionTestUtils.setField(tokenService, "tokenAllocator", tokenAllocator);
+    expiresAt = Instant.now().plus(Duration.ofDays(7));
+  }
+
+  @Benchmark
+  public String allocate() {
+    return tokenAllocator.next();
+  }
+
+  @Benchmark
+  public Token attachToken() {
+    return tokenService.attachToken(new File(), expiresAt);
+  }
+
+  /** Contended allocation, as under concurrent uploads */
+  @Benchmark
+  @Threads(8)
+  public String allocateContended() {
+    return tokenAllocator.next();
+  }
+}
@@ -0,0 +1,20 @@
+package com.datashare.api.cache;
+
+/**
+ * Eviction broadcast between the API instances.
+ *
+ * @param origin the id of the publishing instance, or null when raised by the bus itself
+ * @param cacheName the name of the cache, or null for every cache
+ * @param key the evicted key, or null for every entry of the cache
+ */
+public record CacheInvalidation(String origin, String cacheName, Object key) {
+
+  /**
+   * Get the invalidation of every cache, raised when evictions may have been missed
+   *
+   * @return an invalidation without origin, cache nor key
+   */
+  public static CacheInvalidation all() {
+    return new CacheInvalidation(null, null, null);
+  }
+}
@@ -0,0 +1,40 @@
+package com.datashare.api.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Broadcast of cache evictions, and of additions to in-memory sets, between the API instances.
+ *
+ * <p>Every published message is delivered to every subscriber, including those of the publishing
+ * instance, which are expected to ignore their own messages.
+ */
+public interface InvalidationBus {
+
+  /**
+   * Broadcast an invalidation, without failing when it cannot be sent
+   *
+   * @param invalidation the invalidation to broadcast
+   */
+  void publish(CacheInvalidation invalidation);
+
+  /**
+   * Broadcast keys added to a set, without failing when they cannot be sent
+   *
+   * @param added the added keys
+   */
+  void publish(KeysAdded added);
+
+  /**
+   * Subscribe to the invalidations
+   *
+   * @param listener the listener of the invalidations
+   */
+  void subscribe(Consumer<CacheInvalidation> listener);
+
+  /**
+   * Subscribe to the keys added to the sets
+   *
+   * @param listener the listener of the added keys
+   */
+  void subscribeAdded(Consumer<KeysAdded> listener);
+}
@@ -0,0 +1,13 @@
+package com.datashare.api.cache;
+
+import java.util.List;
+
+/**
+ * Announcement of keys added to an in-memory set kept by every API instance, such as the filter of
+ * the issued download tokens.
+ *
+ * @param origin the id of the publishing instance
+ * @param set the name of the set
+ * @param keys the added keys, without tab
+ */
+public record KeysAdded(String origin, String set, List<String> keys) {}
@@ -0,0 +1,37 @@
+package com.datashare.api.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-memory invalidation bus, delivering synchronously to the subscribers of the same JVM.
+ *
+ * <p>It is the bus of a single instance deployment, and lets several cache managers play the part
+ * of several instances in tests.
+ */
+public class LoopbackInvalidationBus implements InvalidationBus {
+
+  private final List<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+  private final List<Consumer<KeysAdded>> addedListeners = new CopyOnWriteArrayList<>();
+
+  @Override
+  public void publish(CacheInvalidation invalidation) {
+    listeners.forEach(listener -> listener.accept(invalidation));
+  }
+
+  @Override
+  public void publish(KeysAdded added) {
+    addedListeners.forEach(listener -> listener.accept(added));
+  }
+
+  @Override
+  public void subscribe(Consumer<CacheInvalidation> listener) {
+    listeners.add(listener);
+  }
+
+  @Override
+  public void subscribeAdded(Consumer<KeysAdded> listener) {
+    addedListeners.add(listener);
+  }
+}
@@ -0,0 +1,328 @@
+package com.datashare.api.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+/**
+ * Invalidation bus over PostgreSQL {@code LISTEN}/{@code NOTIFY}, shared by the instances through
+ * the database they already use.
+ *
+ * <p>The bus is expected to get a non-pooled data source: it holds two connections of its own, and
+ * never borrows one from the application pool. Publishing only queues the invalidation; a sender
+ * thread sends the queue with {@code pg_notify} on one connection, outside of any caller's
+ * transaction. When the queue is full, the queued invalidations are replaced by the invalidation of
+ * every cache. A listener thread listens on the other connection; whenever it (re)connects,
+ * evictions may have been missed and {@link CacheInvalidation#all()} is delivered.
+ *
+ * <p>Keys are sent as strings or longs; an eviction of any other key type invalidates the whole
+ * cache on the other instances. Added keys are sent in as few notifications as the payload limit
+ * of PostgreSQL allows.
+ */
+@Slf4j
+public class PostgresInvalidationBus implements InvalidationBus, AutoCloseable {
+
+  private static final Pattern CHANNEL = Pattern.compile("[a-z_][a-z0-9_]*");
+
+  /** Wait of the listener for notifications, between two checks of its state */
+  private static final int POLL_MILLIS = 1000;
+
+  /** Number of notifications waiting for the sender beyond which they are replaced by one */
+  static final int QUEUE_CAPACITY = 10_000;
+
+  /** Maximum size in bytes of a notification payload, under the PostgreSQL limit of 8000 */
+  static final int MAX_PAYLOAD_BYTES = 7900;
+
+  private static final String SEPARATOR = "\t";
+  private static final String WILDCARD = "*";
+
+  /** Prefix of the set name in the payload of added keys, never starting a cache name */
+  private static final String ADDED = "+";
+
+  private final DataSource dataSource;
+  private final String channel;
+  private final Duration reconnectDelay;
+  private final List<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+  private final List<Consumer<KeysAdded>> addedListeners = new CopyOnWriteArrayList<>();
+  private final BlockingQueue<String> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+  private final AtomicReference<String> overflowOrigin = new AtomicReference<>();
+  private final Thread listener;
+  private final Thread sender;
+
+  private volatile boolean running = true;
+
+  /**
+   * Create the bus and start its listener and sender threads.
+   *
+   * @param dataSource the PostgreSQL data source, opening a new connection on each call
+   * @param channel the notification channel, a lower case identifier
+   * @param reconnectDelay the pause of the listener after a connection failure
+   */
+  public PostgresInvalidationBus(DataSource dataSource, String channel, Duration reconnectDelay) {
+    if (!CHANNEL.matcher(channel).matches()) {
+      throw new IllegalArgumentException("Invalid invalidation channel: " + channel);
+    }
+    this.dataSource = dataSource;
+    this.channel = channel;
+    this.reconnectDelay = reconnectDelay;
+    this.listener =
+        Thread.ofPlatform().name("cache-invalidation").daemon(true).start(this::listen);
+    this.sender =
+        Thread.ofPlatform().name("cache-invalidation-sender").daemon(true).start(this::send);
+  }
+
+  /** Queue an invalidation for the sender thread, without any database access */
+  @Override
+  public void publish(CacheInvalidation invalidation) {
+    enqueue(invalidation.origin(), encode(invalidation));
+  }
+
+  /** Queue added keys for the sender thread, without any database access */
+  @Override
+  public void publish(KeysAdded added) {
+    encode(added).forEach(payload -> enqueue(added.origin(), payload));
+  }
+
+  @Override
+  public void subscribe(Consumer<CacheInvalidation> listener) {
+    listeners.add(listener);
+  }
+
+  @Override
+  public void subscribeAdded(Consumer<KeysAdded> listener) {
+    addedListeners.add(listener);
+  }
+
+  /** Stop the listener and sender threads, dropping the notifications not sent yet */
+  @Override
+  public void close() throws InterruptedException {
+    running = false;
+    listener.interrupt();
+    sender.interrupt();
+    listener.join(TimeUnit.SECONDS.toMillis(5));
+    sender.join(TimeUnit.SECONDS.toMillis(5));
+  }
+
+  private void enqueue(String origin, String payload) {
+    if (!queue.offer(payload) && overflowOrigin.compareAndSet(null, origin)) {
+      log.warn("Cache invalidation queue full, invalidating every cache");
+    }
+  }
+
+  /** Send the queued notifications, one at a time; the one being sent is resent after a failure */
+  private void send() {
+    String pending = null;
+    while (running) {
+      try (Connection connection = dataSource.getConnection();
+          PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+        connection.setAutoCommit(true);
+        statement.setString(1, channel);
+        while (running) {
+          if (pending == null) {
+            pending = next();
+          }
+          if (pending != null) {
+            statement.setString(2, pending);
+            statement.execute();
+            pending = null;
+          }
+        }
+      } catch (SQLException e) {
+        if (running) {
+          log.warn("Cache invalidation sender disconnected: {}", e.getMessage());
+          pause();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        running = false;
+      }
+    }
+  }
+
+  /**
+   * Take the next payload to send, the invalidation of every cache after an overflow
+   *
+   * @return the payload, or null when none was queued for a while
+   */
+  private String next() throws InterruptedException {
+    String origin = overflowOrigin.getAndSet(null);
+    if (origin != null) {
+      queue.clear();
+      return encode(new CacheInvalidation(origin, null, null));
+    }
+    return queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  private void listen() {
+    while (running) {
+      try (Connection connection = dataSource.getConnection();
+          Statement statement = connection.createStatement()) {
+        connection.setAutoCommit(true);
+        statement.execute("LISTEN " + channel);
+        PGConnection notifications = connection.unwrap(PGConnection.class);
+        deliver(CacheInvalidation.all());
+        while (running) {
+          PGNotification[] received = notifications.getNotifications(POLL_MILLIS);
+          if (received != null) {
+            for (PGNotification notification : received) {
+              deliver(notification.getParameter());
+            }
+          }
+        }
+      } catch (SQLException e) {
+        if (running) {
+          log.warn("Cache invalidation listener disconnected: {}", e.getMessage());
+          pause();
+        }
+      }
+    }
+  }
+
+  private void deliver(String payload) {
+    if (!isAdded(payload)) {
+      deliver(decode(payload));
+      return;
+    }
+    KeysAdded added = decodeAdded(payload);
+    for (Consumer<KeysAdded> listener : addedListeners) {
+      try {
+        listener.accept(added);
+      } catch (RuntimeException e) {
+        log.warn(
+            "Cannot apply {} keys added to {}: {}",
+            added.keys().size(),
+            added.set(),
+            e.getMessage());
+      }
+    }
+  }
+
+  private void deliver(CacheInvalidation invalidation) {
+    for (Consumer<CacheInvalidation> listener : listeners) {
+      try {
+        listener.accept(invalidation);
+      } catch (RuntimeException e) {
+        log.warn("Cannot apply cache invalidation {}: {}", invalidation, e.getMessage());
+      }
+    }
+  }
+
+  private void pause() {
+    try {
+      Thread.sleep(reconnectDelay);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      running = false;
+    }
+  }
+
+  /**
+   * Encode an invalidation as a notification payload: origin, cache and typed key, tab separated
+   *
+   * @param invalidation the invalidation
+   * @return the payload
+   */
+  static String encode(CacheInvalidation invalidation) {
+    String cacheName = invalidation.cacheName() == null ? WILDCARD : invalidation.cacheName();
+    String key =
+        switch (invalidation.key()) {
+          case String value -> "s:" + value;
+          case Long value -> "l:" + value;
+          case null, default -> WILDCARD;
+        };
+    return invalidation.origin() + SEPARATOR + cacheName + SEPARATOR + key;
+  }
+
+  /**
+   * Decode a notification payload
+   *
+   * @param payload the payload
+   * @return the invalidation, of every cache when the payload is malformed
+   */
+  static CacheInvalidation decode(String payload) {
+    String[] parts = payload.split(SEPARATOR, 3);
+    if (parts.length < 3) {
+      return CacheInvalidation.all();
+    }
+    String cacheName = WILDCARD.equals(parts[1]) ? null : parts[1];
+    Object key = null;
+    if (parts[2].startsWith("s:")) {
+      key = parts[2].substring(2);
+    } else if (parts[2].startsWith("l:")) {
+      try {
+        key = Long.valueOf(parts[2].substring(2));
+      } catch (NumberFormatException e) {
+        log.debug("Malformed cache invalidation key {}, clearing {}", parts[2], cacheName);
+      }
+    }
+    return new CacheInvalidation(parts[0], cacheName, key);
+  }
+
+  /**
+   * Encode added keys as notification payloads: origin, set name and keys, tab separated, split so
+   * that no payload exceeds {@link #MAX_PAYLOAD_BYTES}
+   *
+   * @param added the added keys
+   * @return the payloads, none when there is no key
+   */
+  static List<String> encode(KeysAdded added) {
+    String header = added.origin() + SEPARATOR + ADDED + added.set();
+    int headerBytes = header.getBytes(StandardCharsets.UTF_8).length;
+    List<String> payloads = new ArrayList<>();
+    StringBuilder payload = new StringBuilder(header);
+    int payloadBytes = headerBytes;
+    for (String key : added.keys()) {
+      int keyBytes = key.getBytes(StandardCharsets.UTF_8).length + 1;
+      if (payloadBytes + keyBytes > MAX_PAYLOAD_BYTES && payloadBytes > headerBytes) {
+        payloads.add(payload.toString());
+        payload = new StringBuilder(header);
+        payloadBytes = headerBytes;
+      }
+      payload.append(SEPARATOR).append(key);
+      payloadBytes += keyBytes;
+    }
+    if (payloadBytes > headerBytes) {
+      payloads.add(payload.toString());
+    }
+    return payloads;
+  }
+
+  /**
+   * Test whether a notification payload carries added keys
+   *
+   * @param payload the payload
+   * @return true for added keys, false for an invalidation
+   */
+  static boolean isAdded(String payload) {
+    int separator = payload.indexOf(SEPARATOR);
+    return separator >= 0 && payload.startsWith(ADDED, separator + 1);
+  }
+
+  /**
+   * Decode a notification payload of added keys
+   *
+   * @param payload the payload
+   * @return the added keys
+   */
+  static KeysAdded decodeAdded(String payload) {
+    String[] parts = payload.split(SEPARATOR);
+    return new KeysAdded(
+        parts[0], parts[1].substring(ADDED.length()), List.of(parts).subList(2, parts.length));
+  }
+}
@@ -0,0 +1,155 @@
+package com.datashare.api.cache;
+
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import org.springframework.cache.Cache;
+
+/**
+ * Cache made of an in-process tier and an optional shared tier.
+ *
+ * <p>Reads go to the in-process tier first, then to the shared tier, whose hits are copied into the
+ * in-process tier. Writes go to both tiers. Evictions go to both tiers and are broadcast on the
+ * {@link InvalidationBus}, so that the other instances drop their in-process copy: changes are
+ * expected to evict, while puts only publish freshly loaded values.
+ */
+public class TwoTierCache implements Cache {
+
+  private final Cache local;
+  private final Cache shared;
+  private final Consumer<CacheInvalidation> publisher;
+  private final String origin;
+
+  /**
+   * Create the cache.
+   *
+   * @param local the in-process tier
+   * @param shared the shared tier, or null when there is none
+   * @param publisher the publisher of the evictions on the bus
+   * @param origin the id of this instance on the bus
+   */
+  public TwoTierCache(
+      Cache local, Cache shared, Consumer<CacheInvalidation> publisher, String origin) {
+    this.local = local;
+    this.shared = shared;
+    this.publisher = publisher;
+    this.origin = origin;
+  }
+
+  @Override
+  public String getName() {
+    return local.getName();
+  }
+
+  @Override
+  public Object getNativeCache() {
+    return local.getNativeCache();
+  }
+
+  @Override
+  public ValueWrapper get(Object key) {
+    ValueWrapper value = local.get(key);
+    if (value == null && shared != null) {
+      value = shared.get(key);
+      if (value != null) {
+        local.put(key, value.get());
+      }
+    }
+    return value;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Class<T> type) {
+    ValueWrapper wrapper = get(key);
+    Object value = wrapper == null ? null : wrapper.get();
+    if (value != null && type != null && !type.isInstance(value)) {
+      throw new IllegalStateException(
+          "Cached value is not of required type [" + type.getName() + "]: " + value);
+    }
+    return (T) value;
+  }
+
+  /**
+   * Get a value, loading it atomically in the in-process tier: an eviction waits for a concurrent
+   * load and discards it.
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    return local.get(
+        key,
+        () -> {
+          if (shared != null) {
+            ValueWrapper value = shared.get(key);
+            if (value != null) {
+              return (T) value.get();
+            }
+          }
+          T value = valueLoader.call();
+          if (shared != null && value != null) {
+            shared.put(key, value);
+          }
+          return value;
+        });
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    local.put(key, value);
+    if (shared != null) {
+      shared.put(key, value);
+    }
+  }
+
+  @Override
+  public ValueWrapper putIfAbsent(Object key, Object value) {
+    ValueWrapper existing = local.putIfAbsent(key, value);
+    if (existing == null && shared != null) {
+      shared.putIfAbsent(key, value);
+    }
+    return existing;
+  }
+
+  @Override
+  public void evict(Object key) {
+    evictIfPresent(key);
+  }
+
+  @Override
+  public boolean evictIfPresent(Object key) {
+    boolean present = local.evictIfPresent(key);
+    if (shared != null) {
+      shared.evict(key);
+    }
+    publisher.accept(new CacheInvalidation(origin, getName(), key));
+    return present;
+  }
+
+  @Override
+  public void clear() {
+    invalidate();
+  }
+
+  @Override
+  public boolean invalidate() {
+    boolean present = local.invalidate();
+    if (shared != null) {
+      shared.clear();
+    }
+    publisher.accept(new CacheInvalidation(origin, getName(), null));
+    return present;
+  }
+
+  /**
+   * Evict an entry of the in-process tier only, on an invalidation from another instance
+   *
+   * @param key the evicted key, or null for every entry
+   */
+  void evictLocally(Object key) {
+    if (key == null) {
+      local.invalidate();
+    } else {
+      local.evictIfPresent(key);
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package com.datashare.api.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+/**
+ * Cache manager layering the in-process caches over an optional shared store, and keeping the
+ * in-process caches of the instances consistent through an {@link InvalidationBus}.
+ *
+ * <p>The caches are those of the in-process manager, which keeps publishing their statistics. Each
+ * manager has a random origin id: it ignores its own invalidations and evicts the in-process copy
+ * of the entries invalidated by the other instances.
+ */
+@Slf4j
+public class TwoTierCacheManager implements CacheManager {
+
+  private final CacheManager local;
+  private final CacheManager shared;
+  private final InvalidationBus bus;
+  private final String origin = UUID.randomUUID().toString();
+  private final Map<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+  private final Counter sent;
+  private final Counter received;
+
+  /**
+   * Create the manager and subscribe it to the bus.
+   *
+   * @param local the manager of the in-process caches
+   * @param shared the manager of the shared store, or null when there is none
+   * @param bus the bus broadcasting the evictions
+   * @param meterRegistry the registry of the invalidation metrics
+   */
+  public TwoTierCacheManager(
+      CacheManager local, CacheManager shared, InvalidationBus bus, MeterRegistry meterRegistry) {
+    this.local = local;
+    this.shared = shared;
+    this.bus = bus;
+    this.sent = invalidations(meterRegistry, "sent");
+    this.received = invalidations(meterRegistry, "received");
+    bus.subscribe(this::onInvalidation);
+  }
+
+  @Override
+  public Cache getCache(String name) {
+    TwoTierCache cache = caches.get(name);
+    if (cache != null) {
+      return cache;
+    }
+    Cache localCache = local.getCache(name);
+    if (localCache == null) {
+      return null;
+    }
+    return caches.computeIfAbsent(
+        name,
+        cacheName ->
+            new TwoTierCache(
+                localCache,
+                shared == null ? null : shared.getCache(cacheName),
+                invalidation -> {
+                  sent.increment();
+                  bus.publish(invalidation);
+                },
+                origin));
+  }
+
+  @Override
+  public Collection<String> getCacheNames() {
+    return local.getCacheNames();
+  }
+
+  /**
+   * Get the id of this instance on the bus
+   *
+   * @return the origin id of the published invalidations
+   */
+  public String getOrigin() {
+    return origin;
+  }
+
+  private void onInvalidation(CacheInvalidation invalidation) {
+    if (origin.equals(invalidation.origin())) {
+      return;
+    }
+    received.increment();
+    log.debug("Cache invalidation received: {}", invalidation);
+    if (invalidation.cacheName() == null) {
+      getCacheNames().forEach(name -> evictLocally(name, null));
+    } else {
+      evictLocally(invalidation.cacheName(), invalidation.key());
+    }
+  }
+
+  private void evictLocally(String name, Object key) {
+    if (getCache(name) instanceof TwoTierCache cache) {
+      cache.evictLocally(key);
+    }
+  }
+
+  private static Counter invalidations(MeterRegistry meterRegistry, String direction) {
+    return Counter.builder("datashare.cache.invalidations")
+        .description("Cache invalidations broadcast between the instances")
+        .tag("direction", direction)
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,19 @@
+/**
+ * Cache package.
+ *
+ * <p>This package contains the two-tier cache layer of the application caches and the bus which
+ * broadcasts their evictions, and the additions to in-memory sets, between the API instances.
+ *
+ * <p>Key components:
+ *
+ * <ul>
+ *   <li>{@link com.datashare.api.cache.TwoTierCacheManager} - In-process caches over an optional
+ *       shared store, kept consistent between the instances
+ *   <li>{@link com.datashare.api.cache.TwoTierCache} - Cache of the two tiers
+ *   <li>{@link com.datashare.api.cache.InvalidationBus} - Broadcast of the evictions
+ *   <li>{@link com.datashare.api.cache.KeysAdded} - Keys added to a set kept by every instance
+ *   <li>{@link com.datashare.api.cache.PostgresInvalidationBus} - Bus over PostgreSQL LISTEN/NOTIFY
+ *   <li>{@link com.datashare.api.cache.LoopbackInvalidationBus} - In-memory bus
+ * </ul>
+ */
+package com.datashare.api.cache;
@@ -0,0 +1,28 @@
+package com.datashare.api.configuration;
+
+import com.datashare.api.monitoring.AccessLogFilter;
+import com.datashare.api.monitoring.AccessLogWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/** Asynchronous access log, enabled by {@code access-log.enabled} */
+@Configuration
+@EnableConfigurationProperties(AccessLogProperties.class)
+@ConditionalOnProperty(name = "access-log.enabled", havingValue = "true", matchIfMissing = true)
+public class AccessLogConfig {
+
+  @Bean(destroyMethod = "close")
+  public AccessLogWriter accessLogWriter(
+      AccessLogProperties properties, MeterRegistry meterRegistry) {
+    return new AccessLogWriter(properties.getBufferSize(), meterRegistry);
+  }
+
+  @Bean
+  public AccessLogFilter accessLogFilter(
+      AccessLogWriter accessLogWriter, AccessLogProperties properties) {
+    return new AccessLogFilter(accessLogWriter, properties);
+  }
+}
@@ -0,0 +1,44 @@
+package com.datashare.api.configuration;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Access log settings.
+ *
+ * <p>Entries are written by a background thread from a bounded buffer; high-volume endpoints can
+ * be sampled, and request bodies captured for error responses only.
+ */
+@ConfigurationProperties(prefix = "access-log")
+@Data
+public class AccessLogProperties {
+
+  /** Whether requests are logged */
+  private boolean enabled = true;
+
+  /** Number of entries the buffer holds, a power of two; entries beyond are dropped */
+  private int bufferSize = 8192;
+
+  /** Share of the successful requests logged, per URI pattern; 1 when not listed */
+  private Map<String, Double> sampling = new HashMap<>();
+
+  /** Request body capture */
+  private Payload payload = new Payload();
+
+  /** Request body capture settings */
+  @Data
+  public static class Payload {
+
+    /** Whether the request body of error responses is logged */
+    private boolean enabled = false;
+
+    /** Maximum number of bytes of the request body kept */
+    private int maxLength = 2048;
+
+    /** Path prefixes whose request body is never captured (credentials) */
+    private List<String> excludedPaths = List.of("/auth/");
+  }
+}
@@ -0,0 +1,173 @@
+package com.datashare.api.configuration;
+
+import com.datashare.api.cache.InvalidationBus;
+import com.datashare.api.cache.LoopbackInvalidationBus;
+import com.datashare.api.cache.TwoTierCacheManager;
+import com.datashare.api.dto.FileHistory;
+import com.datashare.api.dto.SharedFile;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Function;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * Spring configuration for the in-process caches.
+ *
+ * <p>Caches are backed by Caffeine, bounded in size and time-to-live, and record hit/miss
+ * statistics so that Actuator publishes them as {@code cache.*} metrics.
+ *
+ * <p>The application uses them through a {@link TwoTierCacheManager}, which layers them over an
+ * optional shared store, the {@value #SHARED_CACHE_MANAGER} bean when one is defined, and
+ * broadcasts their evictions to the other instances on the {@link InvalidationBus}.
+ */
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+  /** Cache of the authentication principals, keyed by email */
+  public static final String USERS = "users";
+
+  /** Cache of the verified JWTs, keyed by a hash of the raw token */
+  public static final String JWT = "jwt";
+
+  /** Cache of the shared file descriptors, keyed by download token */
+  public static final String TOKENS = "tokens";
+
+  /** Cache of the heads of the users' file histories, keyed by owner id */
+  public static final String FILE_HISTORY = "fileHistory";
+
+  /** Name of the optional cache manager of the shared store */
+  public static final String SHARED_CACHE_MANAGER = "sharedCacheManager";
+
+  private final CacheProperties properties;
+
+  public CacheConfig(CacheProperties properties) {
+    this.properties = properties;
+  }
+
+  /**
+   * Creates the manager of the in-process caches.
+   *
+   * @return a {@link CacheManager} holding the application caches
+   */
+  @Bean
+  public CacheManager cacheManager() {
+    CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+    cacheManager.setAllowNullValues(false);
+    cacheManager.registerCustomCache(USERS, caffeine(properties.getUsers()).build());
+    cacheManager.registerCustomCache(
+        JWT,
+        caffeine(properties.getJwt(), value -> value instanceof Jwt jwt ? jwt.getExpiresAt() : null)
+            .build());
+    cacheManager.registerCustomCache(
+        TOKENS,
+        caffeine(
+                properties.getTokens(),
+                value -> value instanceof SharedFile file ? file.expiresAt() : null)
+            .build());
+    cacheManager.registerCustomCache(
+        FILE_HISTORY,
+        caffeine(
+                properties.getFileHistory(),
+                value -> value instanceof FileHistory history ? history.nextExpiration() : null)
+            .build());
+    return cacheManager;
+  }
+
+  /**
+   * Creates the application cache manager, over the in-process caches.
+   *
+   * @param sharedCacheManager the manager of the shared store, if any
+   * @param invalidationBus the bus of the evictions, a loopback bus when none is defined
+   * @param meterRegistry the registry of the invalidation metrics, if any
+   * @return the two-tier cache manager
+   */
+  @Bean
+  @Primary
+  public TwoTierCacheManager twoTierCacheManager(
+      @Qualifier(SHARED_CACHE_MANAGER) ObjectProvider<CacheManager> sharedCacheManager,
+      ObjectProvider<InvalidationBus> invalidationBus,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    return new TwoTierCacheManager(
+        cacheManager(),
+        sharedCacheManager.getIfAvailable(),
+        invalidationBus.getIfAvailable(LoopbackInvalidationBus::new),
+        meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+  }
+
+  /**
+   * Creates a Caffeine builder from a cache specification.
+   *
+   * @param spec the cache size and time-to-live
+   * @return a Caffeine builder recording statistics
+   */
+  private static Caffeine<Object, Object> caffeine(CacheProperties.Spec spec) {
+    return Caffeine.newBuilder()
+        .maximumSize(spec.getMaximumSize())
+        .expireAfterWrite(spec.getTtl())
+        .recordStats();
+  }
+
+  /**
+   * Creates a Caffeine builder whose entries never outlive a deadline carried by the cached value.
+   *
+   * @param spec the cache size and maximum time-to-live
+   * @param deadline extracts the instant after which a value must no longer be served, or null
+   * @return a Caffeine builder recording statistics
+   */
+  private static Caffeine<Object, Object> caffeine(
+      CacheProperties.Spec spec, Function<Object, Instant> deadline) {
+    return Caffeine.newBuilder()
+        .maximumSize(spec.getMaximumSize())
+        .expireAfter(new DeadlineExpiry(spec.getTtl(), deadline))
+        .recordStats();
+  }
+
+  /**
+   * Expiry policy bounded both by a time-to-live and by the deadline of the cached value.
+   *
+   * @param ttl the maximum time-to-live of an entry
+   * @param deadline extracts the deadline of a cached value, or null when it has none
+   */
+  private record DeadlineExpiry(Duration ttl, Function<Object, Instant> deadline)
+      implements Expiry<Object, Object> {
+
+    @Override
+    public long expireAfterCreate(Object key, Object value, long currentTime) {
+      Instant until = deadline.apply(value);
+      if (until == null) {
+        return ttl.toNanos();
+      }
+      Duration remaining = Duration.between(Instant.now(), until);
+      if (remaining.isNegative()) {
+        return 0L;
+      }
+      return remaining.compareTo(ttl) < 0 ? remaining.toNanos() : ttl.toNanos();
+    }
+
+    @Override
+    public long expireAfterUpdate(
+        Object key, Object value, long currentTime, long currentDuration) {
+      return expireAfterCreate(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
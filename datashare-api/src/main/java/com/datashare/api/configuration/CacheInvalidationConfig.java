@@ -0,0 +1,32 @@
+package com.datashare.api.configuration;
+
+import com.datashare.api.cache.PostgresInvalidationBus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Cross-instance invalidation bus, over PostgreSQL when {@code cache.invalidation.bus=postgres}
+ *
+ * <p>The bus connects to the application database outside of the Hikari pool: its two long-lived
+ * connections are not counted in {@code DB_POOL_SIZE}, and never compete with the requests.
+ */
+@Configuration
+@ConditionalOnProperty(name = "cache.invalidation.bus", havingValue = "postgres")
+public class CacheInvalidationConfig {
+
+  @Bean(destroyMethod = "close")
+  public PostgresInvalidationBus postgresInvalidationBus(
+      CacheProperties properties,
+      @Value("${spring.datasource.url}") String url,
+      @Value("${spring.datasource.username}") String username,
+      @Value("${spring.datasource.password}") String password) {
+    CacheProperties.Invalidation invalidation = properties.getInvalidation();
+    return new PostgresInvalidationBus(
+        new DriverManagerDataSource(url, username, password),
+        invalidation.getChannel(),
+        invalidation.getReconnectDelay());
+  }
+}
@@ -0,0 +1,71 @@
+package com.datashare.api.configuration;
+
+import java.time.Duration;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * In-process cache settings.
+ *
+ * <p>Each cache is bounded by a maximum number of entries and a time-to-live after write.
+ */
+@ConfigurationProperties(prefix = "cache")
+@Data
+public class CacheProperties {
+
+  /** Authentication principals keyed by email */
+  private Spec users = new Spec(10_000, Duration.ofMinutes(5));
+
+  /** Verified JWTs keyed by a hash of the raw token, never kept beyond their expiration */
+  private Spec jwt = new Spec(10_000, Duration.ofMinutes(15));
+
+  /** Shared file descriptors keyed by download token, never kept beyond the token expiration */
+  private Spec tokens = new Spec(100_000, Duration.ofHours(1));
+
+  /**
+   * Heads of the users' file histories keyed by owner id, never kept beyond the first listed token
+   * expiration
+   */
+  private Spec fileHistory = new Spec(10_000, Duration.ofMinutes(10));
+
+  /** Broadcast of the evictions between the instances */
+  private Invalidation invalidation = new Invalidation();
+
+  /** Size and time-to-live of a cache */
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Spec {
+
+    /** Maximum number of entries before eviction */
+    private long maximumSize;
+
+    /** Time-to-live of an entry after it has been written */
+    private Duration ttl;
+  }
+
+  /** Invalidation bus settings */
+  @Data
+  public static class Invalidation {
+
+    /** Transport of the evictions between the instances */
+    private Bus bus = Bus.LOOPBACK;
+
+    /** PostgreSQL notification channel */
+    private String channel = "datashare_cache";
+
+    /** Pause of the listener after a lost connection */
+    private Duration reconnectDelay = Duration.ofSeconds(5);
+  }
+
+  /** Transport of the evictions */
+  public enum Bus {
+    /** In-process only, for a single instance */
+    LOOPBACK,
+
+    /** PostgreSQL {@code LISTEN}/{@code NOTIFY} on the application database */
+    POSTGRES
+  }
+}
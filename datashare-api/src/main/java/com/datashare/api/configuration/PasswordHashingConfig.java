@@ -0,0 +1,36 @@
+package com.datashare.api.configuration;
+
+import com.datashare.api.security.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/** Password hashing, on a bounded pool sized to the cores */
+@Configuration
+@EnableConfigurationProperties(PasswordHashingProperties.class)
+public class PasswordHashingConfig {
+
+  /**
+   * Password encoder bean using BCrypt hashing algorithm, run on the hashing pool.
+   *
+   * @return a {@link PasswordEncoder} instance
+   */
+  @Bean
+  public PasswordEncoder passwordEncoder(
+      PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+    int threads =
+        properties.getThreads() > 0
+            ? properties.getThreads()
+            : Runtime.getRuntime().availableProcessors();
+
+    return new BoundedPasswordEncoder(
+        new BCryptPasswordEncoder(),
+        threads,
+        properties.getQueueCapacity(),
+        properties.getRetryAfter(),
+        meterRegistry);
+  }
+}
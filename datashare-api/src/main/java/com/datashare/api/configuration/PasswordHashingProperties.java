@@ -0,0 +1,25 @@
+package com.datashare.api.configuration;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Password hashing settings.
+ *
+ * <p>Hashes run on a dedicated pool with a bounded queue: once the queue is full, authentication
+ * requests are rejected with a 429 instead of starving the other endpoints of CPU.
+ */
+@ConfigurationProperties(prefix = "security.password-hashing")
+@Data
+public class PasswordHashingProperties {
+
+  /** Number of hashing threads, the number of cores when 0 */
+  private int threads = 0;
+
+  /** Maximum number of hashes waiting for a thread */
+  private int queueCapacity = 50;
+
+  /** Delay sent in the Retry-After header of a rejected request */
+  private Duration retryAfter = Duration.ofSeconds(1);
+}
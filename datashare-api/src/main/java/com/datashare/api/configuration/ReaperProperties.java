@@ -0,0 +1,31 @@
+package com.datashare.api.configuration;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Expired shares reaper settings.
+ *
+ * <p>The reaper works in small pages with a pause between them, so that it never competes with
+ * foreground traffic for the database and S3 connections.
+ */
+@ConfigurationProperties(prefix = "reaper")
+@Data
+public class ReaperProperties {
+
+  /** Whether expired shares are reaped */
+  private boolean enabled = true;
+
+  /** Delay between the end of a run and the start of the next one */
+  private Duration interval = Duration.ofMinutes(5);
+
+  /** Number of expired shares reaped per page, at most 1000 (one S3 DeleteObjects call) */
+  private int pageSize = 500;
+
+  /** Maximum number of pages per run */
+  private int maxPagesPerRun = 100;
+
+  /** Pause between two pages */
+  private Duration pause = Duration.ofMillis(200);
+}
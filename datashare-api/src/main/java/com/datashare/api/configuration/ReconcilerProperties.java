@@ -0,0 +1,45 @@
+package com.datashare.api.configuration;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Uploads reconciler settings.
+ *
+ * <p>The reconciler compares the uploaded objects of the bucket with the {@code files} table and
+ * reports, or repairs, the objects without a row and the rows without an object.
+ */
+@ConfigurationProperties(prefix = "reconciler")
+@Data
+public class ReconcilerProperties {
+
+  /** Reconciliation mode */
+  public enum Mode {
+    /** Only log and count the orphans */
+    REPORT,
+    /** Also delete the orphan objects and rows */
+    REPAIR
+  }
+
+  /** Whether the reconciliation runs on schedule */
+  private boolean enabled = false;
+
+  /** Schedule of the reconciliation */
+  private String cron = "0 0 3 * * *";
+
+  /** Reconciliation mode */
+  private Mode mode = Mode.REPORT;
+
+  /** Minimum age of an orphan before it is repaired, longer than any upload in progress */
+  private Duration grace = Duration.ofDays(1);
+
+  /**
+   * Database collation ordering the keys as S3 does (binary, UTF-8 byte order), blank to use the
+   * column collation
+   */
+  private String keyCollation = "C";
+
+  /** Number of rows read per keyset page, each page in its own short query */
+  private int pageSize = 1000;
+}
@@ -1,13 +1,23 @@
 package com.datashare.api.configuration;
 
+import com.datashare.api.monitoring.S3CallCounter;
 import java.net.URI;
+import java.util.concurrent.Executors;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientAsyncConfiguration;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.client.config.SdkAdvancedAsyncClientOption;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.S3Configuration;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
@@ -25,6 +35,7 @@ public class S3Config {
   @Bean
   @Primary
   public S3Client s3Client() {
+    S3Properties.Sync sync = properties.getSync();
     return S3Client.builder()
         .endpointOverride(URI.create(properties.getEndpoint()))
         .region(Region.of(properties.getRegion()))
@@ -32,6 +43,41 @@ public class S3Config {
             StaticCredentialsProvider.create(
                 AwsBasicCredentials.create(properties.getAccessKey(), properties.getSecretKey())))
         .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+        .overrideConfiguration(callCounter())
+        // The Apache connection pool locks with ReentrantLock, it never pins virtual threads
+        .httpClientBuilder(
+            ApacheHttpClient.builder()
+                .maxConnections(sync.getMaxConnections())
+                .connectionAcquisitionTimeout(sync.getConnectionAcquisitionTimeout()))
+        .build();
+  }
+
+  @Bean
+  public S3AsyncClient s3AsyncClient(Environment environment) {
+    S3Properties.Async async = properties.getAsync();
+
+    // Completion callbacks run on virtual threads in the virtual threads mode
+    ClientAsyncConfiguration.Builder asyncConfiguration = ClientAsyncConfiguration.builder();
+    if (Threading.VIRTUAL.isActive(environment)) {
+      asyncConfiguration.advancedOption(
+          SdkAdvancedAsyncClientOption.FUTURE_COMPLETION_EXECUTOR,
+          Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    return S3AsyncClient.builder()
+        .endpointOverride(URI.create(properties.getEndpoint()))
+        .region(Region.of(properties.getRegion()))
+        .credentialsProvider(
+            StaticCredentialsProvider.create(
+                AwsBasicCredentials.create(properties.getAccessKey(), properties.getSecretKey())))
+        .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+        .overrideConfiguration(callCounter())
+        .httpClientBuilder(
+            NettyNioAsyncHttpClient.builder()
+                .maxConcurrency(async.getMaxConcurrency())
+                .maxPendingConnectionAcquires(async.getMaxPendingConnectionAcquires())
+                .connectionAcquisitionTimeout(async.getConnectionAcquisitionTimeout()))
+        .asyncConfiguration(asyncConfiguration.build())
         .build();
   }
 
@@ -46,4 +92,11 @@ public class S3Config {
         .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
         .build();
   }
+
+  /** Count the S3 calls of each request, for the access log */
+  private static ClientOverrideConfiguration callCounter() {
+    return ClientOverrideConfiguration.builder()
+        .addExecutionInterceptor(new S3CallCounter())
+        .build();
+  }
 }
@@ -1,5 +1,6 @@
 package com.datashare.api.configuration;
 
+import java.time.Duration;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
@@ -12,4 +13,52 @@ public class S3Properties {
   private String accessKey;
   private String secretKey;
   private boolean pathStyleAccessEnabled;
+  private DownloadUrl downloadUrl = new DownloadUrl();
+  private Sync sync = new Sync();
+  private Async async = new Async();
+
+  /** Presigned download URLs settings */
+  @Data
+  public static class DownloadUrl {
+
+    /** Signature validity of a presigned download URL */
+    private Duration validity = Duration.ofMinutes(10);
+
+    /** Minimum remaining lifetime of a URL handed out to a client */
+    private Duration minRemaining = Duration.ofMinutes(2);
+
+    /** How long before it stops being handed out a URL is re-signed in the background */
+    private Duration refreshAhead = Duration.ofMinutes(1);
+
+    /** Maximum number of memoized URLs */
+    private long maximumSize = 10_000;
+  }
+
+  /** Blocking client settings */
+  @Data
+  public static class Sync {
+
+    /**
+     * Maximum number of open connections, bounding the concurrent S3 calls of request threads
+     * (raise it with virtual threads)
+     */
+    private int maxConnections = 50;
+
+    /** Maximum time a request waits for a connection */
+    private Duration connectionAcquisitionTimeout = Duration.ofSeconds(10);
+  }
+
+  /** Asynchronous client settings, used for deletes and existence checks */
+  @Data
+  public static class Async {
+
+    /** Maximum number of concurrent requests, i.e. of open connections */
+    private int maxConcurrency = 100;
+
+    /** Maximum number of requests waiting for a connection */
+    private int maxPendingConnectionAcquires = 10_000;
+
+    /** Maximum time a request waits for a connection */
+    private Duration connectionAcquisitionTimeout = Duration.ofSeconds(10);
+  }
 }
@@ -0,0 +1,11 @@
+package com.datashare.api.configuration;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/** Spring configuration for the background tasks. */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties({ReaperProperties.class, ReconcilerProperties.class})
+public class SchedulingConfig {}
@@ -19,7 +19,6 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -47,6 +46,8 @@ public class SecurityConfig {
 
   @Autowired private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
 
+  @Autowired private final PasswordEncoder passwordEncoder;
+
   @Value("${web-url}")
   private String webUrl;
 
@@ -59,7 +60,7 @@ public class SecurityConfig {
   @Bean
   public AuthenticationProvider authenticationProvider() {
     DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider(customUserDetailService);
-    authProvider.setPasswordEncoder(passwordEncoder());
+    authProvider.setPasswordEncoder(passwordEncoder);
     return authProvider;
   }
 
@@ -133,6 +134,8 @@ public class SecurityConfig {
                           List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
                       corsConfig.setAllowedHeaders(
                           List.of("*")); // cover all headers (Authorization, Content-Type, etc.)
+                      corsConfig.setExposedHeaders( // pagination of /files/my, load shedding
+                          List.of("X-Next-Cursor", "Link", "Retry-After"));
                       corsConfig.setAllowCredentials(
                           true); // CRUCIAL for cookies (AUTH-TOKEN, XSRF-TOKEN)
                       corsConfig.setMaxAge(
@@ -213,14 +216,4 @@ public class SecurityConfig {
 
     return http.build();
   }
-
-  /**
-   * Password encoder bean using BCrypt hashing algorithm.
-   *
-   * @return a {@link PasswordEncoder} instance
-   */
-  @Bean
-  public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
-  }
 }
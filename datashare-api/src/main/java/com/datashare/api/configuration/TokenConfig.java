@@ -0,0 +1,39 @@
+package com.datashare.api.configuration;
+
+import com.datashare.api.repository.TokenRepository;
+import com.datashare.api.service.TokenAllocator;
+import javax.sql.DataSource;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Download token allocation, backed by the token_block_seq database sequence
+ *
+ * <p>The sequence is created at startup by {@code db/token-block-sequence.sql} ({@code
+ * spring.sql.init}).
+ */
+@Configuration
+@EnableConfigurationProperties(TokenProperties.class)
+public class TokenConfig {
+
+  /** Sequence of the reserved token blocks */
+  public static final String BLOCK_SEQUENCE = "token_block_seq";
+
+  @Bean
+  public TokenAllocator tokenAllocator(
+      TokenProperties properties, DataSource dataSource, TokenRepository tokenRepository) {
+    if (TokenProperties.SAMPLE_KEY.equals(properties.getKey())) {
+      throw new IllegalStateException(
+          "tokens.key is the sample value of .env-example, set TOKEN_KEY to a real secret");
+    }
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+    return new TokenAllocator(
+        properties.getKey(),
+        properties.getBlockSize(),
+        () -> jdbcTemplate.queryForObject("SELECT nextval('" + BLOCK_SEQUENCE + "')", Long.class),
+        tokenRepository::findExistingTokenStrings);
+  }
+}
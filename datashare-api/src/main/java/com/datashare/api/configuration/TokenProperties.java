@@ -0,0 +1,50 @@
+package com.datashare.api.configuration;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Download token allocation settings.
+ *
+ * <p>All instances must share the same key: tokens are unique only within one key.
+ */
+@ConfigurationProperties(prefix = "tokens")
+@Validated
+@Data
+public class TokenProperties {
+
+  /** Placeholder key of .env-example, rejected at startup */
+  public static final String SAMPLE_KEY = "download-token-key-change-in-prod";
+
+  /** Secret key of the token permutation, never to be changed once tokens are issued */
+  @NotBlank(message = "tokens.key is required, set TOKEN_KEY")
+  @Size(min = 32, message = "tokens.key must be at least 32 characters long")
+  private String key;
+
+  /** Number of counter values reserved per database sequence call */
+  private int blockSize = 1000;
+
+  /** Filter of the unknown download tokens */
+  private Filter filter = new Filter();
+
+  /** Settings of the filter rejecting unknown download tokens without a database lookup */
+  @Data
+  public static class Filter {
+
+    /** Whether unknown tokens are rejected by the filter */
+    private boolean enabled = true;
+
+    /** Number of tokens the filter is sized for, at least, on each rebuild */
+    private long expectedTokens = 1_000_000;
+
+    /** False positive rate at the expected number of tokens */
+    private double falsePositiveRate = 0.01;
+
+    /** Delay between two rebuilds from the tokens table, dropping the deleted tokens */
+    private Duration rebuildInterval = Duration.ofHours(6);
+  }
+}
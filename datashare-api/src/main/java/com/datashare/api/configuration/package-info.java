@@ -7,6 +7,9 @@
  *   <li>Security configuration with JWT authentication
  *   <li>JWT encoder and decoder beans
  *   <li>Request logging filter setup
+ *   <li>In-process caches
+ *   <li>Background tasks scheduling
+ *   <li>Download token allocation
  *   <li>Environment initialization from .env files
  * </ul>
  *
@@ -18,7 +21,13 @@
  *   <li>{@link com.datashare.api.configuration.JwtConfig} - JWT encoder/decoder configuration
  *   <li>{@link com.datashare.api.configuration.DotenvInitializer} - Environment variable
  *       initialization
- *   <li>{@link com.datashare.api.configuration.RequestLoggingFilterConfig} - Request logging setup
+ *   <li>{@link com.datashare.api.configuration.AccessLogConfig} - Asynchronous access log
+ *   <li>{@link com.datashare.api.configuration.PasswordHashingConfig} - Bounded password hashing
+ *   <li>{@link com.datashare.api.configuration.CacheConfig} - In-process cache configuration
+ *   <li>{@link com.datashare.api.configuration.CacheInvalidationConfig} - Cross-instance cache
+ *       invalidation bus
+ *   <li>{@link com.datashare.api.configuration.SchedulingConfig} - Background tasks scheduling
+ *   <li>{@link com.datashare.api.configuration.TokenConfig} - Download token allocator
  * </ul>
  */
 package com.datashare.api.configuration;
@@ -2,10 +2,11 @@ package com.datashare.api.controller;
 
 import com.datashare.api.dto.LoginRequest;
 import com.datashare.api.dto.LoginResponse;
+import com.datashare.api.dto.LoginResult;
 import com.datashare.api.dto.RegisterRequest;
 import com.datashare.api.dto.RegisterResponse;
-import com.datashare.api.entities.User;
 import com.datashare.api.mapper.UserMapper;
+import com.datashare.api.security.UserPrincipal;
 import com.datashare.api.service.UserService;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
@@ -63,9 +64,9 @@ public class AuthController {
   public ResponseEntity<LoginResponse> login(
       @Valid @RequestBody LoginRequest request, HttpServletResponse response) {
     log.info("Login attempt for email: {}", request.getEmail());
-    String token = userService.login(request.getEmail(), request.getPassword());
+    LoginResult login = userService.login(request.getEmail(), request.getPassword());
     ResponseCookie cookie =
-        ResponseCookie.from("AUTH-TOKEN", token)
+        ResponseCookie.from("AUTH-TOKEN", login.token())
             .httpOnly(true) // Inaccessible for JavaScript
             .secure(true) // HTTPS only
             .sameSite("Strict") // Protection CSRF
@@ -76,10 +77,7 @@ public class AuthController {
     log.info("User {} logged in successfully", request.getEmail());
     log.debug("Cookie created: {}", cookie.toString());
     return ResponseEntity.ok(
-        new LoginResponse(
-            "Login successful",
-            request.getEmail(),
-            userService.getAuthorities(request.getEmail())));
+        new LoginResponse("Login successful", request.getEmail(), login.authorities()));
   }
 
   /**
@@ -94,7 +92,7 @@ public class AuthController {
     if (authentication == null) {
       return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
     }
-    User user = (User) authentication.getPrincipal();
+    UserPrincipal user = (UserPrincipal) authentication.getPrincipal();
     return ResponseEntity.ok(
         Map.of(
             "email", user.getUsername(),
@@ -1,16 +1,22 @@
 package com.datashare.api.controller;
 
 import com.datashare.api.dto.FileMetadataResponse;
+import com.datashare.api.dto.FilePage;
+import com.datashare.api.dto.MultipartCompleteRequest;
+import com.datashare.api.dto.MultipartUploadRequest;
+import com.datashare.api.dto.MultipartUploadResponse;
 import com.datashare.api.dto.PresignedDownloadResponse;
 import com.datashare.api.dto.PresignedUploadRequest;
 import com.datashare.api.dto.PresignedUploadResponse;
-import com.datashare.api.entities.User;
-import com.datashare.api.repository.FileRepository;
+import com.datashare.api.security.UserPrincipal;
 import com.datashare.api.service.FileService;
+import com.datashare.api.service.MultipartUploadService;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -20,7 +26,10 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 @RestController
 @RequestMapping("/files")
@@ -28,9 +37,12 @@ import org.springframework.web.bind.annotation.RestController;
 @Slf4j
 public class FileController {
 
+  /** Response header holding the cursor of the next page */
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
   @Autowired private final FileService fileService;
 
-  @Autowired private final FileRepository fileRepository;
+  @Autowired private final MultipartUploadService multipartUploadService;
 
   /**
    * Get an upload presigned URL
@@ -47,7 +59,7 @@ public class FileController {
     if (authentication == null) {
       return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
     }
-    User user = (User) authentication.getPrincipal();
+    UserPrincipal user = (UserPrincipal) authentication.getPrincipal();
 
     return ResponseEntity.ok(
         fileService.createUploadUrl(
@@ -58,6 +70,98 @@ public class FileController {
             user.getId()));
   }
 
+  /**
+   * Get upload presigned URLs for several files in a single request
+   *
+   * @param authentication the authentication from JWT filter
+   * @param body the presigned upload requests, validated together
+   * @return the presigned upload responses, in the order of the requests
+   */
+  @PostMapping("/upload/batch")
+  public ResponseEntity<List<PresignedUploadResponse>> presignedUploadBatch(
+      Authentication authentication, @RequestBody List<PresignedUploadRequest> body) {
+
+    // Get authenticated user
+    if (authentication == null) {
+      return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    }
+    UserPrincipal user = (UserPrincipal) authentication.getPrincipal();
+
+    return ResponseEntity.ok(fileService.createUploadUrls(body, user.getId()));
+  }
+
+  /**
+   * Start a multipart upload and get a presigned URL for each part
+   *
+   * @param authentication the authentication from JWT filter
+   * @param body the multipart upload request body
+   * @return
+   */
+  @PostMapping("/upload/multipart")
+  public ResponseEntity<MultipartUploadResponse> multipartUpload(
+      Authentication authentication, @RequestBody MultipartUploadRequest body) {
+
+    // Get authenticated user
+    if (authentication == null) {
+      return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    }
+    UserPrincipal user = (UserPrincipal) authentication.getPrincipal();
+
+    return ResponseEntity.ok(multipartUploadService.createMultipartUpload(body, user.getId()));
+  }
+
+  /**
+   * Complete a multipart upload once all its parts are uploaded
+   *
+   * @param authentication the authentication from JWT filter
+   * @param tokenString the download token string
+   * @param body the upload id and the uploaded parts
+   * @return
+   */
+  @PostMapping("/upload/multipart/{tokenString}/complete")
+  public ResponseEntity<?> completeMultipartUpload(
+      Authentication authentication,
+      @PathVariable String tokenString,
+      @RequestBody MultipartCompleteRequest body)
+      throws Exception {
+
+    // Get authenticated user
+    if (authentication == null) {
+      return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    }
+    UserPrincipal user = (UserPrincipal) authentication.getPrincipal();
+
+    multipartUploadService.completeMultipartUpload(user, tokenString, body);
+
+    return ResponseEntity.status(HttpStatus.NO_CONTENT.value()).build();
+  }
+
+  /**
+   * Abort a multipart upload and delete the file
+   *
+   * @param authentication the authentication from JWT filter
+   * @param tokenString the download token string
+   * @param uploadId the S3 multipart upload id
+   * @return
+   */
+  @DeleteMapping("/upload/multipart/{tokenString}")
+  public ResponseEntity<?> abortMultipartUpload(
+      Authentication authentication,
+      @PathVariable String tokenString,
+      @RequestParam String uploadId)
+      throws Exception {
+
+    // Get authenticated user
+    if (authentication == null) {
+      return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    }
+    UserPrincipal user = (UserPrincipal) authentication.getPrincipal();
+
+    multipartUploadService.abortMultipartUpload(user, tokenString, uploadId);
+
+    return ResponseEntity.status(HttpStatus.NO_CONTENT.value()).build();
+  }
+
   @PostMapping("/public/upload")
   public ResponseEntity<PresignedUploadResponse> presignedUploadAnonymous(
       @RequestBody PresignedUploadRequest body) {
@@ -74,23 +178,53 @@ public class FileController {
   }
 
   /**
-   * Get the current user files
+   * Get a page of the current user files
+   *
+   * <p>The cursor of the next page, if any, is returned in the {@code X-Next-Cursor} header and
+   * as a {@code Link} header with {@code rel="next"}.
+   *
+   * <p>The list carries an {@code ETag} that changes whenever a file of the user is added or
+   * removed: a request whose {@code If-None-Match} still matches gets a 304 without any file read.
    *
    * @param authentication the authentication from JWT filter
-   * @return
+   * @param request the request, checked against the entity tag
+   * @param cursor the cursor of the page, absent for the first page
+   * @param limit the maximum number of files of the page
+   * @return the files of the page, ordered by creation date, or null once answered with a 304
    */
   @GetMapping("/my")
-  public ResponseEntity<List<FileMetadataResponse>> myFiles(Authentication authentication) {
+  public ResponseEntity<List<FileMetadataResponse>> myFiles(
+      Authentication authentication,
+      WebRequest request,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "" + FileService.DEFAULT_PAGE_SIZE) int limit) {
     // Get authenticated user
     if (authentication == null) {
       return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
     }
-    User user = (User) authentication.getPrincipal();
+    UserPrincipal user = (UserPrincipal) authentication.getPrincipal();
 
-    return ResponseEntity.ok(
-        this.fileRepository.findByUserIdWithToken(user.getId()).stream()
-            .map(FileMetadataResponse::fromEntity)
-            .toList());
+    // Answer an unchanged list with a 304, without reading the files
+    String eTag = fileService.listingETag(user.getId());
+    if (request.checkNotModified(eTag)) {
+      return null;
+    }
+
+    FilePage page = fileService.listMyFiles(user.getId(), cursor, limit);
+
+    ResponseEntity.BodyBuilder response =
+        ResponseEntity.ok().eTag(eTag).cacheControl(CacheControl.noCache().cachePrivate());
+    if (page.nextCursor() != null) {
+      String next =
+          ServletUriComponentsBuilder.fromCurrentRequest()
+              .replaceQueryParam("cursor", page.nextCursor())
+              .replaceQueryParam("limit", limit)
+              .toUriString();
+      response
+          .header(NEXT_CURSOR_HEADER, page.nextCursor())
+          .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+    }
+    return response.body(page.files());
   }
 
   /**
@@ -104,8 +238,11 @@ public class FileController {
   public ResponseEntity<PresignedDownloadResponse> presignedDownload(
       @PathVariable String tokenString) throws Exception {
 
-    // Response with file metadata and download link
-    return ResponseEntity.ok(fileService.createDownloadUrl(tokenString));
+    // Response with file metadata and download link, cacheable while the link stays valid
+    PresignedDownloadResponse response = fileService.createDownloadUrl(tokenString);
+    return ResponseEntity.ok()
+        .cacheControl(fileService.downloadCacheControl(response))
+        .body(response);
   }
 
   @DeleteMapping("/my/{tokenString}")
@@ -116,8 +253,9 @@ public class FileController {
     if (authentication == null) {
       return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
     }
-    User user = (User) authentication.getPrincipal();
+    UserPrincipal user = (UserPrincipal) authentication.getPrincipal();
 
+    // The S3 object is deleted in background, without holding the request thread
     fileService.deleteMyFile(user, tokenString);
 
     return ResponseEntity.status(HttpStatus.NO_CONTENT.value()).build();
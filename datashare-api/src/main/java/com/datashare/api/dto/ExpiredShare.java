@@ -0,0 +1,15 @@
+package com.datashare.api.dto;
+
+import java.time.Instant;
+
+/**
+ * Expired share to reap: a token, its file and the S3 object.
+ *
+ * @param tokenId the token id
+ * @param fileId the file id
+ * @param userId the file owner id
+ * @param s3Key the object key in the bucket
+ * @param expiresAt the token expiration instant
+ */
+public record ExpiredShare(
+    Long tokenId, Long fileId, Long userId, String s3Key, Instant expiresAt) {}
@@ -0,0 +1,64 @@
+package com.datashare.api.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Keyset position in the user's file history, ordered by creation instant then id.
+ *
+ * <p>It is exchanged with the client as an opaque URL-safe string.
+ *
+ * @param createdAt the creation instant of the last returned file
+ * @param id the id of the last returned file
+ */
+public record FileCursor(Instant createdAt, Long id) {
+
+  /** Position before the first file */
+  public static final FileCursor FIRST = new FileCursor(Instant.EPOCH, 0L);
+
+  /**
+   * Get the cursor positioned after a listed file
+   *
+   * @param listing the last returned file
+   * @return the cursor of the next page
+   */
+  public static FileCursor after(FileListing listing) {
+    return new FileCursor(listing.createdAt(), listing.id());
+  }
+
+  /**
+   * Encode the cursor as an opaque string
+   *
+   * @return the URL-safe cursor string
+   */
+  public String encode() {
+    String raw = createdAt + "," + id;
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+  }
+
+  /**
+   * Decode a cursor string
+   *
+   * @param cursor the cursor string, or null for the first page
+   * @return the decoded cursor
+   * @throws IllegalArgumentException if the cursor is malformed
+   */
+  public static FileCursor decode(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return FIRST;
+    }
+
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+      int comma = raw.indexOf(',');
+      return new FileCursor(
+          Instant.parse(raw.substring(0, comma)), Long.parseLong(raw.substring(comma + 1)));
+    } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeException e) {
+      throw new IllegalArgumentException("Invalid cursor");
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package com.datashare.api.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Cached head of a user's file history: the version of the list and its first rows.
+ *
+ * @param version the version of the user's file list when the rows were read
+ * @param firstRows the first rows of the history, one more than the default page size at most
+ */
+public record FileHistory(long version, List<FileListing> firstRows) {
+
+  /**
+   * Get the instant at which the first of the listed tokens expires
+   *
+   * @return the earliest token expiration, or null when no listed file has a token
+   */
+  public Instant nextExpiration() {
+    return firstRows.stream()
+        .map(FileListing::expiresAt)
+        .filter(Objects::nonNull)
+        .min(Instant::compareTo)
+        .orElse(null);
+  }
+}
@@ -0,0 +1,23 @@
+package com.datashare.api.dto;
+
+import java.time.Instant;
+
+/**
+ * Read-only row of the user's file history, projected without loading the entities.
+ *
+ * @param id the file id, tie-breaker of the keyset ordering
+ * @param filename the original file name
+ * @param contentType the file content type
+ * @param size the file size in bytes
+ * @param downloadToken the download token string, or null when the file has no token
+ * @param createdAt the upload instant
+ * @param expiresAt the token expiration instant, or null when the file has no token
+ */
+public record FileListing(
+    Long id,
+    String filename,
+    String contentType,
+    Long size,
+    String downloadToken,
+    Instant createdAt,
+    Instant expiresAt) {}
@@ -31,4 +31,15 @@ public class FileMetadataResponse {
         f.getCreatedAt(),
         token != null ? f.getToken().getExpiresAt() : null);
   }
+
+  public static FileMetadataResponse fromListing(FileListing l) {
+
+    return new FileMetadataResponse(
+        l.filename(),
+        l.contentType(),
+        l.size(),
+        l.downloadToken(),
+        l.createdAt(),
+        l.expiresAt());
+  }
 }
@@ -0,0 +1,11 @@
+package com.datashare.api.dto;
+
+import java.util.List;
+
+/**
+ * Page of the user's file history.
+ *
+ * @param files the files of the page
+ * @param nextCursor the cursor of the next page, or null on the last page
+ */
+public record FilePage(List<FileMetadataResponse> files, String nextCursor) {}
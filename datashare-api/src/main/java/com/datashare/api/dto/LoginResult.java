@@ -0,0 +1,11 @@
+package com.datashare.api.dto;
+
+import java.util.Collection;
+
+/**
+ * Outcome of a successful login: the JWT and the authorities of the user, read in the same lookup.
+ *
+ * @param token the JWT of the user
+ * @param authorities the user authorities
+ */
+public record LoginResult(String token, Collection<?> authorities) {}
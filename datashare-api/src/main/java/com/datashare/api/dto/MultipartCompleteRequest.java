@@ -0,0 +1,29 @@
+package com.datashare.api.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultipartCompleteRequest {
+
+  /** S3 multipart upload id */
+  String uploadId;
+
+  /** Uploaded parts */
+  List<Part> parts;
+
+  /** An uploaded part, identified by the ETag returned by S3 on upload */
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Part {
+
+    int partNumber;
+
+    String etag;
+  }
+}
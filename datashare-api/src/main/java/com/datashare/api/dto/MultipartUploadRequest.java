@@ -0,0 +1,22 @@
+package com.datashare.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultipartUploadRequest {
+
+  String filename;
+
+  String contentType;
+
+  long size;
+
+  /** Size of every part but the last one, in bytes (min 5 MiB) */
+  long partSize;
+
+  Integer expirationDays;
+}
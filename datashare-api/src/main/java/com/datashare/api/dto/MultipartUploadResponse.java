@@ -0,0 +1,28 @@
+package com.datashare.api.dto;
+
+import java.time.Instant;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultipartUploadResponse {
+
+  /** S3 multipart upload id, required to complete or abort the upload */
+  String uploadId;
+
+  /** Download token string */
+  String tokenString;
+
+  /** Token expiration */
+  Instant expiresAt;
+
+  /** Size of every part but the last one, in bytes */
+  long partSize;
+
+  /** Presigned upload URL of each part, the first one being part number 1 */
+  List<String> partUrls;
+}
@@ -21,4 +21,6 @@ public class PresignedDownloadResponse {
   Instant createdAt;
 
   Instant expiresAt;
+
+  Instant downloadUrlExpiresAt;
 }
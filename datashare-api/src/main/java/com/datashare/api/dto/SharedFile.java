@@ -0,0 +1,28 @@
+package com.datashare.api.dto;
+
+import java.time.Instant;
+
+/**
+ * Immutable descriptor of a shared file, as resolved from its download token.
+ *
+ * <p>Unlike the {@link com.datashare.api.entities.File} entity, it holds no persistence state and
+ * can safely be cached until the token expires.
+ *
+ * @param fileId the file id
+ * @param userId the owner id
+ * @param s3Key the object key in the bucket
+ * @param filename the original file name
+ * @param contentType the file content type
+ * @param size the file size in bytes
+ * @param createdAt the upload instant
+ * @param expiresAt the token expiration instant
+ */
+public record SharedFile(
+    Long fileId,
+    Long userId,
+    String s3Key,
+    String filename,
+    String contentType,
+    Long size,
+    Instant createdAt,
+    Instant expiresAt) {}
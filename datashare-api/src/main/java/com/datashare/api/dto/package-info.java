@@ -11,6 +11,9 @@
  *   <li>{@link com.datashare.api.dto.LoginResponse} - Login response with JWT token
  *   <li>{@link com.datashare.api.dto.RegisterRequest} - Registration credentials request payload
  *   <li>{@link com.datashare.api.dto.RegisterResponse} - Registration response with confirmation
+ *   <li>{@link com.datashare.api.dto.SharedFile} - Cacheable descriptor of a shared file
+ *   <li>{@link com.datashare.api.dto.FilePage} - Keyset page of the user's file history
+ *   <li>{@link com.datashare.api.dto.FileHistory} - Cached head of the user's file history
  * </ul>
  */
 package com.datashare.api.dto;
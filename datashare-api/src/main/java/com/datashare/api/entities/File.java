@@ -6,18 +6,23 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.time.Instant;
 import lombok.Data;
 
 @Entity(name = "FileEntity")
-@Table(name = "files")
+@Table(
+    name = "files",
+    indexes = @Index(name = "idx_files_user_created", columnList = "userId, createdAt, id"))
 @Data
 public class File {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "files_seq")
+  @SequenceGenerator(name = "files_seq", allocationSize = 500)
   Long id;
 
   Long userId;
@@ -0,0 +1,30 @@
+package com.datashare.api.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Version of the file list of a user, bumped whenever one of the user's files is added or removed.
+ *
+ * <p>Users whose files never changed have no row, i.e. version 0.
+ */
+@Entity
+@Table(name = "file_versions")
+@Data
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+public class FileVersion {
+
+  /** Owner of the files */
+  @Id Long userId;
+
+  /** Number of changes of the user's file list */
+  @Column(nullable = false)
+  long version;
+}
@@ -2,11 +2,14 @@ package com.datashare.api.entities;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 import java.time.Instant;
@@ -17,14 +20,17 @@ import lombok.NoArgsConstructor;
 @Entity
 @Table(
     name = "tokens",
-    uniqueConstraints = @UniqueConstraint(name = "uk_token", columnNames = "tokenString"))
+    uniqueConstraints = @UniqueConstraint(name = "uk_token", columnNames = "tokenString"),
+    indexes = @Index(name = "idx_tokens_expires_at", columnList = "expiresAt"))
+@EntityListeners(TokenListener.class)
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class Token {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tokens_seq")
+  @SequenceGenerator(name = "tokens_seq", allocationSize = 500)
   Long id;
 
   @Column(unique = true, nullable = false, length = 12)
@@ -0,0 +1,26 @@
+package com.datashare.api.entities;
+
+import com.datashare.api.service.KnownTokens;
+import jakarta.persistence.PostPersist;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Entity listener reporting every inserted {@link Token} to the {@link KnownTokens} filter,
+ * whatever the code path inserting it.
+ *
+ * <p>The filter is resolved on first use, so that the listener can be created while the entity
+ * manager factory it depends on is being built.
+ */
+public class TokenListener {
+
+  private final ObjectProvider<KnownTokens> knownTokens;
+
+  public TokenListener(ObjectProvider<KnownTokens> knownTokens) {
+    this.knownTokens = knownTokens;
+  }
+
+  @PostPersist
+  void inserted(Token token) {
+    knownTokens.ifAvailable(filter -> filter.issued(token.getTokenString()));
+  }
+}
@@ -1,10 +1,12 @@
 package com.datashare.api.entities;
 
+import com.datashare.api.security.UserPrincipal;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.Email;
@@ -21,7 +23,6 @@ import lombok.experimental.FieldDefaults;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.UserDetails;
 
 @Entity
 @Table(
@@ -35,13 +36,14 @@ import org.springframework.security.core.userdetails.UserDetails;
 /**
  * Represents an application user persisted in the database.
  *
- * <p>Implements {@link org.springframework.security.core.userdetails.UserDetails} so it can be used
- * by Spring Security during authentication.
+ * <p>Implements {@link com.datashare.api.security.UserPrincipal} so it can be used by Spring
+ * Security during authentication.
  */
-public class User implements UserDetails {
+public class User implements UserPrincipal {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+  @SequenceGenerator(name = "users_seq", allocationSize = 500)
   @EqualsAndHashCode.Include
   /** Primary identifier of the user. */
   Long id;
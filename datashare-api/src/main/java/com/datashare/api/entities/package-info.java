@@ -9,6 +9,10 @@
  * <ul>
  *   <li>{@link com.datashare.api.entities.User} - User entity for storing user information and
  *       implementing Spring Security UserDetails
+ *   <li>{@link com.datashare.api.entities.FileVersion} - Version of a user's file list, for
+ *       conditional requests
+ *   <li>{@link com.datashare.api.entities.TokenListener} - Report of the inserted tokens to the
+ *       unknown tokens filter
  * </ul>
  */
 package com.datashare.api.entities;
@@ -2,7 +2,32 @@ package com.datashare.api.handler;
 
 /** Exception thrown when a download token is not invalid */
 public class InvalidTokenException extends Exception {
+
+  /** Why a token is rejected */
+  public enum Reason {
+    UNKNOWN("Unknown token"),
+    EXPIRED("Expired token");
+
+    private final String message;
+
+    Reason(String message) {
+      this.message = message;
+    }
+  }
+
+  private final Reason reason;
+
   public InvalidTokenException(String message) {
     super(message);
+    this.reason = Reason.UNKNOWN;
+  }
+
+  public InvalidTokenException(Reason reason) {
+    super(reason.message);
+    this.reason = reason;
+  }
+
+  public Reason getReason() {
+    return reason;
   }
 }
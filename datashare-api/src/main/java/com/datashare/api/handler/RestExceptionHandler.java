@@ -194,6 +194,36 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
         request);
   }
 
+  /**
+   * Handles TooManyRequestsException
+   *
+   * <p>Returns a 429 Too Many Requests response with a Retry-After header. Logged without stack
+   * trace, since it is raised on purpose when the server is saturated.
+   *
+   * @param exception the caught TooManyRequestsException
+   * @param request the current web request
+   * @return a ResponseEntity with error details and 429 status code
+   */
+  @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+  @ExceptionHandler(value = {TooManyRequestsException.class})
+  protected ResponseEntity<Object> handleTooManyRequestsException(
+      TooManyRequestsException exception, WebRequest request) {
+
+    logger.warn(exception.getMessage());
+
+    HttpHeaders headers = new HttpHeaders();
+    headers.set(
+        HttpHeaders.RETRY_AFTER,
+        String.valueOf(Math.max(1, exception.getRetryAfter().toSeconds())));
+
+    return handleExceptionInternal(
+        exception,
+        ApiError.of(HttpStatus.TOO_MANY_REQUESTS.value(), exception.getMessage(), request),
+        headers,
+        HttpStatus.TOO_MANY_REQUESTS,
+        request);
+  }
+
   /**
    * Handles UserNotFileOwnerException
    *
@@ -0,0 +1,23 @@
+package com.datashare.api.handler;
+
+import java.time.Duration;
+
+/** Exception thrown when a request is shed because the server is saturated */
+public class TooManyRequestsException extends RuntimeException {
+
+  private final Duration retryAfter;
+
+  public TooManyRequestsException(String message, Duration retryAfter) {
+    super(message);
+    this.retryAfter = retryAfter;
+  }
+
+  /**
+   * Get the delay after which the client may retry.
+   *
+   * @return the retry delay
+   */
+  public Duration getRetryAfter() {
+    return retryAfter;
+  }
+}
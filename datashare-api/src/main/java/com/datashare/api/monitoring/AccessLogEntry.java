@@ -0,0 +1,74 @@
+package com.datashare.api.monitoring;
+
+import java.time.Instant;
+
+/**
+ * Access log line of a request, formatted by the background writer.
+ *
+ * @param timestamp the instant the request started
+ * @param method the HTTP method
+ * @param path the URI pattern of the handler, not the raw URI
+ * @param status the response status
+ * @param latencyNanos the time spent in the filter chain
+ * @param bytes the number of bytes written in the response body
+ * @param userId the id of the authenticated user, or null
+ * @param statements the number of Hibernate statements
+ * @param s3Calls the number of S3 calls
+ * @param payload the captured request body of an error response, or null
+ */
+public record AccessLogEntry(
+    Instant timestamp,
+    String method,
+    String path,
+    int status,
+    long latencyNanos,
+    long bytes,
+    Long userId,
+    int statements,
+    int s3Calls,
+    String payload) {
+
+  /**
+   * Format the entry as space separated {@code key=value} pairs.
+   *
+   * @return the log line
+   */
+  public String format() {
+    StringBuilder line =
+        new StringBuilder(128)
+            .append("ts=")
+            .append(timestamp)
+            .append(" method=")
+            .append(method)
+            .append(" path=")
+            .append(path)
+            .append(" status=")
+            .append(status)
+            .append(" latency_ms=")
+            .append(latencyNanos / 1_000_000)
+            .append('.')
+            .append(latencyNanos / 100_000 % 10)
+            .append(" bytes=")
+            .append(bytes)
+            .append(" user=")
+            .append(userId != null ? userId : "-")
+            .append(" db=")
+            .append(statements)
+            .append(" s3=")
+            .append(s3Calls);
+    if (payload != null) {
+      line.append(" payload=\"");
+      for (int i = 0; i < payload.length(); i++) {
+        char c = payload.charAt(i);
+        switch (c) {
+          case '"', '\\' -> line.append('\\').append(c);
+          case '\n' -> line.append("\\n");
+          case '\r' -> line.append("\\r");
+          default -> line.append(c);
+        }
+      }
+      line.append('"');
+    }
+    return line.toString();
+  }
+}
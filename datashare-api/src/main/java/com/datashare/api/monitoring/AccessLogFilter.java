@@ -0,0 +1,181 @@
+package com.datashare.api.monitoring;
+
+import com.datashare.api.configuration.AccessLogProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+/**
+ * Filter writing one structured access log entry per request.
+ *
+ * <p>Nothing is formatted nor written on the request thread: the entry is handed to the {@link
+ * AccessLogWriter}. Requests to the paths listed in {@code access-log.sampling} are only logged at
+ * the given rate, error responses always are. The request body is only cached when payload capture
+ * is enabled, and only logged for error responses.
+ *
+ * <p>Runs right inside the {@link StatementsPerRequestFilter}, so that the statements of the
+ * security filters are counted too.
+ */
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+public class AccessLogFilter extends OncePerRequestFilter {
+
+  /** Request attribute holding the id of the authenticated user */
+  public static final String USER_ATTRIBUTE = AccessLogFilter.class.getName() + ".user";
+
+  private final AccessLogWriter writer;
+  private final AccessLogProperties properties;
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+
+    Instant timestamp = Instant.now();
+    long start = System.nanoTime();
+    HttpServletRequest requestToUse =
+        capturePayload(request)
+            ? new ContentCachingRequestWrapper(request, properties.getPayload().getMaxLength())
+            : request;
+    CountingResponse responseToUse = new CountingResponse(response);
+    boolean failed = true;
+
+    S3CallCounter.start();
+    try {
+      filterChain.doFilter(requestToUse, responseToUse);
+      failed = false;
+    } finally {
+      long latency = System.nanoTime() - start;
+      int s3Calls = S3CallCounter.stop();
+      int status = failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus();
+      Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+      String path = pattern != null ? pattern.toString() : StatementsPerRequestFilter.UNKNOWN_URI;
+
+      if (status >= 400 || sampled(path)) {
+        writer.submit(
+            new AccessLogEntry(
+                timestamp,
+                request.getMethod(),
+                path,
+                status,
+                latency,
+                responseToUse.bytes,
+                request.getAttribute(USER_ATTRIBUTE) instanceof Long id ? id : null,
+                StatementCounter.count(),
+                s3Calls,
+                status >= 400 && requestToUse instanceof ContentCachingRequestWrapper cached
+                    ? cached.getContentAsString()
+                    : null));
+      }
+    }
+  }
+
+  private boolean sampled(String path) {
+    Double rate = properties.getSampling().get(path);
+    return rate == null || rate >= 1 || ThreadLocalRandom.current().nextDouble() < rate;
+  }
+
+  private boolean capturePayload(HttpServletRequest request) {
+    AccessLogProperties.Payload payload = properties.getPayload();
+    return payload.isEnabled()
+        && payload.getExcludedPaths().stream().noneMatch(request.getRequestURI()::startsWith);
+  }
+
+  /** Response counting the bytes of its body, without copying them */
+  private static final class CountingResponse extends HttpServletResponseWrapper {
+
+    private long bytes;
+
+    private ServletOutputStream outputStream;
+
+    private PrintWriter writer;
+
+    private CountingResponse(HttpServletResponse response) {
+      super(response);
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+      if (outputStream == null) {
+        ServletOutputStream delegate = super.getOutputStream();
+        outputStream =
+            new ServletOutputStream() {
+              @Override
+              public void write(int b) throws IOException {
+                delegate.write(b);
+                bytes++;
+              }
+
+              @Override
+              public void write(byte[] b, int off, int len) throws IOException {
+                delegate.write(b, off, len);
+                bytes += len;
+              }
+
+              @Override
+              public void flush() throws IOException {
+                delegate.flush();
+              }
+
+              @Override
+              public void close() throws IOException {
+                delegate.close();
+              }
+
+              @Override
+              public boolean isReady() {
+                return delegate.isReady();
+              }
+
+              @Override
+              public void setWriteListener(WriteListener writeListener) {
+                delegate.setWriteListener(writeListener);
+              }
+            };
+      }
+      return outputStream;
+    }
+
+    /** Characters written through the writer are counted as bytes */
+    @Override
+    public PrintWriter getWriter() throws IOException {
+      if (writer == null) {
+        writer =
+            new PrintWriter(super.getWriter()) {
+              @Override
+              public void write(int c) {
+                super.write(c);
+                bytes++;
+              }
+
+              @Override
+              public void write(char[] buf, int off, int len) {
+                super.write(buf, off, len);
+                bytes += len;
+              }
+
+              @Override
+              public void write(String s, int off, int len) {
+                super.write(s, off, len);
+                bytes += len;
+              }
+            };
+      }
+      return writer;
+    }
+  }
+}
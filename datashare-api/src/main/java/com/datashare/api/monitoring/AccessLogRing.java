@@ -0,0 +1,95 @@
+package com.datashare.api.monitoring;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free ring buffer, with many producers and a single consumer.
+ *
+ * <p>Each slot carries a sequence number telling whether it is free for the producer of a given
+ * position or filled for the consumer: producers claim a position with a single CAS and never
+ * block, an offer to a full ring fails at once.
+ *
+ * @param <E> the type of the elements
+ */
+final class AccessLogRing<E> {
+
+  private final AtomicReferenceArray<E> elements;
+  private final AtomicLongArray sequences;
+  private final int mask;
+
+  /** Next position to claim by the producers */
+  private final AtomicLong tail = new AtomicLong();
+
+  /** Next position to read, only accessed by the consumer */
+  private long head;
+
+  /**
+   * Create a ring buffer.
+   *
+   * @param capacity the number of slots, a power of two
+   */
+  AccessLogRing(int capacity) {
+    if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("Ring capacity must be a power of two: " + capacity);
+    }
+    this.elements = new AtomicReferenceArray<>(capacity);
+    this.sequences = new AtomicLongArray(capacity);
+    this.mask = capacity - 1;
+    for (int i = 0; i < capacity; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  /**
+   * Add an element, from any thread.
+   *
+   * @param element the element to add
+   * @return false if the ring is full and the element was dropped
+   */
+  boolean offer(E element) {
+    long position;
+    int slot;
+    while (true) {
+      position = tail.get();
+      slot = (int) position & mask;
+      long available = sequences.get(slot) - position;
+      if (available == 0 && tail.compareAndSet(position, position + 1)) {
+        break;
+      }
+      if (available < 0) {
+        return false;
+      }
+    }
+    elements.set(slot, element);
+    sequences.set(slot, position + 1);
+    return true;
+  }
+
+  /**
+   * Remove the oldest element, from the consumer thread only.
+   *
+   * @return the element, or null if the ring is empty
+   */
+  E poll() {
+    int slot = (int) head & mask;
+    if (sequences.get(slot) != head + 1) {
+      return null;
+    }
+    E element = elements.get(slot);
+    elements.set(slot, null);
+    sequences.set(slot, head + mask + 1);
+    head++;
+    return element;
+  }
+
+  /**
+   * Approximate number of elements in the ring.
+   *
+   * @return the number of claimed positions not read yet
+   */
+  int size() {
+    return (int) Math.max(0, tail.get() - head);
+  }
+}
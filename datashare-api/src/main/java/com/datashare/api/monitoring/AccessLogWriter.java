@@ -0,0 +1,95 @@
+package com.datashare.api.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Background writer of the access log.
+ *
+ * <p>Request threads only hand their entry to a lock-free ring buffer ({@link #submit}); a single
+ * daemon thread formats and logs the entries to the {@value #LOGGER} logger. When the writer falls
+ * behind and the ring is full, entries are dropped rather than slowing the requests down, and
+ * counted by the {@code datashare.access-log.dropped} metric.
+ */
+@Slf4j
+public class AccessLogWriter implements AutoCloseable {
+
+  /** Name of the access log logger */
+  public static final String LOGGER = "datashare.access";
+
+  private static final Logger ACCESS = LoggerFactory.getLogger(LOGGER);
+
+  /** Pause of the writer when the ring is empty */
+  private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+  private final AccessLogRing<AccessLogEntry> ring;
+  private final Counter dropped;
+  private final Thread thread;
+
+  private volatile boolean running = true;
+
+  /**
+   * Create the writer and start its thread.
+   *
+   * @param bufferSize the number of entries the ring holds, a power of two
+   * @param meterRegistry the registry of the access log metrics
+   */
+  public AccessLogWriter(int bufferSize, MeterRegistry meterRegistry) {
+    this.ring = new AccessLogRing<>(bufferSize);
+    this.dropped =
+        Counter.builder("datashare.access-log.dropped")
+            .description("Access log entries dropped because the buffer is full")
+            .register(meterRegistry);
+    Gauge.builder("datashare.access-log.pending", ring, AccessLogRing::size)
+        .description("Access log entries waiting to be written")
+        .register(meterRegistry);
+    this.thread = Thread.ofPlatform().name("access-log").daemon(true).start(this::drain);
+  }
+
+  /**
+   * Hand an entry to the writer, without blocking.
+   *
+   * @param entry the entry to log
+   */
+  public void submit(AccessLogEntry entry) {
+    if (!ring.offer(entry)) {
+      dropped.increment();
+    }
+  }
+
+  /** Stop the writer thread, once the pending entries are written */
+  @Override
+  public void close() throws InterruptedException {
+    running = false;
+    LockSupport.unpark(thread);
+    thread.join(TimeUnit.SECONDS.toMillis(5));
+  }
+
+  private void drain() {
+    while (running) {
+      AccessLogEntry entry = ring.poll();
+      if (entry == null) {
+        LockSupport.parkNanos(IDLE_NANOS);
+      } else {
+        write(entry);
+      }
+    }
+    for (AccessLogEntry entry = ring.poll(); entry != null; entry = ring.poll()) {
+      write(entry);
+    }
+  }
+
+  private static void write(AccessLogEntry entry) {
+    try {
+      ACCESS.info(entry.format());
+    } catch (RuntimeException e) {
+      log.warn("Cannot write access log entry: {}", e.getMessage());
+    }
+  }
+}
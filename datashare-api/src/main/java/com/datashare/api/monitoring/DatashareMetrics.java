@@ -0,0 +1,178 @@
+package com.datashare.api.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Business metrics of the file and authentication flows.
+ *
+ * <p>Publishes the {@code datashare.*} metrics: presign latency, download token resolutions, login
+ * outcomes, S3 delete latency, authentication filter time and Hibernate statements per request.
+ * Timers publish percentile histograms, so that percentiles can be aggregated across instances.
+ */
+@Component
+public class DatashareMetrics {
+
+  /** Longest latency of the histogram buckets of the timers */
+  private static final Duration MAX_EXPECTED = Duration.ofSeconds(5);
+
+  /** Presigned URL kind */
+  public enum Presign {
+    UPLOAD,
+    DOWNLOAD
+  }
+
+  /** Outcome of a download token resolution */
+  public enum TokenOutcome {
+    HIT,
+    UNKNOWN,
+    EXPIRED
+  }
+
+  /** Outcome of a login */
+  public enum LoginOutcome {
+    SUCCESS,
+    UNKNOWN_EMAIL,
+    BAD_PASSWORD
+  }
+
+  /** Outcome of the authentication of a request carrying a JWT */
+  public enum AuthOutcome {
+    AUTHENTICATED,
+    REJECTED
+  }
+
+  private final MeterRegistry meterRegistry;
+
+  private final Map<Presign, Timer> presigns = new EnumMap<>(Presign.class);
+  private final Map<TokenOutcome, Counter> tokenResolutions = new EnumMap<>(TokenOutcome.class);
+  private final Map<LoginOutcome, Counter> logins = new EnumMap<>(LoginOutcome.class);
+  private final Map<AuthOutcome, Timer> authentications = new EnumMap<>(AuthOutcome.class);
+  private final Timer s3Deletes;
+  private final Timer s3DeleteFailures;
+
+  public DatashareMetrics(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+
+    for (Presign operation : Presign.values()) {
+      presigns.put(
+          operation,
+          timer("datashare.presign", "Time to get a presigned URL")
+              .tag("operation", tag(operation))
+              .register(meterRegistry));
+    }
+    for (TokenOutcome outcome : TokenOutcome.values()) {
+      tokenResolutions.put(
+          outcome,
+          Counter.builder("datashare.tokens.resolutions")
+              .description("Download token resolutions")
+              .tag("outcome", tag(outcome))
+              .register(meterRegistry));
+    }
+    for (LoginOutcome outcome : LoginOutcome.values()) {
+      logins.put(
+          outcome,
+          Counter.builder("datashare.auth.logins")
+              .description("Login attempts")
+              .tag("outcome", tag(outcome))
+              .register(meterRegistry));
+    }
+    for (AuthOutcome outcome : AuthOutcome.values()) {
+      authentications.put(
+          outcome,
+          timer("datashare.auth.filter", "Time to authenticate a request from its JWT")
+              .tag("outcome", tag(outcome))
+              .register(meterRegistry));
+    }
+    this.s3Deletes =
+        timer("datashare.s3.deletes", "Time to delete an object")
+            .tag("outcome", "success")
+            .register(meterRegistry);
+    this.s3DeleteFailures =
+        timer("datashare.s3.deletes", "Time to delete an object")
+            .tag("outcome", "failure")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Record the time to get a presigned URL.
+   *
+   * @param operation the URL kind
+   * @param nanos the elapsed time
+   */
+  public void presign(Presign operation, long nanos) {
+    presigns.get(operation).record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Count a download token resolution.
+   *
+   * @param outcome the resolution outcome
+   */
+  public void tokenResolution(TokenOutcome outcome) {
+    tokenResolutions.get(outcome).increment();
+  }
+
+  /**
+   * Count a login attempt.
+   *
+   * @param outcome the login outcome
+   */
+  public void login(LoginOutcome outcome) {
+    logins.get(outcome).increment();
+  }
+
+  /**
+   * Record the time to delete an object.
+   *
+   * @param success whether the object was deleted
+   * @param nanos the elapsed time
+   */
+  public void s3Delete(boolean success, long nanos) {
+    (success ? s3Deletes : s3DeleteFailures).record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Record the time to authenticate a request from its JWT.
+   *
+   * @param outcome the authentication outcome
+   * @param nanos the elapsed time
+   */
+  public void authentication(AuthOutcome outcome, long nanos) {
+    authentications.get(outcome).record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Record the number of Hibernate statements of a request.
+   *
+   * @param uri the URI pattern of the request
+   * @param statements the number of statements
+   */
+  public void statements(String uri, int statements) {
+    DistributionSummary.builder("datashare.http.db.statements")
+        .description("Hibernate statements executed by a request")
+        .tag("uri", uri)
+        .serviceLevelObjectives(1, 2, 3, 5, 10, 20, 50)
+        .register(meterRegistry)
+        .record(statements);
+  }
+
+  private static Timer.Builder timer(String name, String description) {
+    return Timer.builder(name)
+        .description(description)
+        .publishPercentileHistogram()
+        .maximumExpectedValue(MAX_EXPECTED);
+  }
+
+  private static String tag(Enum<?> value) {
+    return value.name().toLowerCase(Locale.ROOT).replace('_', '-');
+  }
+}
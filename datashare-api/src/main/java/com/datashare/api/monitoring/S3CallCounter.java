@@ -0,0 +1,42 @@
+package com.datashare.api.monitoring;
+
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+
+/**
+ * Counter of the S3 calls made by the current thread.
+ *
+ * <p>Registered as an execution interceptor of the S3 clients; {@code beforeExecution} runs on the
+ * calling thread, for the asynchronous client too. Counting only happens between {@link #start()}
+ * and {@link #stop()}, i.e. during a request.
+ */
+public class S3CallCounter implements ExecutionInterceptor {
+
+  private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+  /** Start counting the S3 calls of the current thread */
+  public static void start() {
+    COUNT.set(new int[1]);
+  }
+
+  /**
+   * Stop counting the S3 calls of the current thread.
+   *
+   * @return the number of calls since {@link #start()}
+   */
+  public static int stop() {
+    int[] count = COUNT.get();
+    COUNT.remove();
+    return count != null ? count[0] : 0;
+  }
+
+  @Override
+  public void beforeExecution(
+      Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+    int[] count = COUNT.get();
+    if (count != null) {
+      count[0]++;
+    }
+  }
+}
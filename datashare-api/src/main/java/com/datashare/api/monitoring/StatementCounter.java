@@ -0,0 +1,49 @@
+package com.datashare.api.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counter of the Hibernate statements prepared by the current thread.
+ *
+ * <p>Registered as the Hibernate {@code statement_inspector}. Counting only happens between {@link
+ * #start()} and {@link #stop()}, i.e. during a request.
+ */
+public class StatementCounter implements StatementInspector {
+
+  private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+  /** Start counting the statements of the current thread */
+  public static void start() {
+    COUNT.set(new int[1]);
+  }
+
+  /**
+   * Stop counting the statements of the current thread.
+   *
+   * @return the number of statements since {@link #start()}
+   */
+  public static int stop() {
+    int[] count = COUNT.get();
+    COUNT.remove();
+    return count != null ? count[0] : 0;
+  }
+
+  /**
+   * Number of statements of the current thread so far, counting goes on.
+   *
+   * @return the number of statements since {@link #start()}
+   */
+  public static int count() {
+    int[] count = COUNT.get();
+    return count != null ? count[0] : 0;
+  }
+
+  @Override
+  public String inspect(String sql) {
+    int[] count = COUNT.get();
+    if (count != null) {
+      count[0]++;
+    }
+    return sql;
+  }
+}
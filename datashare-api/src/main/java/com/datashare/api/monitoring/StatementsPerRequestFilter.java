@@ -0,0 +1,44 @@
+package com.datashare.api.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Filter recording the Hibernate statements of each request, by URI pattern.
+ *
+ * <p>Runs first, so that the lookups of the security filters are counted too.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class StatementsPerRequestFilter extends OncePerRequestFilter {
+
+  /** URI tag of the requests not handled by a controller */
+  static final String UNKNOWN_URI = "UNKNOWN";
+
+  private final DatashareMetrics metrics;
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+
+    StatementCounter.start();
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      int statements = StatementCounter.stop();
+      Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+      metrics.statements(pattern != null ? pattern.toString() : UNKNOWN_URI, statements);
+    }
+  }
+}
@@ -0,0 +1,21 @@
+/**
+ * Monitoring package.
+ *
+ * <p>This package contains the business metrics of the Datashare application, scraped by
+ * Prometheus from {@code /actuator/prometheus}, and its access log.
+ *
+ * <p>Key components:
+ *
+ * <ul>
+ *   <li>{@link com.datashare.api.monitoring.DatashareMetrics} - Timers and counters of the file and
+ *       authentication flows
+ *   <li>{@link com.datashare.api.monitoring.StatementCounter} - Hibernate statements of a request
+ *   <li>{@link com.datashare.api.monitoring.StatementsPerRequestFilter} - Statements per request
+ *       metric
+ *   <li>{@link com.datashare.api.monitoring.AccessLogFilter} - Structured access log of the
+ *       requests
+ *   <li>{@link com.datashare.api.monitoring.AccessLogWriter} - Background writer of the access log
+ *   <li>{@link com.datashare.api.monitoring.S3CallCounter} - S3 calls of a request
+ * </ul>
+ */
+package com.datashare.api.monitoring;
@@ -1,7 +1,10 @@
 package com.datashare.api.repository;
 
+import com.datashare.api.dto.FileListing;
 import com.datashare.api.entities.File;
+import java.time.Instant;
 import java.util.List;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -16,4 +19,15 @@ public interface FileRepository extends JpaRepository<File, Long> {
   /** Get files by userId with token */
   @Query("SELECT f FROM FileEntity f LEFT JOIN FETCH f.token WHERE f.userId = :userId")
   List<File> findByUserIdWithToken(Long userId);
+
+  /** Get a keyset page of the user files after a (createdAt, id) position, as projections */
+  @Query(
+      "SELECT new com.datashare.api.dto.FileListing(f.id, f.filename, f.contentType, f.size,"
+          + " t.tokenString, f.createdAt, t.expiresAt)"
+          + " FROM FileEntity f LEFT JOIN f.token t WHERE f.userId = :userId"
+          + " AND (f.createdAt > :afterCreatedAt"
+          + " OR (f.createdAt = :afterCreatedAt AND f.id > :afterId))"
+          + " ORDER BY f.createdAt, f.id")
+  List<FileListing> findListingByUserId(
+      Long userId, Instant afterCreatedAt, Long afterId, Limit limit);
 }
@@ -0,0 +1,34 @@
+package com.datashare.api.repository;
+
+import com.datashare.api.entities.FileVersion;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+/** JPA repository of the {@link FileVersion} of each user's file list */
+@Repository
+public interface FileVersionRepository extends JpaRepository<FileVersion, Long> {
+
+  /** Get the version of a user's file list, by primary key */
+  @Query("SELECT v.version FROM FileVersion v WHERE v.userId = :userId")
+  Optional<Long> findVersionByUserId(Long userId);
+
+  /** Increment the version of a user's file list, returning 0 if the user has no version yet */
+  @Modifying
+  @Query("UPDATE FileVersion v SET v.version = v.version + 1 WHERE v.userId = :userId")
+  int increment(Long userId);
+
+  /**
+   * Insert the first version of a user's file list, returning 0 if it already exists, once the
+   * transaction creating it, if still running, is committed
+   */
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO file_versions (user_id, version) VALUES (:userId, 1)"
+              + " ON CONFLICT DO NOTHING",
+      nativeQuery = true)
+  int insertFirst(Long userId);
+}
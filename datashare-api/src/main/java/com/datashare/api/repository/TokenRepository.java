@@ -1,8 +1,20 @@
 package com.datashare.api.repository;
 
+import com.datashare.api.dto.ExpiredShare;
+import com.datashare.api.dto.SharedFile;
 import com.datashare.api.entities.Token;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -10,4 +22,39 @@ import org.springframework.stereotype.Repository;
 public interface TokenRepository extends JpaRepository<Token, Long> {
 
   Optional<Token> findByTokenString(String tokenString);
+
+  /** Get the shared file descriptor of a token in a single query */
+  @Query(
+      "SELECT new com.datashare.api.dto.SharedFile(f.id, f.userId, f.s3Key, f.filename,"
+          + " f.contentType, f.size, f.createdAt, t.expiresAt)"
+          + " FROM Token t JOIN t.file f WHERE t.tokenString = :tokenString")
+  Optional<SharedFile> findSharedFileByTokenString(String tokenString);
+
+  /** Get those of the given token strings that already exist */
+  @Query("SELECT t.tokenString FROM Token t WHERE t.tokenString IN :tokenStrings")
+  List<String> findExistingTokenStrings(Collection<String> tokenStrings);
+
+    /** Stream all the token strings, in a read-only transaction */
+  @Query("SELECT t.tokenString FROM Token t")
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+  Stream<String> streamTokenStrings();
+
+  /** Get a page of the shares expired before now, after the (expiresAt, id) keyset cursor */
+  @Query(
+      "SELECT new com.datashare.api.dto.ExpiredShare(t.id, f.id, f.userId, f.s3Key, t.expiresAt)"
+          + " FROM Token t JOIN t.file f WHERE t.expiresAt < :now"
+          + " AND (t.expiresAt > :afterExpiresAt"
+          + " OR (t.expiresAt = :afterExpiresAt AND t.id > :afterId))"
+          + " ORDER BY t.expiresAt, t.id")
+  List<ExpiredShare> findExpiredShares(
+      Instant now, Instant afterExpiresAt, Long afterId, Limit limit);
+
+  /** Get the expiration of the oldest token expired before now */
+  @Query("SELECT MIN(t.expiresAt) FROM Token t WHERE t.expiresAt < :now")
+  Optional<Instant> findOldestExpiration(Instant now);
+
+  /** Delete the tokens of files in a single statement */
+  @Modifying
+  @Query("DELETE FROM Token t WHERE t.file.id IN :fileIds")
+  int deleteByFileIdIn(Collection<Long> fileIds);
 }
@@ -0,0 +1,144 @@
+package com.datashare.api.security;
+
+import com.datashare.api.handler.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Password encoder running the hashes of a delegate on a dedicated bounded pool.
+ *
+ * <p>Hashing is CPU bound (about 100 ms per BCrypt hash at strength 10): running it on the request
+ * threads lets a login storm starve every other endpoint. Here the calling thread only waits for
+ * its hash, at most {@code threads} hashes run at once and at most {@code queueCapacity} wait;
+ * beyond that the request is shed with a {@link TooManyRequestsException}.
+ *
+ * <p>Publishes the {@code datashare.auth.hashing.*} metrics: hash time, queue wait, queue depth and
+ * rejected hashes.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+  private final PasswordEncoder delegate;
+  private final ThreadPoolExecutor executor;
+  private final Duration retryAfter;
+
+  private final Timer encodes;
+  private final Timer matches;
+  private final Timer waits;
+  private final Counter rejected;
+
+  /**
+   * Create a bounded password encoder.
+   *
+   * @param delegate the encoder computing the hashes
+   * @param threads the number of hashing threads
+   * @param queueCapacity the maximum number of hashes waiting for a thread
+   * @param retryAfter the delay after which a rejected client may retry
+   * @param meterRegistry the registry of the hashing metrics
+   */
+  public BoundedPasswordEncoder(
+      PasswordEncoder delegate,
+      int threads,
+      int queueCapacity,
+      Duration retryAfter,
+      MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.retryAfter = retryAfter;
+    this.executor =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            Thread.ofPlatform().name("password-hashing-", 0).daemon(true).factory(),
+            new ThreadPoolExecutor.AbortPolicy());
+
+    this.encodes = hashTimer(meterRegistry, "encode");
+    this.matches = hashTimer(meterRegistry, "matches");
+    this.waits =
+        Timer.builder("datashare.auth.hashing.wait")
+            .description("Time a password hash waits for a hashing thread")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    this.rejected =
+        Counter.builder("datashare.auth.hashing.rejected")
+            .description("Password hashes rejected because the queue is full")
+            .register(meterRegistry);
+    Gauge.builder("datashare.auth.hashing.queue", executor, e -> e.getQueue().size())
+        .description("Password hashes waiting for a hashing thread")
+        .register(meterRegistry);
+    Gauge.builder("datashare.auth.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+        .description("Password hashes running")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return hash(() -> delegate.encode(rawPassword), encodes);
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return hash(() -> delegate.matches(rawPassword, encodedPassword), matches);
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+
+  /** Stop the hashing threads */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  /** Run a hash on the pool and wait for its result */
+  private <T> T hash(Callable<T> hash, Timer timer) {
+    long queued = System.nanoTime();
+    Future<T> result;
+    try {
+      result =
+          executor.submit(
+              () -> {
+                waits.record(System.nanoTime() - queued, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(hash);
+              });
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      throw new TooManyRequestsException("Too many authentication requests", retryAfter);
+    }
+
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
+      result.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while hashing a password", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new IllegalStateException("Password hashing failed", e.getCause());
+    }
+  }
+
+  private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+    return Timer.builder("datashare.auth.hashing")
+        .description("Time to compute a password hash")
+        .tag("operation", operation)
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+  }
+}
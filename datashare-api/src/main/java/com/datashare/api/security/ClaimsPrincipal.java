@@ -0,0 +1,30 @@
+package com.datashare.api.security;
+
+import java.util.Collection;
+import lombok.Value;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * Principal built straight from the claims of a verified JWT, without any database lookup.
+ *
+ * <p>Used when {@code security.jwt.stateless} is enabled. It carries no password since credentials
+ * have already been checked when the token was issued.
+ */
+@Value
+public class ClaimsPrincipal implements UserPrincipal {
+
+  /** Identifier of the user ({@code uid} claim) */
+  Long id;
+
+  /** Login identifier of the user ({@code sub} claim) */
+  String username;
+
+  /** Authorities granted to the user ({@code roles} claim) */
+  Collection<? extends GrantedAuthority> authorities;
+
+  /** No password is carried by a claims-based principal. */
+  @Override
+  public String getPassword() {
+    return null;
+  }
+}
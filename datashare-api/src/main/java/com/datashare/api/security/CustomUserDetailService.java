@@ -1,8 +1,12 @@
 package com.datashare.api.security;
 
+import com.datashare.api.configuration.CacheConfig;
 import com.datashare.api.entities.User;
 import com.datashare.api.repository.UserRepository;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -11,6 +15,10 @@ import org.springframework.stereotype.Service;
 /**
  * UserDetailsService implementation that loads user data from the application's {@link
  * com.datashare.api.repository.UserRepository}.
+ *
+ * <p>The principals of authenticated requests are kept in the {@link CacheConfig#USERS} cache so
+ * that repeated authenticated requests do not query the database. They are {@link ClaimsPrincipal}
+ * copies of the users, without the password hash. Unknown users are never cached.
  */
 @Service
 @RequiredArgsConstructor
@@ -21,16 +29,40 @@ public class CustomUserDetailService implements UserDetailsService {
   @Override
   public UserDetails loadUserByUsername(String login) throws UsernameNotFoundException {
     /**
-     * Load user details by username (email).
+     * Load user details by username (email), with the password hash to check credentials.
      *
      * @param login the username/email to load
      * @return the loaded {@link UserDetails}
      * @throws UsernameNotFoundException if the user cannot be found
      */
-    User user =
-        userRepository
-            .findByEmail(login)
-            .orElseThrow(() -> new UsernameNotFoundException("User not found: " + login));
-    return user;
+    return findUser(login);
+  }
+
+  /**
+   * Load the principal of an authenticated user by username (email), from the cache if possible.
+   *
+   * @param login the username/email to load
+   * @return the principal, without password
+   * @throws UsernameNotFoundException if the user cannot be found
+   */
+  @Cacheable(cacheNames = CacheConfig.USERS, key = "#login")
+  public UserPrincipal loadPrincipal(String login) throws UsernameNotFoundException {
+    User user = findUser(login);
+    return new ClaimsPrincipal(
+        user.getId(), user.getUsername(), List.copyOf(user.getAuthorities()));
+  }
+
+  /**
+   * Evict the cached principal of a user.
+   *
+   * @param login the username/email of the user
+   */
+  @CacheEvict(cacheNames = CacheConfig.USERS, key = "#login")
+  public void evictPrincipal(String login) {}
+
+  private User findUser(String login) {
+    return userRepository
+        .findByEmail(login)
+        .orElseThrow(() -> new UsernameNotFoundException("User not found: " + login));
   }
 }
@@ -1,5 +1,8 @@
 package com.datashare.api.security;
 
+import com.datashare.api.monitoring.AccessLogFilter;
+import com.datashare.api.monitoring.DatashareMetrics;
+import com.datashare.api.monitoring.DatashareMetrics.AuthOutcome;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -9,21 +12,33 @@ import java.io.IOException;
 import java.util.Arrays;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+/**
+ * Filter authenticating requests from the JWT carried by the {@code AUTH-TOKEN} cookie.
+ *
+ * <p>When {@code security.jwt.stateless} is enabled, the principal is built from the verified
+ * claims of the token and no database lookup is made. Tokens issued without the user id claim fall
+ * back to the cached principal of the {@link CustomUserDetailService}.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
   private final JwtService jwtService;
-  private final UserDetailsService userDetailsService;
+  private final CustomUserDetailService userDetailsService;
+  private final DatashareMetrics metrics;
+
+  @Value("${security.jwt.stateless:false}")
+  private boolean stateless;
 
   private static final String COOKIE_NAME = "AUTH-TOKEN";
 
@@ -42,19 +57,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
       return;
     }
 
+    long start = System.nanoTime();
+    AuthOutcome outcome = AuthOutcome.REJECTED;
     try {
       // ════════════════════════════════════════════════════
       // Validation et extraction du username
       // ════════════════════════════════════════════════════
-      String userEmail = jwtService.extractUsername(jwt);
+      Jwt token = jwtService.decode(jwt);
+      String userEmail = jwtService.extractUsername(token);
 
       if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-        UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
+        UserDetails userDetails = stateless ? jwtService.toPrincipal(token) : null;
+        if (userDetails == null) {
+          userDetails = userDetailsService.loadPrincipal(userEmail);
+        }
 
         // ════════════════════════════════════════════════════
         // Validation du token
         // ════════════════════════════════════════════════════
-        if (jwtService.isTokenValid(jwt, userDetails)) {
+        if (jwtService.isTokenValid(token, userDetails)) {
           UsernamePasswordAuthenticationToken authToken =
               new UsernamePasswordAuthenticationToken(
                   userDetails, null, userDetails.getAuthorities());
@@ -62,6 +83,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
           authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
           SecurityContextHolder.getContext().setAuthentication(authToken);
+          outcome = AuthOutcome.AUTHENTICATED;
+          if (userDetails instanceof UserPrincipal principal) {
+            request.setAttribute(AccessLogFilter.USER_ATTRIBUTE, principal.getId());
+          }
 
           log.debug("User {} authenticated successfully", userEmail);
         } else {
@@ -75,6 +100,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
       // Autres erreurs
       log.error("Cannot set user authentication: {}", e.getMessage());
     }
+    metrics.authentication(outcome, System.nanoTime() - start);
 
     filterChain.doFilter(request, response);
   }
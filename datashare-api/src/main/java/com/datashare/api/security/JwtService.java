@@ -1,8 +1,23 @@
 package com.datashare.api.security;
 
+import com.datashare.api.configuration.CacheConfig;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCache;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.oauth2.jwt.JwsHeader;
 import org.springframework.security.oauth2.jwt.Jwt;
@@ -18,15 +33,39 @@ import org.springframework.stereotype.Service;
  *
  * <p>This service provides functionality to create JWT tokens with customizable expiration times
  * and issuer information. Tokens are signed using the configured JWT encoder.
+ *
+ * <p>Incoming tokens are decoded once with {@link #decode(String)} and the resulting {@link Jwt} is
+ * reused by every query. Verified tokens are cached, keyed by a SHA-256 hash of the raw token and
+ * never beyond their own expiration, so repeated requests skip signature verification.
  */
 @Service
 @Slf4j
 public class JwtService {
 
+  /** Claim carrying the user id */
+  public static final String UID_CLAIM = "uid";
+
+  /** Claim carrying the user authorities */
+  public static final String ROLES_CLAIM = "roles";
+
   private final JwtEncoder jwtEncoder;
   private final JwtDecoder jwtDecoder;
   private final long expirationSeconds;
   private final String issuer;
+  private final Cache verifiedTokens;
+
+  /**
+   * Create a new JwtService without verified-token cache.
+   *
+   * @param jwtEncoder encoder used to sign tokens
+   * @param jwtDecoder decoder used to parse and validate tokens
+   * @param expirationSeconds token lifetime in seconds
+   * @param issuer token issuer (typically the application name)
+   */
+  public JwtService(
+      JwtEncoder jwtEncoder, JwtDecoder jwtDecoder, long expirationSeconds, String issuer) {
+    this(jwtEncoder, jwtDecoder, expirationSeconds, issuer, new NoOpCache(CacheConfig.JWT));
+  }
 
   /**
    * Create a new JwtService.
@@ -35,16 +74,29 @@ public class JwtService {
    * @param jwtDecoder decoder used to parse and validate tokens
    * @param expirationSeconds token lifetime in seconds
    * @param issuer token issuer (typically the application name)
+   * @param cacheManager cache manager holding the {@link CacheConfig#JWT} cache
    */
+  @Autowired
   public JwtService(
       JwtEncoder jwtEncoder,
       JwtDecoder jwtDecoder,
       @Value("${security.jwt.expiration}") long expirationSeconds,
-      @Value("${security.jwt.issuer}") String issuer) {
+      @Value("${security.jwt.issuer}") String issuer,
+      CacheManager cacheManager) {
+    this(jwtEncoder, jwtDecoder, expirationSeconds, issuer, cacheManager.getCache(CacheConfig.JWT));
+  }
+
+  private JwtService(
+      JwtEncoder jwtEncoder,
+      JwtDecoder jwtDecoder,
+      long expirationSeconds,
+      String issuer,
+      Cache verifiedTokens) {
     this.jwtEncoder = jwtEncoder;
     this.jwtDecoder = jwtDecoder;
     this.expirationSeconds = expirationSeconds;
     this.issuer = issuer;
+    this.verifiedTokens = verifiedTokens;
     log.info("jwtService created with: " + expirationSeconds + ", " + issuer);
   }
 
@@ -52,7 +104,8 @@ public class JwtService {
    * Generate a signed JWT for the given user details.
    *
    * <p>The token will include standard claims such as issuer, issuedAt, expiresAt and subject
-   * (username).
+   * (username), plus the user authorities ({@code roles}) and, for a {@link UserPrincipal}, the
+   * user id ({@code uid}) so that the principal can be rebuilt from the claims alone.
    *
    * @param userDetails the authenticated user
    * @return a signed JWT token string
@@ -61,13 +114,19 @@ public class JwtService {
 
     Instant now = Instant.now();
 
-    JwtClaimsSet claimsSet =
+    JwtClaimsSet.Builder claims =
         JwtClaimsSet.builder()
             .issuer(issuer)
             .issuedAt(now)
             .expiresAt(now.plusSeconds(expirationSeconds))
             .subject(userDetails.getUsername())
-            .build();
+            .claim(
+                ROLES_CLAIM,
+                userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+    if (userDetails instanceof UserPrincipal principal && principal.getId() != null) {
+      claims.claim(UID_CLAIM, principal.getId());
+    }
+    JwtClaimsSet claimsSet = claims.build();
 
     Jwt jwt =
         jwtEncoder.encode(
@@ -76,6 +135,34 @@ public class JwtService {
     return jwt.getTokenValue();
   }
 
+  /**
+   * Decode and verify the provided JWT.
+   *
+   * <p>The signature is verified only the first time a token is seen; the verified token is then
+   * served from the cache until it expires.
+   *
+   * @param token the JWT string to decode
+   * @return the verified {@link Jwt}, or null if the token cannot be decoded
+   */
+  public Jwt decode(String token) {
+    if (token == null || token.isBlank()) {
+      return null;
+    }
+    String key = fingerprint(token);
+    Jwt cached = verifiedTokens.get(key, Jwt.class);
+    if (cached != null) {
+      return cached;
+    }
+    try {
+      Jwt jwt = jwtDecoder.decode(token);
+      verifiedTokens.put(key, jwt);
+      return jwt;
+    } catch (JwtException e) {
+      log.debug("Invalid token: {}", e.getMessage());
+      return null;
+    }
+  }
+
   /**
    * Validate the provided JWT against the given user details.
    *
@@ -87,19 +174,27 @@ public class JwtService {
    * @return true if the token is valid and belongs to the user
    */
   public boolean isTokenValid(String token, UserDetails userDetails) {
-    try {
-      Jwt jwt = jwtDecoder.decode(token);
-      Instant exp = jwt.getExpiresAt();
-      String subject = jwt.getSubject();
-
-      boolean notExpired = exp != null && exp.isAfter(Instant.now());
-      boolean correctUser = subject.equals(userDetails.getUsername());
+    return isTokenValid(decode(token), userDetails);
+  }
 
-      return notExpired && correctUser;
-    } catch (JwtException e) {
-      log.debug("Invalid token: {}", e.getMessage());
+  /**
+   * Validate a decoded JWT against the given user details.
+   *
+   * @param jwt the decoded JWT, may be null
+   * @param userDetails the expected user details
+   * @return true if the token is valid and belongs to the user
+   */
+  public boolean isTokenValid(Jwt jwt, UserDetails userDetails) {
+    if (jwt == null) {
       return false;
     }
+    Instant exp = jwt.getExpiresAt();
+    String subject = jwt.getSubject();
+
+    boolean notExpired = exp != null && exp.isAfter(Instant.now());
+    boolean correctUser = userDetails.getUsername().equals(subject);
+
+    return notExpired && correctUser;
   }
 
   /**
@@ -109,13 +204,8 @@ public class JwtService {
    * @return the number of seconds until expiration, or "0" if expired or invalid
    */
   public Instant getExpiresAt(String token) {
-    try {
-      Jwt jwt = jwtDecoder.decode(token);
-      return jwt.getExpiresAt();
-    } catch (JwtException e) {
-      log.debug("Invalid token: {}", e.getMessage());
-      return null;
-    }
+    Jwt jwt = decode(token);
+    return jwt != null ? jwt.getExpiresAt() : null;
   }
 
   /**
@@ -124,16 +214,9 @@ public class JwtService {
    * @return the expiration duration in seconds
    */
   public Long getExpiresIn(String token) {
-    try {
-      Jwt jwt = jwtDecoder.decode(token);
-      Instant exp = jwt.getExpiresAt();
-      return (exp != null)
-          ? Math.max(0, java.time.Duration.between(Instant.now(), exp).getSeconds())
-          : 0L;
-    } catch (JwtException e) {
-      log.debug("Invalid token: {}", e.getMessage());
-      return 0L;
-    }
+    Jwt jwt = decode(token);
+    Instant exp = jwt != null ? jwt.getExpiresAt() : null;
+    return (exp != null) ? Math.max(0, Duration.between(Instant.now(), exp).getSeconds()) : 0L;
   }
 
   /**
@@ -143,13 +226,21 @@ public class JwtService {
    * @return true if the token is expired or cannot be decoded
    */
   public boolean isTokenExpired(String token) {
-    try {
-      Jwt jwt = jwtDecoder.decode(token);
-      Instant exp = jwt.getExpiresAt();
-      return exp != null && exp.isBefore(Instant.now());
-    } catch (JwtException e) {
+    return isTokenExpired(decode(token));
+  }
+
+  /**
+   * Check whether a decoded JWT is expired.
+   *
+   * @param jwt the decoded JWT, may be null
+   * @return true if the token is expired or missing
+   */
+  public boolean isTokenExpired(Jwt jwt) {
+    if (jwt == null) {
       return true;
     }
+    Instant exp = jwt.getExpiresAt();
+    return exp != null && exp.isBefore(Instant.now());
   }
 
   /**
@@ -159,11 +250,56 @@ public class JwtService {
    * @return the subject (username) if present, otherwise null
    */
   public String extractUsername(String token) {
-    try {
-      Jwt jwt = jwtDecoder.decode(token);
-      return jwt.getSubject();
-    } catch (JwtException e) {
+    return extractUsername(decode(token));
+  }
+
+  /**
+   * Extract the username (subject) from a decoded JWT.
+   *
+   * @param jwt the decoded JWT, may be null
+   * @return the subject (username) if present, otherwise null
+   */
+  public String extractUsername(Jwt jwt) {
+    return jwt != null ? jwt.getSubject() : null;
+  }
+
+  /**
+   * Build a principal from the claims of a decoded JWT, without any database lookup.
+   *
+   * @param jwt the decoded JWT, may be null
+   * @return the {@link ClaimsPrincipal}, or null if the token does not carry the user id
+   */
+  public ClaimsPrincipal toPrincipal(Jwt jwt) {
+    if (jwt == null || jwt.getSubject() == null) {
+      return null;
+    }
+    Map<String, Object> claims = jwt.getClaims();
+    if (!(claims.get(UID_CLAIM) instanceof Number uid)) {
       return null;
     }
+    List<GrantedAuthority> authorities =
+        claims.get(ROLES_CLAIM) instanceof Collection<?> roles
+            ? roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(String.valueOf(role)))
+                .toList()
+            : List.of();
+    return new ClaimsPrincipal(uid.longValue(), jwt.getSubject(), authorities);
+  }
+
+  /**
+   * Compute the cache key of a raw token.
+   *
+   * @param token the JWT string
+   * @return the Base64url encoded SHA-256 hash of the token
+   */
+  private static String fingerprint(String token) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return Base64.getUrlEncoder()
+          .withoutPadding()
+          .encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
   }
 }
@@ -0,0 +1,20 @@
+package com.datashare.api.security;
+
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * Authenticated principal exposing the identifier of the user.
+ *
+ * <p>Implemented by the {@link com.datashare.api.entities.User} entity and by the lightweight
+ * {@link ClaimsPrincipal} built from verified JWT claims, so that controllers and services do not
+ * depend on how the principal was resolved.
+ */
+public interface UserPrincipal extends UserDetails {
+
+  /**
+   * Returns the identifier of the user.
+   *
+   * @return the user id
+   */
+  Long getId();
+}
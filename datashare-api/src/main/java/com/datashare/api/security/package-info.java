@@ -10,6 +10,10 @@
  *   <li>{@link com.datashare.api.security.JwtService} - JWT token generation and validation
  *   <li>{@link com.datashare.api.security.CustomUserDetailService} - Custom user details service
  *       for Spring Security
+ *   <li>{@link com.datashare.api.security.UserPrincipal} - Authenticated principal exposing the
+ *       user id
+ *   <li>{@link com.datashare.api.security.ClaimsPrincipal} - Principal rebuilt from the JWT claims
+ *       when {@code security.jwt.stateless} is enabled
  * </ul>
  */
 package com.datashare.api.security;
@@ -0,0 +1,101 @@
+package com.datashare.api.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter of strings.
+ *
+ * <p>Sized for an expected number of insertions and false positive rate; the {@code k} bit indexes
+ * of a value are derived from two 64-bit hashes (Kirsch-Mitzenmacher double hashing). It never
+ * answers that an added value is absent.
+ */
+final class BloomFilter {
+
+  private final AtomicLongArray words;
+  private final long bits;
+  private final int hashes;
+  private final AtomicLong setBits = new AtomicLong();
+
+  /**
+   * Create an empty filter
+   *
+   * @param expectedInsertions the number of values the filter is sized for
+   * @param falsePositiveRate the false positive rate at the expected number of values
+   */
+  BloomFilter(long expectedInsertions, double falsePositiveRate) {
+    if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+      throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+    }
+    long n = Math.max(1, expectedInsertions);
+    double ln2 = Math.log(2);
+    long words = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (ln2 * ln2) / Long.SIZE);
+    if (words > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Bloom filter too large: " + n + " values");
+    }
+    this.words = new AtomicLongArray((int) Math.max(1, words));
+    this.bits = (long) this.words.length() * Long.SIZE;
+    this.hashes = (int) Math.max(1, Math.round((double) bits / n * ln2));
+  }
+
+  /**
+   * Add a value
+   *
+   * @param value the value
+   */
+  void add(String value) {
+    long h1 = hash(value);
+    long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1L;
+    for (int i = 0; i < hashes; i++) {
+      long index = Math.floorMod(h1 + i * h2, bits);
+      long mask = 1L << index;
+      long previous = words.getAndAccumulate((int) (index >>> 6), mask, (a, b) -> a | b);
+      if ((previous & mask) == 0) {
+        setBits.incrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Test whether a value may have been added
+   *
+   * @param value the value
+   * @return false if the value was never added, true if it probably was
+   */
+  boolean mightContain(String value) {
+    long h1 = hash(value);
+    long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1L;
+    for (int i = 0; i < hashes; i++) {
+      long index = Math.floorMod(h1 + i * h2, bits);
+      if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Estimate the current false positive rate, from the share of bits set
+   *
+   * @return the probability that an absent value is reported as present
+   */
+  double expectedFalsePositiveRate() {
+    return Math.pow((double) setBits.get() / bits, hashes);
+  }
+
+  /** FNV-1a over the characters, finalized by {@link #mix} */
+  private static long hash(String value) {
+    long hash = 0xCBF29CE484222325L;
+    for (int i = 0; i < value.length(); i++) {
+      hash = (hash ^ value.charAt(i)) * 0x100000001B3L;
+    }
+    return mix(hash);
+  }
+
+  /** MurmurHash3 64-bit finalizer */
+  private static long mix(long hash) {
+    hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+    hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+    return hash ^ (hash >>> 33);
+  }
+}
@@ -0,0 +1,161 @@
+package com.datashare.api.service;
+
+import com.datashare.api.configuration.ReaperProperties;
+import com.datashare.api.dto.ExpiredShare;
+import com.datashare.api.repository.FileRepository;
+import com.datashare.api.repository.TokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Background reaper of the expired shares.
+ *
+ * <p>Expired tokens are walked in (expiresAt, id) keyset pages. For each page, the S3 objects are
+ * deleted with a single DeleteObjects call, then the token and file rows of the deleted objects are
+ * removed with two bulk deletes in one transaction. Shares whose object could not be deleted are
+ * skipped and retried on the next run.
+ *
+ * <p>Publishes the {@code datashare.reaper.*} metrics: reaped shares, failures, run duration and
+ * lag, i.e. the age of the oldest expired share still present.
+ */
+@Component
+@Slf4j
+public class ExpiredShareReaper {
+
+  private final TokenRepository tokenRepository;
+  private final FileRepository fileRepository;
+  private final ObjectStorage objectStorage;
+  private final FileVersions fileVersions;
+  private final TransactionTemplate transactionTemplate;
+  private final ReaperProperties properties;
+
+  private final Counter reaped;
+  private final Counter failures;
+  private final Timer runs;
+  private final AtomicLong lagSeconds = new AtomicLong();
+
+  public ExpiredShareReaper(
+      TokenRepository tokenRepository,
+      FileRepository fileRepository,
+      ObjectStorage objectStorage,
+      FileVersions fileVersions,
+      TransactionTemplate transactionTemplate,
+      ReaperProperties properties,
+      MeterRegistry meterRegistry) {
+    this.tokenRepository = tokenRepository;
+    this.fileRepository = fileRepository;
+    this.objectStorage = objectStorage;
+    this.fileVersions = fileVersions;
+    this.transactionTemplate = transactionTemplate;
+    this.properties = properties;
+
+    this.reaped =
+        Counter.builder("datashare.reaper.reaped")
+            .description("Expired shares deleted from the database and the bucket")
+            .register(meterRegistry);
+    this.failures =
+        Counter.builder("datashare.reaper.failures")
+            .description("Expired shares whose object could not be deleted")
+            .register(meterRegistry);
+    this.runs =
+        Timer.builder("datashare.reaper.runs")
+            .description("Duration of the reaper runs")
+            .register(meterRegistry);
+    Gauge.builder("datashare.reaper.lag", lagSeconds, AtomicLong::get)
+        .description("Age of the oldest expired share still present")
+        .baseUnit("seconds")
+        .register(meterRegistry);
+  }
+
+  /** Scheduled run, a no-op when the reaper is disabled */
+  @Scheduled(
+      fixedDelayString = "${reaper.interval:5m}", initialDelayString = "${reaper.interval:5m}")
+  public void scheduledRun() {
+    if (properties.isEnabled()) {
+      runs.record(this::run);
+    }
+  }
+
+  /**
+   * Reap the shares expired before now, page by page
+   *
+   * @return the number of reaped shares
+   */
+  public int run() {
+    Instant now = Instant.now();
+    int pageSize = Math.min(properties.getPageSize(), ObjectStorage.MAX_KEYS_PER_DELETE);
+    Instant afterExpiresAt = Instant.EPOCH;
+    long afterId = 0L;
+    int total = 0;
+
+    for (int page = 0; page < properties.getMaxPagesPerRun(); page++) {
+      List<ExpiredShare> shares =
+          tokenRepository.findExpiredShares(now, afterExpiresAt, afterId, Limit.of(pageSize));
+      if (shares.isEmpty()) {
+        break;
+      }
+
+      total += reap(shares);
+
+      ExpiredShare last = shares.getLast();
+      afterExpiresAt = last.expiresAt();
+      afterId = last.tokenId();
+      if (shares.size() < pageSize || !pause()) {
+        break;
+      }
+    }
+
+    lagSeconds.set(
+        tokenRepository
+            .findOldestExpiration(now)
+            .map(oldest -> Duration.between(oldest, now).toSeconds())
+            .orElse(0L));
+    log.info("Reaped {} expired shares, lag {}s", total, lagSeconds.get());
+    return total;
+  }
+
+  /** Delete the objects of a page, then the rows of the deleted objects */
+  private int reap(List<ExpiredShare> shares) {
+    Set<String> deleted =
+        objectStorage.deleteObjects(shares.stream().map(ExpiredShare::s3Key).toList());
+    List<ExpiredShare> reapable =
+        shares.stream().filter(share -> deleted.contains(share.s3Key())).toList();
+    failures.increment(shares.size() - reapable.size());
+    if (reapable.isEmpty()) {
+      return 0;
+    }
+
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          tokenRepository.deleteAllByIdInBatch(
+              reapable.stream().map(ExpiredShare::tokenId).toList());
+          fileRepository.deleteAllByIdInBatch(reapable.stream().map(ExpiredShare::fileId).toList());
+          fileVersions.changed(reapable.stream().map(ExpiredShare::userId).toList());
+        });
+    reaped.increment(reapable.size());
+    return reapable.size();
+  }
+
+  /** Pause between two pages, returns false when interrupted */
+  private boolean pause() {
+    try {
+      Thread.sleep(properties.getPause());
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
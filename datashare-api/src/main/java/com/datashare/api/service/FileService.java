@@ -1,26 +1,42 @@
 package com.datashare.api.service;
 
 import com.datashare.api.configuration.S3Properties;
+import com.datashare.api.dto.FileCursor;
+import com.datashare.api.dto.FileListing;
+import com.datashare.api.dto.FileMetadataResponse;
+import com.datashare.api.dto.FilePage;
 import com.datashare.api.dto.PresignedDownloadResponse;
+import com.datashare.api.dto.PresignedUploadRequest;
 import com.datashare.api.dto.PresignedUploadResponse;
+import com.datashare.api.dto.SharedFile;
 import com.datashare.api.entities.File;
 import com.datashare.api.entities.Token;
-import com.datashare.api.entities.User;
+import com.datashare.api.handler.InvalidTokenException;
 import com.datashare.api.handler.UserNotFileOwnerException;
+import com.datashare.api.monitoring.DatashareMetrics;
+import com.datashare.api.monitoring.DatashareMetrics.Presign;
+import com.datashare.api.monitoring.DatashareMetrics.TokenOutcome;
 import com.datashare.api.repository.FileRepository;
+import com.datashare.api.security.UserPrincipal;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.CacheControl;
 import org.springframework.stereotype.Service;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
-import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
-import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
@@ -37,14 +53,34 @@ public class FileService {
 
   @Autowired private final TokenService tokenService;
 
-  @Autowired private final S3Client s3Client;
+  @Autowired private final ObjectStorage objectStorage;
+
+  @Autowired private final PresignedDownloadUrls downloadUrls;
+
+  @Autowired private final DatashareMetrics metrics;
+
+  @Autowired private final FileVersions fileVersions;
 
   private static final long MAX_SIZE = 1_000_000_000L;
   private static final Set<String> FORBIDDEN_EXT = Set.of("exe", "bat", "sh");
 
+  /** Prefix of the uploaded objects keys */
+  public static final String UPLOAD_PREFIX = "uploads/";
+
+  /** Maximum number of files of a batch upload */
+  public static final int MAX_BATCH_SIZE = 500;
+
+  /** Default number of files of a history page */
+  public static final int DEFAULT_PAGE_SIZE = 100;
+
+  /** Maximum number of files of a history page */
+  public static final int MAX_PAGE_SIZE = 500;
+
   /**
    * Create a presigned upload URL (validity 10 minutes)
    *
+   * <p>The file and its token rows are inserted together, in a single transaction.
+   *
    * @param filename the file name to upload
    * @param contentType the file content type
    * @param size the file size
@@ -52,60 +88,94 @@ public class FileService {
    * @param userId the authenticated user
    * @return a PresignedUploadResponse object
    */
+  @Transactional
   public PresignedUploadResponse createUploadUrl(
       String filename, String contentType, long size, Integer expirationDays, Long userId) {
-    // Check max file size
-    if (size > MAX_SIZE) {
-      throw new IllegalArgumentException("File too large (max 1 Go)");
-    }
-
-    // Check forbidden extension
-    String ext = filename.substring(filename.lastIndexOf('.') + 1).toLowerCase();
-    if (FORBIDDEN_EXT.contains(ext)) {
-      throw new IllegalArgumentException("File type not allowed");
-    }
+    // Check file size and extension
+    validateUpload(filename, size);
 
     // Generate upload URL
-    String key = "uploads/" + UUID.randomUUID() + "-" + filename;
-
-    PutObjectRequest putReq =
-        PutObjectRequest.builder()
-            .bucket(properties.getBucket())
-            .key(key)
-            .contentType(contentType)
-            .build();
-
-    PutObjectPresignRequest presignReq =
-        PutObjectPresignRequest.builder()
-            .signatureDuration(Duration.ofMinutes(10))
-            .putObjectRequest(putReq)
-            .build();
-
-    PresignedPutObjectRequest presigned = presigner.presignPutObject(presignReq);
+    String key = newKey(filename);
+    PresignedPutObjectRequest presigned = presignUpload(key, contentType);
 
     // Calculate expiresAt value
     Instant now = Instant.now();
-    Instant expiresAt = now.plus(Duration.ofDays(expirationDays != null ? expirationDays : 7));
+    Instant expiresAt = expiresAt(now, expirationDays);
 
-    // Create file metadata
-    File entity = new File();
-    entity.setUserId(userId);
-    entity.setFilename(filename);
-    entity.setContentType(contentType);
-    entity.setSize(size);
-    entity.setS3Key(key);
-    entity.setCreatedAt(now);
+    // Create file metadata and its download token, inserted through the cascade
+    File entity = newFile(filename, contentType, size, key, now, userId);
+    Token token = this.tokenService.attachToken(entity, expiresAt);
     this.fileRepository.save(entity);
-
-    // Generate download token
-    Token token = this.tokenService.generateToken(entity, expiresAt);
+    this.fileVersions.changed(userId);
 
     return new PresignedUploadResponse(
         presigned.url().toString(), token.getTokenString(), expiresAt);
   }
 
   /**
-   * Create a presigned download URL (validity 10 minutes)
+   * Create presigned upload URLs for several files at once (validity 10 minutes)
+   *
+   * <p>The whole batch is validated before anything is signed, the URLs are signed in parallel and
+   * all the file and token rows are inserted in a single transaction.
+   *
+   * @param requests the files to upload, at most {@value #MAX_BATCH_SIZE}
+   * @param userId the authenticated user
+   * @return the PresignedUploadResponse objects, in the order of the requests
+   */
+  @Transactional
+  public List<PresignedUploadResponse> createUploadUrls(
+      List<PresignedUploadRequest> requests, Long userId) {
+    // Check batch size
+    if (requests == null || requests.isEmpty()) {
+      throw new IllegalArgumentException("No file to upload");
+    }
+    if (requests.size() > MAX_BATCH_SIZE) {
+      throw new IllegalArgumentException("Too many files (max " + MAX_BATCH_SIZE + ")");
+    }
+
+    // Check every file size and extension before signing anything
+    requests.forEach(request -> validateUpload(request.getFilename(), request.getSize()));
+
+    // Generate upload URLs in parallel, signing is CPU bound
+    Instant now = Instant.now();
+    List<String> keys = requests.stream().map(request -> newKey(request.getFilename())).toList();
+    List<PresignedPutObjectRequest> presigned =
+        IntStream.range(0, requests.size())
+            .parallel()
+            .mapToObj(i -> presignUpload(keys.get(i), requests.get(i).getContentType()))
+            .toList();
+
+    // Create file metadata and download tokens
+    List<File> entities = new ArrayList<>(requests.size());
+    List<Token> tokens = new ArrayList<>(requests.size());
+    for (int i = 0; i < requests.size(); i++) {
+      PresignedUploadRequest request = requests.get(i);
+      File entity =
+          newFile(
+              request.getFilename(),
+              request.getContentType(),
+              request.getSize(),
+              keys.get(i),
+              now,
+              userId);
+      tokens.add(tokenService.attachToken(entity, expiresAt(now, request.getExpirationDays())));
+      entities.add(entity);
+    }
+    this.fileRepository.saveAll(entities);
+    this.fileVersions.changed(userId);
+
+    List<PresignedUploadResponse> responses = new ArrayList<>(requests.size());
+    for (int i = 0; i < requests.size(); i++) {
+      Token token = tokens.get(i);
+      responses.add(
+          new PresignedUploadResponse(
+              presigned.get(i).url().toString(), token.getTokenString(), token.getExpiresAt()));
+    }
+    return responses;
+  }
+
+  /**
+   * Create a presigned download URL (validity {@code aws.s3.download-url.validity})
    *
    * @param tokenString the file token
    * @return a PresignedDownloadResponse object
@@ -113,37 +183,115 @@ public class FileService {
   public PresignedDownloadResponse createDownloadUrl(String tokenString) throws Exception {
 
     // Get file metadata
-    File file = tokenService.validateToken(tokenString);
-
-    // Generate presigned download URL
-    GetObjectRequest getReq =
-        GetObjectRequest.builder().bucket(properties.getBucket()).key(file.getS3Key()).build();
-
-    GetObjectPresignRequest presignReq =
-        GetObjectPresignRequest.builder()
-            .signatureDuration(Duration.ofMinutes(10))
-            .getObjectRequest(getReq)
-            .build();
+    SharedFile file;
+    try {
+      file = tokenService.resolveToken(tokenString);
+    } catch (InvalidTokenException e) {
+      metrics.tokenResolution(
+          e.getReason() == InvalidTokenException.Reason.EXPIRED
+              ? TokenOutcome.EXPIRED
+              : TokenOutcome.UNKNOWN);
+      throw e;
+    }
+    metrics.tokenResolution(TokenOutcome.HIT);
 
-    PresignedGetObjectRequest presigned = presigner.presignGetObject(presignReq);
+    // Get a presigned download URL, reused while it is valid long enough
+    long start = System.nanoTime();
+    PresignedGetObjectRequest presigned = downloadUrls.get(file.s3Key());
+    metrics.presign(Presign.DOWNLOAD, System.nanoTime() - start);
 
     return new PresignedDownloadResponse(
-        file.getFilename(),
-        file.getContentType(),
-        file.getSize(),
+        file.filename(),
+        file.contentType(),
+        file.size(),
         presigned.url().toString(),
-        file.getCreatedAt(),
-        file.getToken().getExpiresAt());
+        file.createdAt(),
+        file.expiresAt(),
+        presigned.expiration());
+  }
+
+  /**
+   * Get the HTTP caching policy of a download response.
+   *
+   * <p>The response may be cached by the browser as long as its URL keeps the minimum remaining
+   * lifetime, and never beyond the token expiration.
+   *
+   * @param response the download response
+   * @return a private max-age policy, or no-store when the response must not be reused
+   */
+  public CacheControl downloadCacheControl(PresignedDownloadResponse response) {
+    Instant until =
+        response.getDownloadUrlExpiresAt().minus(properties.getDownloadUrl().getMinRemaining());
+    if (response.getExpiresAt().isBefore(until)) {
+      until = response.getExpiresAt();
+    }
+
+    long maxAge = Duration.between(Instant.now(), until).getSeconds();
+    return maxAge > 0
+        ? CacheControl.maxAge(maxAge, TimeUnit.SECONDS).cachePrivate()
+        : CacheControl.noStore();
+  }
+
+  /**
+   * Get the entity tag of the user's file list, which changes whenever a file is added or removed
+   *
+   * <p>Read from the cached history head, or with a primary key lookup: a conditional request that
+   * matches is answered without reading any file row, even on a cache miss.
+   *
+   * @param userId the owner id
+   * @return the entity tag, unquoted
+   */
+  public String listingETag(Long userId) {
+    return userId + "-" + this.fileVersions.version(userId);
+  }
+
+  /**
+   * Get a page of the user's files, ordered by creation instant then id
+   *
+   * <p>Files are read as projections, so no entity enters the persistence context. The first page
+   * is served from the cached history head when it is not larger than {@link #DEFAULT_PAGE_SIZE}.
+   *
+   * @param userId the owner id
+   * @param cursor the cursor returned with the previous page, or null for the first page
+   * @param limit the maximum number of files of the page
+   * @return the files and the cursor of the next page
+   */
+  public FilePage listMyFiles(Long userId, String cursor, int limit) {
+    if (limit < 1 || limit > MAX_PAGE_SIZE) {
+      throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+    }
+    FileCursor after = FileCursor.decode(cursor);
+
+    // Fetch one extra row to know whether a next page exists
+    List<FileListing> rows =
+        after == FileCursor.FIRST && limit <= DEFAULT_PAGE_SIZE
+            ? this.fileVersions.history(userId).firstRows()
+            : this.fileRepository.findListingByUserId(
+                userId, after.createdAt(), after.id(), Limit.of(limit + 1));
+
+    boolean hasNext = rows.size() > limit;
+    List<FileListing> page = hasNext ? rows.subList(0, limit) : rows;
+
+    return new FilePage(
+        page.stream().map(FileMetadataResponse::fromListing).toList(),
+        hasNext ? FileCursor.after(page.getLast()).encode() : null);
   }
 
   /**
    * Delete the user's file
    *
+   * <p>The metadata is deleted and the version of the list bumped in one transaction. Once it is
+   * committed, the caches are evicted and the object is deleted from S3 in background: the caller
+   * gets back as soon as the metadata is deleted, and a rolled back deletion keeps its object.
+   *
    * @param user the owner
    * @param tokenString the file token string
+   * @return a future completed once the object is deleted from S3
    * @throws Exception if invalid token or user not owner of the file
    */
-  public void deleteMyFile(User user, String tokenString) throws Exception {
+  @Transactional
+  public CompletableFuture<Void> deleteMyFile(UserPrincipal user, String tokenString)
+      throws Exception {
 
     File file = this.tokenService.validateToken(tokenString);
 
@@ -152,10 +300,107 @@ public class FileService {
     }
 
     this.fileRepository.delete(file);
+    this.fileVersions.changed(user.getId());
+
+    String key = file.getS3Key();
+    CompletableFuture<Void> deleted = new CompletableFuture<>();
+    afterCommit(
+        () -> {
+          this.tokenService.evictToken(tokenString);
+          this.downloadUrls.evict(key);
+          this.objectStorage
+              .deleteObject(key)
+              .whenComplete(
+                  (result, error) -> {
+                    if (error != null) {
+                      deleted.completeExceptionally(error);
+                    } else {
+                      deleted.complete(result);
+                    }
+                  });
+        });
+    return deleted;
+  }
+
+  /** Run an action once the current transaction is committed, or right away without one */
+  private static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            action.run();
+          }
+        });
+  }
+
+  /** Check the file size and extension of an upload */
+  static void validateUpload(String filename, long size) {
+    // Check max file size
+    if (size > MAX_SIZE) {
+      throw new IllegalArgumentException("File too large (max 1 Go)");
+    }
 
-    DeleteObjectRequest deleteRequest =
-        DeleteObjectRequest.builder().bucket(properties.getBucket()).key(file.getS3Key()).build();
+    // Check forbidden extension
+    String ext = filename.substring(filename.lastIndexOf('.') + 1).toLowerCase();
+    if (FORBIDDEN_EXT.contains(ext)) {
+      throw new IllegalArgumentException("File type not allowed");
+    }
+  }
+
+  /** Create a unique object key for an uploaded file */
+  static String newKey(String filename) {
+    return UPLOAD_PREFIX + UUID.randomUUID() + "-" + filename;
+  }
+
+  /**
+   * Build the request of an upload URL (validity 10 minutes), to be signed by the presigner
+   *
+   * @param bucket the bucket of the object
+   * @param key the object key
+   * @param contentType the content type the upload must declare
+   * @return the presign request
+   */
+  public static PutObjectPresignRequest uploadPresignRequest(
+      String bucket, String key, String contentType) {
+    PutObjectRequest putReq =
+        PutObjectRequest.builder().bucket(bucket).key(key).contentType(contentType).build();
+
+    return PutObjectPresignRequest.builder()
+        .signatureDuration(Duration.ofMinutes(10))
+        .putObjectRequest(putReq)
+        .build();
+  }
+
+  /** Sign an upload URL (validity 10 minutes) */
+  private PresignedPutObjectRequest presignUpload(String key, String contentType) {
+    PutObjectPresignRequest presignReq =
+        uploadPresignRequest(properties.getBucket(), key, contentType);
+
+    long start = System.nanoTime();
+    PresignedPutObjectRequest presigned = presigner.presignPutObject(presignReq);
+    metrics.presign(Presign.UPLOAD, System.nanoTime() - start);
+    return presigned;
+  }
+
+  /** Token expiration, 7 days by default */
+  static Instant expiresAt(Instant now, Integer expirationDays) {
+    return now.plus(Duration.ofDays(expirationDays != null ? expirationDays : 7));
+  }
 
-    s3Client.deleteObject(deleteRequest);
+  /** Create the metadata of an uploaded file */
+  static File newFile(
+      String filename, String contentType, long size, String key, Instant createdAt, Long userId) {
+    File entity = new File();
+    entity.setUserId(userId);
+    entity.setFilename(filename);
+    entity.setContentType(contentType);
+    entity.setSize(size);
+    entity.setS3Key(key);
+    entity.setCreatedAt(createdAt);
+    return entity;
   }
 }
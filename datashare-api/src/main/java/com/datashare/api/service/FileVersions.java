@@ -0,0 +1,173 @@
+package com.datashare.api.service;
+
+import com.datashare.api.configuration.CacheConfig;
+import com.datashare.api.dto.FileCursor;
+import com.datashare.api.dto.FileHistory;
+import com.datashare.api.dto.FileListing;
+import com.datashare.api.repository.FileRepository;
+import com.datashare.api.repository.FileVersionRepository;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Change tracking of the users' file lists.
+ *
+ * <p>Each user's file list has a version, read with a primary key lookup, that is bumped on every
+ * upload, delete and expiry. It lets {@code GET /files/my} answer a conditional request without
+ * reading any file row.
+ *
+ * <p>A version is bumped in the transaction of the change, so that both are committed, or rolled
+ * back, together. The owners are bumped in ascending id order: the version rows are locked until
+ * the commit, and concurrent changes of several lists then never wait for each other in a cycle.
+ * A change made outside of any transaction is already committed: it is bumped in its own
+ * transaction, whose failure is only logged rather than failing the change.
+ *
+ * <p>The version and the first rows of each active user's list are cached together, so that steady
+ * state history views cost no database round trip. The cached head is evicted once the bumped
+ * version is committed. It is loaded without holding the cache lock, as the load blocks on the
+ * database, and checked against the version once cached.
+ */
+@Slf4j
+@Service
+public class FileVersions {
+
+  private final FileVersionRepository repository;
+  private final FileRepository fileRepository;
+  private final TransactionTemplate bumpTransaction;
+  private final Cache history;
+
+  public FileVersions(
+      FileVersionRepository repository,
+      FileRepository fileRepository,
+      PlatformTransactionManager transactionManager,
+      CacheManager cacheManager) {
+    this.repository = repository;
+    this.fileRepository = fileRepository;
+    this.history = cacheManager.getCache(CacheConfig.FILE_HISTORY);
+    this.bumpTransaction = new TransactionTemplate(transactionManager);
+  }
+
+  /**
+   * Get the version of a user's file list
+   *
+   * @param userId the owner id
+   * @return the version, 0 if the user's files never changed
+   */
+  public long current(Long userId) {
+    return repository.findVersionByUserId(userId).orElse(0L);
+  }
+
+  /**
+   * Get the version of a user's file list, from the cached history head if any
+   *
+   * <p>On a cache miss only the version row is read: the head is not loaded.
+   *
+   * @param userId the owner id
+   * @return the version, 0 if the user's files never changed
+   */
+  public long version(Long userId) {
+    FileHistory cached = history.get(userId, FileHistory.class);
+    return cached != null ? cached.version() : current(userId);
+  }
+
+  /**
+   * Get the head of a user's file history, from the cache when the user is active
+   *
+   * <p>The head is loaded outside of the cache lock, then cached unless another load was cached
+   * meanwhile. The version is read again once it is cached: a change committed during the load
+   * may have been evicted before the head was cached, so a moved version evicts it again.
+   *
+   * @param userId the owner id
+   * @return the version and the first {@link FileService#DEFAULT_PAGE_SIZE} + 1 rows
+   */
+  public FileHistory history(Long userId) {
+    FileHistory cached = history.get(userId, FileHistory.class);
+    if (cached != null) {
+      return cached;
+    }
+
+    // The version is read before the rows, so the rows are never older than the version
+    long version = current(userId);
+    List<FileListing> rows =
+        fileRepository.findListingByUserId(
+            userId,
+            FileCursor.FIRST.createdAt(),
+            FileCursor.FIRST.id(),
+            Limit.of(FileService.DEFAULT_PAGE_SIZE + 1));
+    FileHistory loaded = new FileHistory(version, List.copyOf(rows));
+
+    Cache.ValueWrapper existing = history.putIfAbsent(userId, loaded);
+    if (existing != null) {
+      return (FileHistory) existing.get();
+    }
+    if (current(userId) != version) {
+      history.evict(userId);
+    }
+    return loaded;
+  }
+
+  /**
+   * Record a change of a user's file list, in the current transaction if any
+   *
+   * @param userId the owner id, ignored if null (anonymous upload)
+   */
+  public void changed(Long userId) {
+    if (userId != null) {
+      changed(List.of(userId));
+    }
+  }
+
+  /**
+   * Record a change of several users' file lists, in the current transaction if any
+   *
+   * @param userIds the owner ids, null ids are ignored
+   */
+  public void changed(Collection<Long> userIds) {
+    SortedSet<Long> owners =
+        userIds.stream().filter(Objects::nonNull).collect(Collectors.toCollection(TreeSet::new));
+    if (owners.isEmpty()) {
+      return;
+    }
+    if (TransactionSynchronizationManager.isActualTransactionActive()) {
+      owners.forEach(this::bump);
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              owners.forEach(history::evict);
+            }
+          });
+      return;
+    }
+    try {
+      bumpTransaction.executeWithoutResult(status -> owners.forEach(this::bump));
+    } catch (RuntimeException e) {
+      log.warn("Cannot bump the file list version of users {}: {}", owners, e.getMessage());
+    } finally {
+      owners.forEach(history::evict);
+    }
+  }
+
+  /**
+   * Bump a version, creating it on the first change. A version created meanwhile by a concurrent
+   * transaction is waited for, then incremented.
+   */
+  private void bump(Long userId) {
+    if (repository.increment(userId) == 0 && repository.insertFirst(userId) == 0) {
+      repository.increment(userId);
+    }
+  }
+}
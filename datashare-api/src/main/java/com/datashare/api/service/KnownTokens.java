@@ -0,0 +1,247 @@
+package com.datashare.api.service;
+
+import com.datashare.api.cache.CacheInvalidation;
+import com.datashare.api.cache.InvalidationBus;
+import com.datashare.api.cache.KeysAdded;
+import com.datashare.api.configuration.TokenProperties;
+import com.datashare.api.repository.TokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Filter of the download tokens that were never issued.
+ *
+ * <p>A Bloom filter holds the token strings of the tokens table, streamed at startup and on every
+ * rebuild, and the tokens inserted since, reported by the {@link
+ * com.datashare.api.entities.TokenListener}. Enumeration guesses are then mostly rejected without
+ * a database lookup, while an issued token is never rejected: until the first build, and whenever
+ * invalidations may have been missed, every token is let through.
+ *
+ * <p>The tokens issued by a transaction are announced to the other instances once it is committed,
+ * in a single {@link KeysAdded} message of the {@link InvalidationBus}. Deleted tokens are dropped
+ * by the rebuilds; the filter replaced by a rebuild is still consulted until the next one, so that
+ * a token issued while the table is streamed is never lost.
+ *
+ * <p>Publishes {@code datashare.tokens.filter{result=rejected|false-positive}}, whose ratio is the
+ * observed false positive rate, and the {@code datashare.tokens.filter.expected-fpp} estimate.
+ */
+@Slf4j
+@Service
+public class KnownTokens {
+
+  /** Name of the set of the issued tokens on the bus */
+  static final String SET = "knownTokens";
+
+  private final String origin = UUID.randomUUID().toString();
+  private final TokenRepository tokenRepository;
+  private final TransactionTemplate readTransaction;
+  private final TokenProperties.Filter properties;
+  private final InvalidationBus bus;
+  private final Counter rejected;
+  private final Counter falsePositives;
+  private final Lock rebuildLock = new ReentrantLock();
+
+  /** Number of reported windows of missed invalidations, the first one until the first build */
+  private final AtomicLong gaps = new AtomicLong(1);
+
+  private volatile BloomFilter current;
+  private volatile BloomFilter previous;
+  private volatile BloomFilter building;
+
+  /** Number of windows of missed invalidations covered by the current filter */
+  private volatile long coveredGaps;
+
+  public KnownTokens(
+      TokenRepository tokenRepository,
+      PlatformTransactionManager transactionManager,
+      TokenProperties properties,
+      ObjectProvider<InvalidationBus> invalidationBus,
+      MeterRegistry meterRegistry) {
+    this.tokenRepository = tokenRepository;
+    this.readTransaction = new TransactionTemplate(transactionManager);
+    this.readTransaction.setReadOnly(true);
+    this.properties = properties.getFilter();
+    this.bus = invalidationBus.getIfAvailable();
+    this.current = newFilter(0);
+
+    this.rejected = filterResults(meterRegistry, "rejected");
+    this.falsePositives = filterResults(meterRegistry, "false-positive");
+    Gauge.builder(
+            "datashare.tokens.filter.expected-fpp", this, KnownTokens::expectedFalsePositiveRate)
+        .description("Estimated false positive rate of the unknown tokens filter")
+        .register(meterRegistry);
+    if (bus != null) {
+      bus.subscribe(this::onInvalidation);
+      bus.subscribeAdded(this::onAdded);
+    }
+  }
+
+  /**
+   * Test whether a token was certainly never issued
+   *
+   * @param tokenString the download token
+   * @return true if the token is unknown, false if it may exist or the filter is not ready
+   */
+  public boolean isUnknown(String tokenString) {
+    if (!ready() || current.mightContain(tokenString)) {
+      return false;
+    }
+    BloomFilter replaced = previous;
+    if (replaced != null && replaced.mightContain(tokenString)) {
+      return false;
+    }
+    rejected.increment();
+    return true;
+  }
+
+  /**
+   * Record that a token let through is unknown to the database
+   *
+   * @param tokenString the download token
+   */
+  public void notFound(String tokenString) {
+    if (ready()) {
+      log.debug("Unknown token {} let through by the filter", tokenString);
+      falsePositives.increment();
+    }
+  }
+
+  /**
+   * Add an issued token, and announce it to the other instances with the other tokens of the
+   * current transaction, if any, once it is committed
+   *
+   * @param tokenString the new download token
+   */
+  public void issued(String tokenString) {
+    add(tokenString);
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      announce(List.of(tokenString));
+      return;
+    }
+    IssuedTokens batch =
+        TransactionSynchronizationManager.getSynchronizations().stream()
+            .filter(IssuedTokens.class::isInstance)
+            .map(IssuedTokens.class::cast)
+            .filter(issued -> issued.of(this))
+            .findFirst()
+            .orElse(null);
+    if (batch == null) {
+      batch = new IssuedTokens();
+      TransactionSynchronizationManager.registerSynchronization(batch);
+    }
+    batch.tokenStrings.add(tokenString);
+  }
+
+  /** Rebuild the filter from the tokens table, at startup then periodically */
+  @Scheduled(fixedDelayString = "${tokens.filter.rebuild-interval:6h}")
+  public void rebuild() {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    rebuildLock.lock();
+    try {
+      long gapsBefore = gaps.get();
+      long count = tokenRepository.count();
+      BloomFilter next = newFilter(count);
+      building = next;
+      readTransaction.executeWithoutResult(
+          status -> {
+            try (Stream<String> tokenStrings = tokenRepository.streamTokenStrings()) {
+              tokenStrings.forEach(next::add);
+            }
+          });
+      previous = current;
+      current = next;
+      coveredGaps = gapsBefore;
+      log.info("Unknown tokens filter rebuilt from {} tokens", count);
+    } catch (RuntimeException e) {
+      log.warn("Cannot rebuild the unknown tokens filter: {}", e.getMessage());
+    } finally {
+      building = null;
+      rebuildLock.unlock();
+    }
+  }
+
+  private boolean ready() {
+    return properties.isEnabled() && coveredGaps == gaps.get();
+  }
+
+  private BloomFilter newFilter(long tokenCount) {
+    return new BloomFilter(
+        Math.max(properties.getExpectedTokens(), tokenCount + tokenCount / 2),
+        properties.getFalsePositiveRate());
+  }
+
+  private void add(String tokenString) {
+    current.add(tokenString);
+    BloomFilter next = building;
+    if (next != null) {
+      next.add(tokenString);
+    }
+  }
+
+  private void announce(List<String> tokenStrings) {
+    if (bus != null) {
+      bus.publish(new KeysAdded(origin, SET, tokenStrings));
+    }
+  }
+
+  private void onAdded(KeysAdded added) {
+    if (SET.equals(added.set()) && !origin.equals(added.origin())) {
+      added.keys().forEach(this::add);
+    }
+  }
+
+  private void onInvalidation(CacheInvalidation invalidation) {
+    if (invalidation.cacheName() == null) {
+      // Tokens issued elsewhere may have been missed: let every token through until rebuilt
+      gaps.incrementAndGet();
+      Thread.ofVirtual().name("known-tokens-rebuild").start(this::rebuild);
+    }
+  }
+
+  private double expectedFalsePositiveRate() {
+    BloomFilter replaced = previous;
+    double rate = current.expectedFalsePositiveRate();
+    double replacedRate = replaced == null ? 0 : replaced.expectedFalsePositiveRate();
+    return rate + replacedRate - rate * replacedRate;
+  }
+
+  private static Counter filterResults(MeterRegistry meterRegistry, String result) {
+    return Counter.builder("datashare.tokens.filter")
+        .description("Download tokens rejected by the filter, or let through but unknown")
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+
+  /** Tokens issued by a transaction, announced at once after its commit */
+  private final class IssuedTokens implements TransactionSynchronization {
+
+    private final List<String> tokenStrings = new ArrayList<>();
+
+    boolean of(KnownTokens owner) {
+      return KnownTokens.this == owner;
+    }
+
+    @Override
+    public void afterCommit() {
+      announce(List.copyOf(tokenStrings));
+    }
+  }
+}
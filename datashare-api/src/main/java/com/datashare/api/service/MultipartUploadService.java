@@ -0,0 +1,226 @@
+package com.datashare.api.service;
+
+import com.datashare.api.configuration.S3Properties;
+import com.datashare.api.dto.MultipartCompleteRequest;
+import com.datashare.api.dto.MultipartUploadRequest;
+import com.datashare.api.dto.MultipartUploadResponse;
+import com.datashare.api.entities.File;
+import com.datashare.api.entities.Token;
+import com.datashare.api.handler.UserNotFileOwnerException;
+import com.datashare.api.repository.FileRepository;
+import com.datashare.api.security.UserPrincipal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.UploadPartPresignRequest;
+
+/**
+ * Multipart upload Service
+ *
+ * <p>Large files are uploaded in parts, each with its own presigned URL, so that clients can upload
+ * parts in parallel and retry a failed part alone. The upload is then completed or aborted by its
+ * owner.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MultipartUploadService {
+
+  private final S3Presigner presigner;
+  private final S3Properties properties;
+
+  @Autowired private final FileRepository fileRepository;
+
+  @Autowired private final TokenService tokenService;
+
+  @Autowired private final S3Client s3Client;
+
+  @Autowired private final FileVersions fileVersions;
+
+  @Autowired private final PresignedDownloadUrls downloadUrls;
+
+  /** Minimum size of a part but the last one (S3 limit) */
+  public static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+  /** Validity of the part upload URLs, long enough for a large upload over a slow link */
+  private static final Duration PART_URL_VALIDITY = Duration.ofHours(1);
+
+  /**
+   * Start a multipart upload and presign the upload URL of each part
+   *
+   * @param request the file to upload and the part size
+   * @param userId the authenticated user
+   * @return a MultipartUploadResponse object
+   */
+  public MultipartUploadResponse createMultipartUpload(
+      MultipartUploadRequest request, Long userId) {
+    // Check file size and extension
+    FileService.validateUpload(request.getFilename(), request.getSize());
+
+    // Check part size, the 1 GB cap keeps the part count far below the S3 limit
+    long partSize = request.getPartSize();
+    if (partSize < MIN_PART_SIZE) {
+      throw new IllegalArgumentException("Part too small (min 5 MiB)");
+    }
+    long partCount = Math.max(1, (request.getSize() + partSize - 1) / partSize);
+
+    // Start the upload
+    String key = FileService.newKey(request.getFilename());
+    String uploadId =
+        s3Client
+            .createMultipartUpload(
+                CreateMultipartUploadRequest.builder()
+                    .bucket(properties.getBucket())
+                    .key(key)
+                    .contentType(request.getContentType())
+                    .build())
+            .uploadId();
+
+    try {
+      // Generate part upload URLs in parallel, signing is CPU bound
+      List<String> partUrls =
+          IntStream.rangeClosed(1, (int) partCount)
+              .parallel()
+              .mapToObj(partNumber -> presignPart(key, uploadId, partNumber))
+              .toList();
+
+      // Create file metadata and download token
+      Instant now = Instant.now();
+      File entity =
+          FileService.newFile(
+              request.getFilename(), request.getContentType(), request.getSize(), key, now, userId);
+      Token token =
+          tokenService.generateToken(
+              entity, FileService.expiresAt(now, request.getExpirationDays()));
+      fileVersions.changed(userId);
+
+      return new MultipartUploadResponse(
+          uploadId, token.getTokenString(), token.getExpiresAt(), partSize, partUrls);
+    } catch (RuntimeException e) {
+      // Nothing refers to the upload: release it rather than leave it open
+      abortQuietly(key, uploadId);
+      throw e;
+    }
+  }
+
+  /**
+   * Complete a multipart upload once all its parts are uploaded
+   *
+   * @param user the owner
+   * @param tokenString the file token string
+   * @param request the upload id and the uploaded parts
+   * @throws Exception if invalid token or user not owner of the file
+   */
+  public void completeMultipartUpload(
+      UserPrincipal user, String tokenString, MultipartCompleteRequest request) throws Exception {
+
+    if (request.getParts() == null || request.getParts().isEmpty()) {
+      throw new IllegalArgumentException("No uploaded part");
+    }
+
+    File file = ownedFile(user, tokenString);
+
+    // S3 requires the parts in ascending order
+    List<CompletedPart> parts =
+        request.getParts().stream()
+            .sorted(Comparator.comparingInt(MultipartCompleteRequest.Part::getPartNumber))
+            .map(
+                part ->
+                    CompletedPart.builder()
+                        .partNumber(part.getPartNumber())
+                        .eTag(part.getEtag())
+                        .build())
+            .toList();
+
+    s3Client.completeMultipartUpload(
+        CompleteMultipartUploadRequest.builder()
+            .bucket(properties.getBucket())
+            .key(file.getS3Key())
+            .uploadId(request.getUploadId())
+            .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+            .build());
+  }
+
+  /**
+   * Abort a multipart upload, releasing its uploaded parts, and delete the file metadata
+   *
+   * @param user the owner
+   * @param tokenString the file token string
+   * @param uploadId the S3 multipart upload id
+   * @throws Exception if invalid token or user not owner of the file
+   */
+  public void abortMultipartUpload(UserPrincipal user, String tokenString, String uploadId)
+      throws Exception {
+
+    File file = ownedFile(user, tokenString);
+
+    abort(file.getS3Key(), uploadId);
+
+    this.fileRepository.delete(file);
+    this.fileVersions.changed(user.getId());
+    this.tokenService.evictToken(tokenString);
+    this.downloadUrls.evict(file.getS3Key());
+  }
+
+  /** Abort an S3 multipart upload */
+  private void abort(String key, String uploadId) {
+    s3Client.abortMultipartUpload(
+        AbortMultipartUploadRequest.builder()
+            .bucket(properties.getBucket())
+            .key(key)
+            .uploadId(uploadId)
+            .build());
+  }
+
+  /** Abort an S3 multipart upload on a failed creation, without hiding the original failure */
+  private void abortQuietly(String key, String uploadId) {
+    try {
+      abort(key, uploadId);
+    } catch (RuntimeException e) {
+      log.warn("Cannot abort multipart upload {} of {}: {}", uploadId, key, e.getMessage());
+    }
+  }
+
+  /** Get the file of a token, checking that the user owns it */
+  private File ownedFile(UserPrincipal user, String tokenString) throws Exception {
+    File file = this.tokenService.validateToken(tokenString);
+
+    if (!user.getId().equals(file.getUserId())) {
+      throw new UserNotFileOwnerException("User is not owner of the file");
+    }
+    return file;
+  }
+
+  /** Sign the upload URL of a part */
+  private String presignPart(String key, String uploadId, int partNumber) {
+    UploadPartRequest partReq =
+        UploadPartRequest.builder()
+            .bucket(properties.getBucket())
+            .key(key)
+            .uploadId(uploadId)
+            .partNumber(partNumber)
+            .build();
+
+    UploadPartPresignRequest presignReq =
+        UploadPartPresignRequest.builder()
+            .signatureDuration(PART_URL_VALIDITY)
+            .uploadPartRequest(partReq)
+            .build();
+
+    return presigner.presignUploadPart(presignReq).url().toString();
+  }
+}
@@ -0,0 +1,134 @@
+package com.datashare.api.service;
+
+import com.datashare.api.configuration.S3Properties;
+import com.datashare.api.monitoring.DatashareMetrics;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+/**
+ * Operations on the objects of the bucket
+ *
+ * <p>Single object side-effects go through the asynchronous client, so that request threads never
+ * wait for S3.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ObjectStorage {
+
+  /** Maximum number of keys of a DeleteObjects call (S3 limit) */
+  public static final int MAX_KEYS_PER_DELETE = 1000;
+
+  private final S3Client s3Client;
+  private final S3AsyncClient s3AsyncClient;
+  private final S3Properties properties;
+  private final DatashareMetrics metrics;
+
+  /**
+   * Delete an object asynchronously
+   *
+   * <p>Deleting a missing object succeeds, as with S3. A failure is logged and leaves an orphan
+   * object, removed later by the {@link UploadReconciler}.
+   *
+   * @param key the object key
+   * @return a future completed once the object is deleted
+   */
+  public CompletableFuture<Void> deleteObject(String key) {
+    long start = System.nanoTime();
+    return s3AsyncClient
+        .deleteObject(DeleteObjectRequest.builder().bucket(properties.getBucket()).key(key).build())
+        .whenComplete(
+            (response, error) -> {
+              metrics.s3Delete(error == null, System.nanoTime() - start);
+              if (error != null) {
+                log.warn("Failed to delete object {}: {}", key, error.getMessage());
+              }
+            })
+        .thenApply(response -> null);
+  }
+
+  /**
+   * Check asynchronously whether an object exists
+   *
+   * @param key the object key
+   * @return a future of true if the object exists, false if it is missing
+   */
+  public CompletableFuture<Boolean> exists(String key) {
+    return s3AsyncClient
+        .headObject(HeadObjectRequest.builder().bucket(properties.getBucket()).key(key).build())
+        .handle(
+            (response, error) -> {
+              if (error == null) {
+                return true;
+              }
+              Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+              if (cause instanceof NoSuchKeyException
+                  || cause instanceof S3Exception s3 && s3.statusCode() == 404) {
+                return false;
+              }
+              throw new CompletionException(cause);
+            });
+  }
+
+  /**
+   * Delete objects with as few DeleteObjects calls as possible
+   *
+   * <p>Deleting a missing object succeeds, as with S3. Keys that could not be deleted are logged
+   * and left out of the result.
+   *
+   * @param keys the object keys
+   * @return the keys that were deleted
+   */
+  public Set<String> deleteObjects(Collection<String> keys) {
+    List<String> distinct = keys.stream().distinct().toList();
+    Set<String> deleted = new HashSet<>(distinct);
+
+    for (int from = 0; from < distinct.size(); from += MAX_KEYS_PER_DELETE) {
+      List<String> chunk =
+          distinct.subList(from, Math.min(from + MAX_KEYS_PER_DELETE, distinct.size()));
+      try {
+        DeleteObjectsResponse response = s3Client.deleteObjects(deleteRequest(chunk));
+        response
+            .errors()
+            .forEach(
+                error -> {
+                  log.warn("Failed to delete object {}: {}", error.key(), error.message());
+                  deleted.remove(error.key());
+                });
+      } catch (SdkException e) {
+        log.warn("Failed to delete {} objects: {}", chunk.size(), e.getMessage());
+        chunk.forEach(deleted::remove);
+      }
+    }
+    return deleted;
+  }
+
+  /** Build a quiet DeleteObjects request, only reporting the errors */
+  private DeleteObjectsRequest deleteRequest(List<String> keys) {
+    List<ObjectIdentifier> objects =
+        keys.stream().map(key -> ObjectIdentifier.builder().key(key).build()).toList();
+
+    return DeleteObjectsRequest.builder()
+        .bucket(properties.getBucket())
+        .delete(Delete.builder().objects(objects).quiet(true).build())
+        .build();
+  }
+}
@@ -0,0 +1,109 @@
+package com.datashare.api.service;
+
+import com.datashare.api.configuration.S3Properties;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
+
+/**
+ * Memo of the presigned download URLs, keyed by S3 object key.
+ *
+ * <p>A URL is handed out again as long as it has at least {@code aws.s3.download-url.min-remaining}
+ * left, and is re-signed in the background {@code aws.s3.download-url.refresh-ahead} before that,
+ * so that popular files are not signed again on every download.
+ */
+@Component
+public class PresignedDownloadUrls {
+
+  /** Name of the memo in the cache metrics */
+  static final String CACHE_NAME = "presigned-download-urls";
+
+  private final S3Presigner presigner;
+
+  private final S3Properties properties;
+
+  private final LoadingCache<String, PresignedGetObjectRequest> urls;
+
+  @Autowired
+  public PresignedDownloadUrls(
+      S3Presigner presigner, S3Properties properties, MeterRegistry meterRegistry) {
+    this(presigner, properties, Ticker.systemTicker(), ForkJoinPool.commonPool());
+    CaffeineCacheMetrics.monitor(meterRegistry, urls, CACHE_NAME);
+  }
+
+  PresignedDownloadUrls(
+      S3Presigner presigner, S3Properties properties, Ticker ticker, Executor executor) {
+    this.presigner = presigner;
+    this.properties = properties;
+
+    S3Properties.DownloadUrl settings = properties.getDownloadUrl();
+    Duration reusable = settings.getValidity().minus(settings.getMinRemaining());
+    Duration refresh = reusable.minus(settings.getRefreshAhead());
+    Assert.isTrue(
+        refresh.isPositive(), "Download URL validity must exceed min-remaining + refresh-ahead");
+
+    this.urls =
+        Caffeine.newBuilder()
+            .maximumSize(settings.getMaximumSize())
+            .expireAfterWrite(reusable)
+            .refreshAfterWrite(refresh)
+            .ticker(ticker)
+            .executor(executor)
+            .recordStats()
+            .build(this::sign);
+  }
+
+  /**
+   * Get a presigned download URL of an object, signing it only when no reusable URL is known.
+   *
+   * @param s3Key the object key
+   * @return a presigned GET request with at least the minimum remaining lifetime
+   */
+  public PresignedGetObjectRequest get(String s3Key) {
+    return urls.get(s3Key);
+  }
+
+  /**
+   * Forget the URL of an object, so that it is no longer handed out.
+   *
+   * @param s3Key the object key
+   */
+  public void evict(String s3Key) {
+    urls.invalidate(s3Key);
+  }
+
+  /**
+   * Build the request of a download URL, to be signed by the presigner
+   *
+   * @param properties the S3 settings, giving the bucket and the URL validity
+   * @param s3Key the object key
+   * @return the presign request
+   */
+  public static GetObjectPresignRequest downloadPresignRequest(
+      S3Properties properties, String s3Key) {
+    GetObjectRequest getReq =
+        GetObjectRequest.builder().bucket(properties.getBucket()).key(s3Key).build();
+
+    return GetObjectPresignRequest.builder()
+        .signatureDuration(properties.getDownloadUrl().getValidity())
+        .getObjectRequest(getReq)
+        .build();
+  }
+
+  /** Sign a new download URL of an object */
+  private PresignedGetObjectRequest sign(String s3Key) {
+    return presigner.presignGetObject(downloadPresignRequest(properties, s3Key));
+  }
+}
@@ -0,0 +1,180 @@
+package com.datashare.api.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Allocator of unique download token strings.
+ *
+ * <p>Each token is the image of a counter value by a keyed permutation of the 32^6 token space, so
+ * two distinct counter values always give two distinct tokens, while consecutive values give
+ * unrelated tokens. Counter values are reserved by blocks from a shared source (a database
+ * sequence), so that instances sharing the same key never allocate the same value.
+ *
+ * <p>The permutation is a balanced Feistel network over two 15-bit halves, whose round functions
+ * are lookup tables filled from an AES-CTR keystream derived from the key.
+ *
+ * <p>Tokens issued before the allocator, by a random generator, may lie anywhere in the image of
+ * the permutation: the tokens of each reserved block are looked up at once, and the existing ones
+ * are skipped, so that an insert never fails on a duplicate token.
+ */
+public class TokenAllocator {
+
+  /** Token alphabet, without the ambiguous I, O, 0 and 1 */
+  static final String ALPHABET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
+
+  /** Token length, 5 bits per character */
+  static final int TOKEN_LENGTH = 6;
+
+  /** Number of distinct tokens */
+  static final long TOKEN_SPACE = 1L << (5 * TOKEN_LENGTH);
+
+  private static final int HALF_BITS = 5 * TOKEN_LENGTH / 2;
+  private static final int HALF_MASK = (1 << HALF_BITS) - 1;
+  private static final int ROUNDS = 8;
+
+  private final char[][] rounds;
+  private final int blockSize;
+  private final LongSupplier blocks;
+  private final Function<List<String>, Collection<String>> existing;
+
+  private final Lock lock = new ReentrantLock();
+  private String[] block = new String[0];
+  private Set<String> taken = Set.of();
+  private int next;
+
+  /**
+   * Create an allocator
+   *
+   * @param key the permutation key, shared by all instances
+   * @param blockSize the number of counter values reserved at once
+   * @param blocks the source of unique block numbers, starting at 0 or more
+   */
+  public TokenAllocator(String key, int blockSize, LongSupplier blocks) {
+    this(key, blockSize, blocks, tokens -> List.of());
+  }
+
+  /**
+   * Create an allocator skipping the tokens that already exist
+   *
+   * @param key the permutation key, shared by all instances
+   * @param blockSize the number of counter values reserved at once
+   * @param blocks the source of unique block numbers, starting at 0 or more
+   * @param existing the lookup of the given tokens that already exist, called once per block
+   */
+  public TokenAllocator(
+      String key,
+      int blockSize,
+      LongSupplier blocks,
+      Function<List<String>, Collection<String>> existing) {
+    if (key == null || key.isBlank()) {
+      throw new IllegalArgumentException("Token permutation key is required");
+    }
+    if (blockSize < 1) {
+      throw new IllegalArgumentException("Token block size must be positive");
+    }
+    this.rounds = roundTables(key);
+    this.blockSize = blockSize;
+    this.blocks = blocks;
+    this.existing = existing;
+  }
+
+  /**
+   * Allocate a new token string, never returned before by any allocator sharing the key and the
+   * block source
+   *
+   * @return the token string
+   * @throws IllegalStateException if the token space is exhausted
+   */
+  public String next() {
+    lock.lock();
+    try {
+      while (true) {
+        if (next == block.length) {
+          reserve();
+        }
+        String token = block[next++];
+        if (!taken.contains(token)) {
+          return token;
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Reserve the next block of counter values, and look up its tokens that already exist */
+  private void reserve() {
+    long number = blocks.getAsLong();
+    if (number < 0 || number >= TOKEN_SPACE / blockSize) {
+      throw new IllegalStateException("Token space exhausted");
+    }
+    long start = number * blockSize;
+    String[] tokens = new String[blockSize];
+    for (int i = 0; i < blockSize; i++) {
+      tokens[i] = encode(permute(start + i));
+    }
+    taken = Set.copyOf(existing.apply(List.of(tokens)));
+    block = tokens;
+    next = 0;
+  }
+
+  /** Apply the keyed permutation to a value of the token space */
+  long permute(long value) {
+    int left = (int) (value >>> HALF_BITS) & HALF_MASK;
+    int right = (int) value & HALF_MASK;
+    for (char[] round : rounds) {
+      int mixed = left ^ round[right];
+      left = right;
+      right = mixed;
+    }
+    return ((long) left << HALF_BITS) | right;
+  }
+
+  /** Encode a value of the token space, 5 bits per character */
+  static String encode(long value) {
+    char[] chars = new char[TOKEN_LENGTH];
+    for (int i = TOKEN_LENGTH - 1; i >= 0; i--) {
+      chars[i] = ALPHABET.charAt((int) (value & 31));
+      value >>>= 5;
+    }
+    return new String(chars);
+  }
+
+  /** Derive the round tables of the Feistel network from the key */
+  private static char[][] roundTables(String key) {
+    try {
+      byte[] digest =
+          MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+      Cipher cipher = Cipher.getInstance("AES/CTR/NoPadding");
+      cipher.init(
+          Cipher.ENCRYPT_MODE,
+          new SecretKeySpec(Arrays.copyOf(digest, 16), "AES"),
+          new IvParameterSpec(Arrays.copyOfRange(digest, 16, 32)));
+
+      int size = 1 << HALF_BITS;
+      byte[] stream = cipher.doFinal(new byte[ROUNDS * size * 2]);
+      char[][] tables = new char[ROUNDS][size];
+      for (int r = 0, i = 0; r < ROUNDS; r++) {
+        for (int x = 0; x < size; x++, i += 2) {
+          tables[r][x] = (char) (((stream[i] & 0xFF) << 8 | (stream[i + 1] & 0xFF)) & HALF_MASK);
+        }
+      }
+      return tables;
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Cannot derive the token permutation", e);
+    }
+  }
+}
@@ -1,13 +1,17 @@
 package com.datashare.api.service;
 
+import com.datashare.api.configuration.CacheConfig;
+import com.datashare.api.dto.SharedFile;
 import com.datashare.api.entities.File;
 import com.datashare.api.entities.Token;
 import com.datashare.api.handler.InvalidTokenException;
+import com.datashare.api.handler.InvalidTokenException.Reason;
 import com.datashare.api.repository.FileRepository;
 import com.datashare.api.repository.TokenRepository;
-import java.security.SecureRandom;
 import java.time.Instant;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -17,42 +21,99 @@ public class TokenService {
 
   @Autowired private FileRepository fileRepository;
 
-  private static final String ALPHABET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
-  private static final int TOKEN_LENGTH = 6;
+  @Autowired private TokenAllocator tokenAllocator;
+
+  @Autowired private KnownTokens knownTokens;
 
   public Token generateToken(File file, Instant expiresAt) {
 
+    Token token = attachToken(file, expiresAt);
+
+    this.fileRepository.save(file);
+
+    return token;
+  }
+
+  /**
+   * Creates a download token and attaches it to a file, without saving it.
+   *
+   * <p>The token is inserted with the file, through the cascade of {@link File#getToken()}.
+   *
+   * @param file the shared file
+   * @param expiresAt the token expiration
+   * @return the new token
+   */
+  public Token attachToken(File file, Instant expiresAt) {
+
     Token token = new Token();
-    token.setTokenString(randomToken());
+    token.setTokenString(tokenAllocator.next());
     token.setExpiresAt(expiresAt);
     token.setFile(file);
     file.setToken(token);
 
-    this.fileRepository.save(file);
-
     return token;
   }
 
   public File validateToken(String tokenString) throws Exception {
+    if (knownTokens.isUnknown(tokenString)) {
+      throw new InvalidTokenException(Reason.UNKNOWN);
+    }
+
     File file = tokenRepository.findByTokenString(tokenString).map(Token::getFile).orElse(null);
 
     if (file == null) {
-      throw new InvalidTokenException("Unknown token");
+      knownTokens.notFound(tokenString);
+      throw new InvalidTokenException(Reason.UNKNOWN);
     }
 
     if (file.getToken().getExpiresAt().isBefore(Instant.now())) {
-      throw new InvalidTokenException("Expired token");
+      throw new InvalidTokenException(Reason.EXPIRED);
     }
 
     return file;
   }
 
-  private String randomToken() {
-    SecureRandom random = new SecureRandom();
-    StringBuilder sb = new StringBuilder(TOKEN_LENGTH);
-    for (int i = 0; i < TOKEN_LENGTH; i++) {
-      sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+  /**
+   * Resolves a download token to the descriptor of its shared file.
+   *
+   * <p>Descriptors are kept in the {@link CacheConfig#TOKENS} cache, and never beyond the token
+   * expiration, so that popular links are served without querying the database. Unknown and expired
+   * tokens are never cached; most unknown tokens are rejected by {@link KnownTokens} without
+   * querying the database either.
+   *
+   * @param tokenString the download token
+   * @return the shared file descriptor
+   * @throws InvalidTokenException if the token is unknown or expired
+   */
+  @Cacheable(cacheNames = CacheConfig.TOKENS, key = "#tokenString")
+  public SharedFile resolveToken(String tokenString) throws InvalidTokenException {
+    if (knownTokens.isUnknown(tokenString)) {
+      throw new InvalidTokenException(Reason.UNKNOWN);
+    }
+
+    SharedFile sharedFile =
+        tokenRepository
+            .findSharedFileByTokenString(tokenString)
+            .orElseThrow(
+                () -> {
+                  knownTokens.notFound(tokenString);
+                  return new InvalidTokenException(Reason.UNKNOWN);
+                });
+
+    if (sharedFile.expiresAt().isBefore(Instant.now())) {
+      throw new InvalidTokenException(Reason.EXPIRED);
     }
-    return sb.toString();
+
+    return sharedFile;
   }
+
+  /**
+   * Evicts the cached descriptor of a download token.
+   *
+   * <p>Must be called whenever the shared file is removed, so that its link stops resolving.
+   *
+   * @param tokenString the download token
+   */
+  @CacheEvict(cacheNames = CacheConfig.TOKENS, key = "#tokenString")
+  public void evictToken(String tokenString) {}
 }
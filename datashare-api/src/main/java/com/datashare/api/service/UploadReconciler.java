@@ -0,0 +1,411 @@
+package com.datashare.api.service;
+
+import com.datashare.api.configuration.ReconcilerProperties;
+import com.datashare.api.configuration.ReconcilerProperties.Mode;
+import com.datashare.api.configuration.S3Properties;
+import com.datashare.api.repository.FileRepository;
+import com.datashare.api.repository.TokenRepository;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+/**
+ * Reconciliation of the uploaded objects of the bucket with the {@code files} table.
+ *
+ * <p>The {@code uploads/} objects, listed page by page by S3 in key order, are merged with the
+ * {@code files} rows read by (s3_key, id) keyset pages in the same order. Both sides are streamed,
+ * so the memory used does not depend on the number of keys. Each page of rows is read by its own
+ * short query: no pooled connection is held while S3 lists the bucket. Two kinds of orphans are
+ * found:
+ *
+ * <ul>
+ *   <li>objects without a row, left by failed file deletions
+ *   <li>rows without an object, left by abandoned uploads
+ * </ul>
+ *
+ * <p>In {@link Mode#REPAIR} mode, orphans older than {@code reconciler.grace} are deleted in
+ * batches. Younger ones may belong to an upload in progress and are only reported.
+ */
+@Component
+@Slf4j
+public class UploadReconciler {
+
+  /** Order of the keys listed by S3: UTF-8 bytes order, i.e. code points order */
+  static final Comparator<String> KEY_ORDER = UploadReconciler::compareCodePoints;
+
+  /** Number of orphans deleted at once */
+  private static final int REPAIR_BATCH_SIZE = ObjectStorage.MAX_KEYS_PER_DELETE;
+
+  /** Number of orphans logged per kind and run */
+  private static final int MAX_LOGGED_ORPHANS = 100;
+
+  private static final RowMapper<StoredKey> STORED_KEY_MAPPER =
+      (rs, rowNum) -> {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        return new StoredKey(
+            rs.getLong("id"),
+            rs.getObject("user_id", Long.class),
+            rs.getString("s3_key"),
+            createdAt != null ? createdAt.toInstant() : null);
+      };
+
+  private final S3Client s3Client;
+  private final S3Properties s3Properties;
+  private final TokenRepository tokenRepository;
+  private final FileRepository fileRepository;
+  private final ObjectStorage objectStorage;
+  private final FileVersions fileVersions;
+  private final ReconcilerProperties properties;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate repairTransaction;
+  private final String storedKeysQuery;
+
+  public UploadReconciler(
+      S3Client s3Client,
+      S3Properties s3Properties,
+      TokenRepository tokenRepository,
+      FileRepository fileRepository,
+      ObjectStorage objectStorage,
+      FileVersions fileVersions,
+      ReconcilerProperties properties,
+      DataSource dataSource,
+      PlatformTransactionManager transactionManager) {
+    this.s3Client = s3Client;
+    this.s3Properties = s3Properties;
+    this.tokenRepository = tokenRepository;
+    this.fileRepository = fileRepository;
+    this.objectStorage = objectStorage;
+    this.fileVersions = fileVersions;
+    this.properties = properties;
+
+    // Each page is read in auto-commit, its connection released before the next S3 page
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.repairTransaction = new TransactionTemplate(transactionManager);
+    this.storedKeysQuery = storedKeysQuery(properties.getKeyCollation());
+  }
+
+  /** Scheduled run, a no-op when the reconciliation is disabled */
+  @Scheduled(cron = "${reconciler.cron:0 0 3 * * *}")
+  public void scheduledRun() {
+    if (properties.isEnabled()) {
+      run(properties.getMode());
+    }
+  }
+
+  /**
+   * Reconcile the bucket with the files table
+   *
+   * @param mode whether the orphans are only reported or also repaired
+   * @return the reconciliation report
+   */
+  public Report run(Mode mode) {
+    Reconciliation reconciliation =
+        new Reconciliation(mode, Instant.now().minus(properties.getGrace()));
+
+    ListObjectsV2Request request =
+        ListObjectsV2Request.builder()
+            .bucket(s3Properties.getBucket())
+            .prefix(FileService.UPLOAD_PREFIX)
+            .build();
+    Iterator<S3Object> objects = s3Client.listObjectsV2Paginator(request).contents().iterator();
+    Iterator<StoredKey> rows = new StoredKeyPages(this::storedKeysAfter, properties.getPageSize());
+
+    merge(objects, rows, reconciliation::orphanObject, reconciliation::orphanRow);
+    reconciliation.flush();
+
+    Report report = reconciliation.report();
+    log.info("Uploads reconciliation: {}", report);
+    return report;
+  }
+
+  /**
+   * Merge two sequences of keys sorted in {@link #KEY_ORDER}, reporting the keys found on one side
+   * only
+   *
+   * @param objects the objects of the bucket
+   * @param rows the rows of the files table
+   * @param orphanObject called for each object without a row
+   * @param orphanRow called for each row without an object
+   * @throws IllegalStateException if a sequence is not sorted in {@link #KEY_ORDER}
+   */
+  static void merge(
+      Iterator<S3Object> objects,
+      Iterator<StoredKey> rows,
+      Consumer<S3Object> orphanObject,
+      Consumer<StoredKey> orphanRow) {
+    SortedCursor<S3Object> objectCursor = new SortedCursor<>(objects, S3Object::key, "objects");
+    SortedCursor<StoredKey> rowCursor = new SortedCursor<>(rows, StoredKey::s3Key, "files");
+    String matchedKey = null;
+
+    while (objectCursor.current != null || rowCursor.current != null) {
+      if (rowCursor.current != null && rowCursor.key().equals(matchedKey)) {
+        // Another row of an existing object
+        rowCursor.advance();
+        continue;
+      }
+
+      int comparison;
+      if (objectCursor.current == null) {
+        comparison = 1;
+      } else if (rowCursor.current == null) {
+        comparison = -1;
+      } else {
+        comparison = KEY_ORDER.compare(objectCursor.key(), rowCursor.key());
+      }
+
+      if (comparison < 0) {
+        orphanObject.accept(objectCursor.current);
+        objectCursor.advance();
+      } else if (comparison > 0) {
+        orphanRow.accept(rowCursor.current);
+        rowCursor.advance();
+      } else {
+        matchedKey = rowCursor.key();
+        objectCursor.advance();
+        rowCursor.advance();
+      }
+    }
+  }
+
+  /** Read the page of rows following a row, or the first page */
+  private List<StoredKey> storedKeysAfter(StoredKey last) {
+    String afterKey = last != null ? last.s3Key() : "";
+    long afterId = last != null ? last.fileId() : 0L;
+    return jdbcTemplate.query(
+        storedKeysQuery,
+        STORED_KEY_MAPPER,
+        FileService.UPLOAD_PREFIX + "%",
+        afterKey,
+        afterKey,
+        afterId,
+        properties.getPageSize());
+  }
+
+  /** Compare two strings by code points, which is the order of their UTF-8 bytes */
+  static int compareCodePoints(String a, String b) {
+    int i = 0;
+    int j = 0;
+    while (i < a.length() && j < b.length()) {
+      int codePointA = a.codePointAt(i);
+      int codePointB = b.codePointAt(j);
+      if (codePointA != codePointB) {
+        return Integer.compare(codePointA, codePointB);
+      }
+      i += Character.charCount(codePointA);
+      j += Character.charCount(codePointB);
+    }
+    return Integer.compare(a.length() - i, b.length() - j);
+  }
+
+  /** Query of a page of files keys after a (key, id), sorted with the configured collation */
+  static String storedKeysQuery(String collation) {
+    String key = "s3_key";
+    if (StringUtils.hasText(collation)) {
+      Assert.isTrue(collation.matches("[\\w.-]+"), "Invalid key collation: " + collation);
+      key += " COLLATE \"" + collation + "\"";
+    }
+    return "SELECT id, user_id, s3_key, created_at FROM files WHERE s3_key LIKE ? AND ("
+        + key
+        + " > ? OR (s3_key = ? AND id > ?)) ORDER BY "
+        + key
+        + ", id LIMIT ?";
+  }
+
+  /**
+   * Key of a file row
+   *
+   * @param fileId the file id
+   * @param userId the file owner id, null for an anonymous upload
+   * @param s3Key the object key
+   * @param createdAt the row creation instant
+   */
+  record StoredKey(Long fileId, Long userId, String s3Key, Instant createdAt) {}
+
+  /**
+   * Reconciliation report
+   *
+   * @param mode the reconciliation mode
+   * @param orphanObjects the number of objects without a row
+   * @param orphanRows the number of rows without an object
+   * @param repairedObjects the number of orphan objects deleted
+   * @param repairedRows the number of orphan rows deleted
+   * @param skipped the number of orphans too young to be repaired
+   */
+  public record Report(
+      Mode mode,
+      long orphanObjects,
+      long orphanRows,
+      long repairedObjects,
+      long repairedRows,
+      long skipped) {}
+
+  /** Iterator over rows read page by page, the next page being read after the last row */
+  static final class StoredKeyPages implements Iterator<StoredKey> {
+
+    private final Function<StoredKey, List<StoredKey>> pageAfter;
+    private final int pageSize;
+    private Iterator<StoredKey> page = Collections.emptyIterator();
+    private StoredKey last;
+    private boolean lastPage;
+
+    StoredKeyPages(Function<StoredKey, List<StoredKey>> pageAfter, int pageSize) {
+      this.pageAfter = pageAfter;
+      this.pageSize = pageSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (!page.hasNext() && !lastPage) {
+        List<StoredKey> rows = pageAfter.apply(last);
+        lastPage = rows.size() < pageSize;
+        if (!rows.isEmpty()) {
+          last = rows.getLast();
+        }
+        page = rows.iterator();
+      }
+      return page.hasNext();
+    }
+
+    @Override
+    public StoredKey next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return page.next();
+    }
+  }
+
+  /** Iterator over keys checking that they are sorted in {@link #KEY_ORDER} */
+  private static final class SortedCursor<T> {
+
+    private final Iterator<T> iterator;
+    private final Function<T, String> keyOf;
+    private final String name;
+    private T current;
+
+    SortedCursor(Iterator<T> iterator, Function<T, String> keyOf, String name) {
+      this.iterator = iterator;
+      this.keyOf = keyOf;
+      this.name = name;
+      advance();
+    }
+
+    String key() {
+      return keyOf.apply(current);
+    }
+
+    void advance() {
+      String previousKey = current != null ? key() : null;
+      current = iterator.hasNext() ? iterator.next() : null;
+      if (previousKey != null && current != null && KEY_ORDER.compare(previousKey, key()) > 0) {
+        throw new IllegalStateException(
+            "The " + name + " are not sorted by key, check reconciler.key-collation");
+      }
+    }
+  }
+
+  /** State of a run: orphan counts and pending repairs */
+  private final class Reconciliation {
+
+    private final Mode mode;
+    private final Instant graceLimit;
+    private final List<String> orphanKeys = new ArrayList<>();
+    private final List<Long> orphanFileIds = new ArrayList<>();
+    private final List<Long> orphanOwnerIds = new ArrayList<>();
+    private long orphanObjects;
+    private long orphanRows;
+    private long repairedObjects;
+    private long repairedRows;
+    private long skipped;
+
+    Reconciliation(Mode mode, Instant graceLimit) {
+      this.mode = mode;
+      this.graceLimit = graceLimit;
+    }
+
+    void orphanObject(S3Object object) {
+      if (++orphanObjects <= MAX_LOGGED_ORPHANS) {
+        log.info("Object without file row: {}", object.key());
+      }
+      if (mode != Mode.REPAIR) {
+        return;
+      }
+      if (object.lastModified() != null && object.lastModified().isAfter(graceLimit)) {
+        skipped++;
+        return;
+      }
+      orphanKeys.add(object.key());
+      if (orphanKeys.size() >= REPAIR_BATCH_SIZE) {
+        flushObjects();
+      }
+    }
+
+    void orphanRow(StoredKey row) {
+      if (++orphanRows <= MAX_LOGGED_ORPHANS) {
+        log.info("File row without object: {} (id {})", row.s3Key(), row.fileId());
+      }
+      if (mode != Mode.REPAIR) {
+        return;
+      }
+      if (row.createdAt() != null && row.createdAt().isAfter(graceLimit)) {
+        skipped++;
+        return;
+      }
+      orphanFileIds.add(row.fileId());
+      orphanOwnerIds.add(row.userId());
+      if (orphanFileIds.size() >= REPAIR_BATCH_SIZE) {
+        flushRows();
+      }
+    }
+
+    void flush() {
+      flushObjects();
+      flushRows();
+    }
+
+    private void flushObjects() {
+      if (!orphanKeys.isEmpty()) {
+        repairedObjects += objectStorage.deleteObjects(orphanKeys).size();
+        orphanKeys.clear();
+      }
+    }
+
+    private void flushRows() {
+      if (!orphanFileIds.isEmpty()) {
+        repairTransaction.executeWithoutResult(
+            status -> {
+              tokenRepository.deleteByFileIdIn(orphanFileIds);
+              fileRepository.deleteAllByIdInBatch(orphanFileIds);
+              fileVersions.changed(orphanOwnerIds);
+            });
+        repairedRows += orphanFileIds.size();
+        orphanFileIds.clear();
+        orphanOwnerIds.clear();
+      }
+    }
+
+    Report report() {
+      return new Report(mode, orphanObjects, orphanRows, repairedObjects, repairedRows, skipped);
+    }
+  }
+}
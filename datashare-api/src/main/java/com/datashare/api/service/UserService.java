@@ -1,14 +1,16 @@
 package com.datashare.api.service;
 
+import com.datashare.api.dto.LoginResult;
 import com.datashare.api.dto.RegisterResponse;
 import com.datashare.api.entities.User;
+import com.datashare.api.monitoring.DatashareMetrics;
+import com.datashare.api.monitoring.DatashareMetrics.LoginOutcome;
 import com.datashare.api.repository.UserRepository;
+import com.datashare.api.security.CustomUserDetailService;
 import com.datashare.api.security.JwtService;
-import jakarta.transaction.Transactional;
-import java.util.Collection;
-import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -20,20 +22,28 @@ import org.springframework.util.Assert;
  *
  * <p>Provides methods for user registration, login authentication, and password management. Handles
  * password encoding and JWT token generation for authenticated users.
+ *
+ * <p>Not transactional: password hashing takes about 100 ms of CPU, during which no pooled
+ * connection must be held. Each repository call runs in its own short transaction.
  */
 @Slf4j
 @Service
-@Transactional
 @RequiredArgsConstructor
 public class UserService {
 
   private final JwtService jwtService;
   private final UserRepository userRepository;
   private final PasswordEncoder passwordEncoder;
+  private final DatashareMetrics metrics;
+  private final CustomUserDetailService userDetailService;
 
   /**
    * Registers a new user in the system.
    *
+   * <p>The password is hashed before touching the database, and the user is inserted right away:
+   * the unique constraint on the email rejects an already registered user. The cached principal of
+   * the email, if any, is evicted once the user is inserted.
+   *
    * @param user the user to register. Must not be null
    * @return the registered user with encoded password
    * @throws IllegalArgumentException if the email is already in use
@@ -43,15 +53,16 @@ public class UserService {
     Assert.notNull(user, "User must not be null");
     log.info("Registering user with email: {}", user.getEmail());
 
-    Optional<User> existingUser = userRepository.findByEmail(user.getEmail());
-    if (existingUser.isPresent()) {
-      throw new IllegalArgumentException("Email is already in use: " + user.getEmail());
-    }
     // Encode the user's password before saving
-    user.setPassword(passwordEncoder.encode(user.getPassword()));
+    String password = passwordEncoder.encode(user.getPassword());
 
-    // Save the new user to the repository
-    userRepository.save(user);
+    // Always insert a new row, even if the given user was already saved
+    try {
+      userRepository.saveAndFlush(new User(null, user.getEmail(), password, null));
+    } catch (DataIntegrityViolationException exception) {
+      throw new IllegalArgumentException("Email is already in use: " + user.getEmail());
+    }
+    evictUser(user.getEmail());
 
     return new RegisterResponse(
         "User registered successfully", String.valueOf(user.getEmail()), user.getAuthorities());
@@ -60,37 +71,46 @@ public class UserService {
   /**
    * Authenticates a user and generates a JWT token.
    *
+   * <p>The user is read once, and the password checked after the read transaction is over.
+   *
    * @param email the user's email. Must not be null
    * @param password the user's password. Must not be null
-   * @return a JWT token for the authenticated user
+   * @return a JWT token for the authenticated user, with the user's authorities
    * @throws IllegalArgumentException if the email or password is invalid
    */
-  public String login(String email, String password) {
+  public LoginResult login(String email, String password) {
 
     Assert.notNull(email, "Email must not be null");
     Assert.notNull(password, "Password must not be null");
     log.info("Authenticating user with email: {}", email);
 
+    UserDetails existingUser;
     try {
-      UserDetails existingUser = userRepository.loadUserByUsername(email);
-      if (passwordEncoder.matches(password, existingUser.getPassword())) {
-
-        return jwtService.generateToken(existingUser);
-      }
-      throw new IllegalArgumentException("Invalid password");
+      existingUser = userRepository.loadUserByUsername(email);
     } catch (UsernameNotFoundException exception) {
+      metrics.login(LoginOutcome.UNKNOWN_EMAIL);
       throw new IllegalArgumentException("Invalid email");
     }
+
+    if (!passwordEncoder.matches(password, existingUser.getPassword())) {
+      metrics.login(LoginOutcome.BAD_PASSWORD);
+      throw new IllegalArgumentException("Invalid password");
+    }
+    metrics.login(LoginOutcome.SUCCESS);
+    return new LoginResult(jwtService.generateToken(existingUser), existingUser.getAuthorities());
   }
 
   /**
-   * Get the user authorities
+   * Evicts the cached authentication principal of a user.
+   *
+   * <p>Called by every path that creates, modifies or removes a user, so that the authentication
+   * filter stops serving a stale principal.
    *
    * @param email the user's email. Must not be null
-   * @return the user's authorities
    */
-  public Collection<?> getAuthorities(String email) {
+  public void evictUser(String email) {
     Assert.notNull(email, "Email must not be null");
-    return userRepository.loadUserByUsername(email).getAuthorities();
+    log.debug("Evicting cached user with email: {}", email);
+    userDetailService.evictPrincipal(email);
   }
 }
@@ -8,6 +8,11 @@
  *
  * <ul>
  *   <li>{@link com.datashare.api.security.JwtService} - JWT token generation and management
+ *   <li>{@link com.datashare.api.service.MultipartUploadService} - Multipart upload of large files
+ *   <li>{@link com.datashare.api.service.ExpiredShareReaper} - Background removal of expired shares
+ *   <li>{@link com.datashare.api.service.UploadReconciler} - Bucket and files table reconciliation
+ *   <li>{@link com.datashare.api.service.TokenAllocator} - Collision-free download token allocation
+ *   <li>{@link com.datashare.api.service.KnownTokens} - Rejection of unknown download tokens
  * </ul>
  */
 package com.datashare.api.service;
@@ -0,0 +1,12 @@
+-- ============================================================
+-- Download token block sequence
+-- ============================================================
+-- Run by the API at every startup (spring.sql.init), before the
+-- JPA schema update, on new and existing databases alike.
+--
+-- Each nextval reserves a block of tokens.block-size counter
+-- values for one API instance. The sequence must never be reset
+-- while tokens issued with the same tokens.key exist.
+-- ============================================================
+
+CREATE SEQUENCE IF NOT EXISTS token_block_seq START WITH 0 MINVALUE 0;
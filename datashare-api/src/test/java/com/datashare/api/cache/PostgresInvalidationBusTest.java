@@ -0,0 +1,79 @@
+package com.datashare.api.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** PostgresInvalidationBus payload Unit Test Set */
+public class PostgresInvalidationBusTest {
+
+  /** Test that string and long keys survive the notification payload */
+  @Test
+  @DisplayName("UNIT-BUS-001: Invalidations encoded and decoded with their key type")
+  void shouldRoundTripInvalidations() {
+    // Arrange
+    CacheInvalidation email = new CacheInvalidation("node-a", "users", "a\tb@example.com");
+    CacheInvalidation owner = new CacheInvalidation("node-a", "fileHistory", 42L);
+    CacheInvalidation cache = new CacheInvalidation("node-a", "tokens", null);
+
+    // Act & Assert
+    assertThat(PostgresInvalidationBus.decode(PostgresInvalidationBus.encode(email)))
+        .isEqualTo(email);
+    assertThat(PostgresInvalidationBus.decode(PostgresInvalidationBus.encode(owner)))
+        .isEqualTo(owner);
+    assertThat(PostgresInvalidationBus.decode(PostgresInvalidationBus.encode(cache)))
+        .isEqualTo(cache);
+  }
+
+  /** Test that unsupported keys and malformed payloads invalidate more, never less */
+  @Test
+  @DisplayName("UNIT-BUS-002: Unknown keys clear the cache, malformed payloads every cache")
+  void shouldWidenUnknownInvalidations() {
+    // Arrange
+    CacheInvalidation uuid = new CacheInvalidation("node-a", "jwt", UUID.randomUUID());
+
+    // Act & Assert
+    assertThat(PostgresInvalidationBus.decode(PostgresInvalidationBus.encode(uuid)))
+        .isEqualTo(new CacheInvalidation("node-a", "jwt", null));
+    assertThat(PostgresInvalidationBus.decode("garbage")).isEqualTo(CacheInvalidation.all());
+    assertThat(PostgresInvalidationBus.decode("node-a\tusers\tl:NaN"))
+        .isEqualTo(new CacheInvalidation("node-a", "users", null));
+  }
+
+  /** Test that added keys are sent in as few payloads as the payload limit allows */
+  @Test
+  @DisplayName("UNIT-BUS-003: Added keys split into payloads under the limit")
+  void shouldSplitAddedKeys() {
+    // Arrange: 2000 six-character tokens, about 14 KB
+    List<String> keys = IntStream.range(0, 2000).mapToObj(i -> String.format("T%05d", i)).toList();
+    KeysAdded added = new KeysAdded("node-a", "knownTokens", keys);
+
+    // Act
+    List<String> payloads = PostgresInvalidationBus.encode(added);
+
+    // Assert
+    assertThat(payloads).hasSize(2);
+    assertThat(payloads)
+        .allMatch(PostgresInvalidationBus::isAdded)
+        .allMatch(
+            payload ->
+                payload.getBytes(StandardCharsets.UTF_8).length
+                    <= PostgresInvalidationBus.MAX_PAYLOAD_BYTES);
+    List<KeysAdded> decoded = payloads.stream().map(PostgresInvalidationBus::decodeAdded).toList();
+    assertThat(decoded.getFirst().origin()).isEqualTo("node-a");
+    assertThat(decoded.getFirst().set()).isEqualTo("knownTokens");
+    assertThat(decoded.stream().flatMap(keysAdded -> keysAdded.keys().stream()).toList())
+        .isEqualTo(keys);
+    assertThat(PostgresInvalidationBus.encode(new KeysAdded("node-a", "knownTokens", List.of())))
+        .isEmpty();
+    assertThat(
+            PostgresInvalidationBus.isAdded(
+                PostgresInvalidationBus.encode(new CacheInvalidation("node-a", "tokens", "T1"))))
+        .isFalse();
+  }
+}
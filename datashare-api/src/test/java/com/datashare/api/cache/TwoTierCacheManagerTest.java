@@ -0,0 +1,117 @@
+package com.datashare.api.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+/** TwoTierCacheManager Unit Test Set, two instances sharing a loopback bus */
+public class TwoTierCacheManagerTest {
+
+  private static final String USERS = "users";
+
+  private static final String TOKENS = "tokens";
+
+  private final LoopbackInvalidationBus bus = new LoopbackInvalidationBus();
+
+  private final CacheManager shared = new ConcurrentMapCacheManager(USERS, TOKENS);
+
+  private SimpleMeterRegistry meterRegistryA;
+
+  private TwoTierCacheManager nodeA;
+
+  private TwoTierCacheManager nodeB;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistryA = new SimpleMeterRegistry();
+    nodeA =
+        new TwoTierCacheManager(
+            new ConcurrentMapCacheManager(USERS, TOKENS), null, bus, meterRegistryA);
+    nodeB =
+        new TwoTierCacheManager(
+            new ConcurrentMapCacheManager(USERS, TOKENS), null, bus, new SimpleMeterRegistry());
+  }
+
+  /** Test that an eviction on one instance evicts the copy of the other instances */
+  @Test
+  @DisplayName("UNIT-TIER-001: Eviction broadcast to the other instances")
+  void shouldEvictOtherInstances() {
+
+    // GIVEN an entry cached by both instances
+    nodeA.getCache(USERS).put("a@example.com", "A");
+    nodeA.getCache(USERS).put("b@example.com", "B");
+    nodeB.getCache(USERS).put("a@example.com", "A");
+    nodeB.getCache(USERS).put("b@example.com", "B");
+
+    // WHEN the first instance evicts it
+    nodeA.getCache(USERS).evict("a@example.com");
+
+    // THEN it is gone on both instances, the other entries are kept
+    assertThat(nodeA.getCache(USERS).get("a@example.com")).isNull();
+    assertThat(nodeB.getCache(USERS).get("a@example.com")).isNull();
+    assertThat(nodeB.getCache(USERS).get("b@example.com").get()).isEqualTo("B");
+
+    // AND the first instance ignored its own invalidation
+    assertThat(invalidations("sent")).isEqualTo(1.0);
+    assertThat(invalidations("received")).isZero();
+  }
+
+  /** Test that a value loaded by an instance is read from the shared tier by the others */
+  @Test
+  @DisplayName("UNIT-TIER-002: Shared tier read through and evicted with the local tiers")
+  void shouldReadThroughSharedTier() {
+
+    // GIVEN two instances over a shared store
+    TwoTierCacheManager sharedA =
+        new TwoTierCacheManager(
+            new ConcurrentMapCacheManager(TOKENS), shared, bus, new SimpleMeterRegistry());
+    TwoTierCacheManager sharedB =
+        new TwoTierCacheManager(
+            new ConcurrentMapCacheManager(TOKENS), shared, bus, new SimpleMeterRegistry());
+
+    // WHEN the first instance loads a value and the second one reads it
+    assertThat(sharedA.getCache(TOKENS).get("T1", () -> "file")).isEqualTo("file");
+    String read = sharedB.getCache(TOKENS).get("T1", () -> "reloaded");
+
+    // THEN the second instance gets the shared value, without loading it
+    assertThat(read).isEqualTo("file");
+
+    // AND an eviction clears both tiers of both instances
+    sharedB.getCache(TOKENS).evict("T1");
+    assertThat(shared.getCache(TOKENS).get("T1")).isNull();
+    assertThat(sharedA.getCache(TOKENS).get("T1")).isNull();
+  }
+
+  /** Test that an invalidation of every cache clears the local tiers */
+  @Test
+  @DisplayName("UNIT-TIER-003: Invalidation of every cache clears the local tiers")
+  void shouldClearEveryCache() {
+
+    // GIVEN entries in several caches
+    Cache users = nodeB.getCache(USERS);
+    Cache tokens = nodeB.getCache(TOKENS);
+    users.put("a@example.com", "A");
+    tokens.put("T1", "file");
+
+    // WHEN the bus reports that invalidations may have been missed
+    bus.publish(CacheInvalidation.all());
+
+    // THEN every local cache is cleared
+    assertThat(users.get("a@example.com")).isNull();
+    assertThat(tokens.get("T1")).isNull();
+  }
+
+  private double invalidations(String direction) {
+    return meterRegistryA
+        .get("datashare.cache.invalidations")
+        .tag("direction", direction)
+        .counter()
+        .count();
+  }
+}
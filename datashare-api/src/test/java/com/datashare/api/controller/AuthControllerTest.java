@@ -7,11 +7,13 @@ import static org.mockito.Mockito.*;
 
 import com.datashare.api.dto.LoginRequest;
 import com.datashare.api.dto.LoginResponse;
+import com.datashare.api.dto.LoginResult;
 import com.datashare.api.dto.RegisterRequest;
 import com.datashare.api.dto.RegisterResponse;
 import com.datashare.api.mapper.UserMapper;
 import com.datashare.api.service.UserService;
 import jakarta.servlet.http.HttpServletResponse;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -90,7 +92,7 @@ public class AuthControllerTest {
   void testLoginSuccess() {
     // Arrange
     String expectedToken = "eyJhbGciOiJIUzI1NiJ9.test.token";
-    when(userService.login(any(), any())).thenReturn(expectedToken);
+    when(userService.login(any(), any())).thenReturn(new LoginResult(expectedToken, List.of()));
 
     // Act
     ResponseEntity<?> result = authController.login(validLoginRequest, response);
@@ -125,7 +127,8 @@ public class AuthControllerTest {
   void testCookieAttributes() {
     // Arrange
     String expectedToken = "eyJhbGciOiJIUzI1NiJ9.test.token";
-    when(userService.login(anyString(), anyString())).thenReturn(expectedToken);
+    when(userService.login(anyString(), anyString()))
+        .thenReturn(new LoginResult(expectedToken, List.of()));
 
     // Act
     authController.login(validLoginRequest, response);
@@ -1,6 +1,9 @@
 package com.datashare.api.controller;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -16,6 +19,7 @@ import com.datashare.api.repository.UserRepository;
 import jakarta.servlet.http.Cookie;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -26,6 +30,7 @@ import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import tools.jackson.databind.json.JsonMapper;
 
 @SpringBootTest
@@ -111,6 +116,39 @@ public class FileControllerIT {
     assertEquals("test.png", files.get(0).getFilename());
   }
 
+  /** Test that presigned upload URLs are generated for a batch of files */
+  @Test
+  @DisplayName("INTEG-FILE-001B: Get presigned URLs for a batch of files")
+  public void shouldReturnPresignedUrlsForBatch() throws Exception {
+
+    // WHEN POST /files/upload/batch
+    mockMvc
+        .perform(
+            post("/files/upload/batch")
+                .with(csrf())
+                .cookie(authCookie)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    """
+                [
+                  {"filename":"a.png","contentType":"image/png", "size": 12, "expirationDays": 3},
+                  {"filename":"b.pdf","contentType":"application/pdf", "size": 24}
+                ]
+            """))
+
+        // THEN the response is OK with one presigned URL per file
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(2))
+        .andExpect(jsonPath("$[0].uploadUrl").exists())
+        .andExpect(jsonPath("$[0].tokenString").exists())
+        .andExpect(jsonPath("$[1].tokenString").exists());
+
+    // AND the file metadata and tokens are saved in database
+    List<File> files = fileRepository.findByUserIdWithToken(userId);
+    assertEquals(2, files.size());
+    assertEquals(2, files.stream().filter(file -> file.getToken() != null).count());
+  }
+
   /** Test that forbidden extensions are rejected */
   @Test
   @DisplayName("INTEG-FILE-002: Forbidden extensions are rejected")
@@ -217,7 +255,9 @@ public class FileControllerIT {
         .andExpect(jsonPath("$.size").value(50000L))
         .andExpect(jsonPath("$.downloadUrl").exists())
         .andExpect(jsonPath("$.createdAt").exists())
-        .andExpect(jsonPath("$.expiresAt").exists());
+        .andExpect(jsonPath("$.expiresAt").exists())
+        .andExpect(jsonPath("$.downloadUrlExpiresAt").exists())
+        .andExpect(header().string("Cache-Control", containsString("max-age=")));
   }
 
   /** Test that invalid token returns unauthorized */
@@ -367,4 +407,136 @@ public class FileControllerIT {
         .andExpect(jsonPath("$.length()").value(1))
         .andExpect(jsonPath("$[0].filename").value("my_file.txt"));
   }
+
+  /** Test that the file history is paginated with a keyset cursor */
+  @Test
+  @DisplayName("INTEG-FILE-011: File history is paginated with a next cursor")
+  public void shouldPaginateFilesWithCursor() throws Exception {
+
+    // GIVEN five files created at the same instant, ordered by id
+    Instant createdAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    for (int i = 1; i <= 5; i++) {
+      File f = new File();
+      f.setUserId(userId);
+      f.setFilename("page" + i + ".txt");
+      f.setContentType("text/plain");
+      f.setSize(100L * i);
+      f.setS3Key("uploads/page" + i);
+      f.setCreatedAt(createdAt);
+      fileRepository.save(f);
+    }
+
+    // WHEN GET /files/my with a page size of 2
+    MvcResult first =
+        mockMvc
+            .perform(get("/files/my").param("limit", "2").with(csrf()).cookie(authCookie))
+
+            // THEN got the first two files and a next cursor
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].filename").value("page1.txt"))
+            .andExpect(jsonPath("$[1].filename").value("page2.txt"))
+            .andExpect(header().string("Link", containsString("rel=\"next\"")))
+            .andReturn();
+    String cursor = first.getResponse().getHeader("X-Next-Cursor");
+    assertNotNull(cursor);
+
+    // WHEN GET /files/my with the next cursor
+    cursor =
+        mockMvc
+            .perform(
+                get("/files/my")
+                    .param("limit", "2")
+                    .param("cursor", cursor)
+                    .with(csrf())
+                    .cookie(authCookie))
+
+            // THEN got the next two files
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].filename").value("page3.txt"))
+            .andExpect(jsonPath("$[1].filename").value("page4.txt"))
+            .andReturn()
+            .getResponse()
+            .getHeader("X-Next-Cursor");
+
+    // WHEN GET /files/my with the last cursor
+    mockMvc
+        .perform(
+            get("/files/my")
+                .param("limit", "2")
+                .param("cursor", cursor)
+                .with(csrf())
+                .cookie(authCookie))
+
+        // THEN got the last file and no next cursor
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(1))
+        .andExpect(jsonPath("$[0].filename").value("page5.txt"))
+        .andExpect(header().doesNotExist("X-Next-Cursor"))
+        .andExpect(header().doesNotExist("Link"));
+  }
+
+  /** Test that a malformed cursor is rejected */
+  @Test
+  @DisplayName("INTEG-FILE-012: File history with an invalid cursor returns Bad Request")
+  public void shouldRejectInvalidCursor() throws Exception {
+
+    // WHEN GET /files/my with a malformed cursor
+    mockMvc
+        .perform(get("/files/my").param("cursor", "not-a-cursor").with(csrf()).cookie(authCookie))
+
+        // THEN returns Bad Request
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message").value("Invalid cursor"));
+  }
+
+  /** Test that an unchanged file history is answered with a 304, and a changed one is not */
+  @Test
+  @DisplayName("INTEG-FILE-013: File history answers a matching If-None-Match with Not Modified")
+  public void shouldAnswerUnchangedHistoryWithNotModified() throws Exception {
+
+    // GIVEN the file history and its entity tag
+    String eTag =
+        mockMvc
+            .perform(get("/files/my").with(csrf()).cookie(authCookie))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Cache-Control", containsString("no-cache")))
+            .andReturn()
+            .getResponse()
+            .getHeader("ETag");
+    assertNotNull(eTag);
+
+    // WHEN GET /files/my with the entity tag
+    mockMvc
+        .perform(get("/files/my").header("If-None-Match", eTag).with(csrf()).cookie(authCookie))
+
+        // THEN returns Not Modified, without body
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+
+    // WHEN a file is uploaded
+    mockMvc
+        .perform(
+            post("/files/upload")
+                .with(csrf())
+                .cookie(authCookie)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    """
+                {"filename":"new.png","contentType":"image/png", "size": 12, "expirationDays": 3}
+            """))
+        .andExpect(status().isOk());
+
+    // THEN the same conditional request gets the new history and a new entity tag
+    String newETag =
+        mockMvc
+            .perform(
+                get("/files/my").header("If-None-Match", eTag).with(csrf()).cookie(authCookie))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andReturn()
+            .getResponse()
+            .getHeader("ETag");
+    assertNotEquals(eTag, newETag);
+  }
 }
@@ -0,0 +1,139 @@
+package com.datashare.api.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.datashare.api.configuration.AccessLogProperties;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+/** Unit Test Set for the access log filter */
+@ExtendWith(MockitoExtension.class)
+public class AccessLogFilterTest {
+
+  private static final String DOWNLOAD = "/files/download/{tokenString}";
+
+  @Mock private AccessLogWriter writer;
+
+  private AccessLogProperties properties;
+
+  private AccessLogFilter filter;
+
+  @BeforeEach
+  void setUp() {
+    properties = new AccessLogProperties();
+    properties.setSampling(Map.of(DOWNLOAD, 0.0));
+    filter = new AccessLogFilter(writer, properties);
+  }
+
+  /** Test that a request is logged with its pattern, user, size and statements */
+  @Test
+  @DisplayName("UNIT-ACCESS-001: Entry submitted with pattern, user, bytes and statements")
+  void shouldSubmitEntry() throws Exception {
+
+    // GIVEN an authenticated request running a statement and writing a body
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/files/my");
+    StatementCounter inspector = new StatementCounter();
+
+    // WHEN the request goes through the filter
+    StatementCounter.start();
+    filter.doFilter(
+        request,
+        new MockHttpServletResponse(),
+        (req, res) -> {
+          req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/files/my");
+          req.setAttribute(AccessLogFilter.USER_ATTRIBUTE, 42L);
+          inspector.inspect("select 1");
+          res.getOutputStream().write("[]".getBytes(StandardCharsets.UTF_8));
+          res.getWriter().write("abc");
+        });
+    StatementCounter.stop();
+
+    // THEN the entry is handed to the writer
+    AccessLogEntry entry = submitted();
+    assertThat(entry.method()).isEqualTo("GET");
+    assertThat(entry.path()).isEqualTo("/files/my");
+    assertThat(entry.status()).isEqualTo(200);
+    assertThat(entry.userId()).isEqualTo(42L);
+    assertThat(entry.bytes()).isEqualTo(5);
+    assertThat(entry.statements()).isEqualTo(1);
+    assertThat(entry.payload()).isNull();
+    assertThat(entry.format()).contains("path=/files/my status=200", "user=42 db=1 s3=0");
+  }
+
+  /** Test that sampled endpoints are skipped unless the response is an error */
+  @Test
+  @DisplayName("UNIT-ACCESS-002: Sampled out success skipped, error always logged")
+  void shouldAlwaysLogErrors() throws Exception {
+
+    // GIVEN a download sampled at 0
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/files/download/abc");
+
+    // WHEN it succeeds
+    filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> download(req));
+
+    // THEN nothing is logged
+    verify(writer, never()).submit(any());
+
+    // WHEN it fails
+    filter.doFilter(
+        request,
+        new MockHttpServletResponse(),
+        (req, res) -> {
+          download(req);
+          ((HttpServletResponse) res).setStatus(404);
+        });
+
+    // THEN it is logged
+    assertThat(submitted().status()).isEqualTo(404);
+  }
+
+  /** Test that the request body is only captured for errors, and never for credentials */
+  @Test
+  @DisplayName("UNIT-ACCESS-003: Payload logged for error responses outside excluded paths")
+  void shouldCapturePayloadOfErrors() throws Exception {
+
+    // GIVEN payload capture enabled and a failing upload
+    properties.getPayload().setEnabled(true);
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/files/upload");
+    request.setContent("{\"fileName\":\"\"}".getBytes(StandardCharsets.UTF_8));
+
+    // WHEN the body is read and the response is a 400
+    filter.doFilter(
+        request,
+        new MockHttpServletResponse(),
+        (req, res) -> {
+          req.getInputStream().readAllBytes();
+          ((HttpServletResponse) res).setStatus(400);
+        });
+
+    // THEN the body is logged, escaped
+    AccessLogEntry entry = submitted();
+    assertThat(entry.payload()).isEqualTo("{\"fileName\":\"\"}");
+    assertThat(entry.format()).endsWith("payload=\"{\\\"fileName\\\":\\\"\\\"}\"");
+  }
+
+  private static void download(ServletRequest request) {
+    request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, DOWNLOAD);
+  }
+
+  private AccessLogEntry submitted() {
+    ArgumentCaptor<AccessLogEntry> entry = ArgumentCaptor.forClass(AccessLogEntry.class);
+    verify(writer).submit(entry.capture());
+    return entry.getValue();
+  }
+}
@@ -0,0 +1,86 @@
+package com.datashare.api.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Unit Test Set for the access log ring buffer */
+public class AccessLogRingTest {
+
+  /** Test that a full ring rejects offers until the consumer frees slots */
+  @Test
+  @DisplayName("UNIT-RING-001: Full ring drops offers, in order polling frees slots")
+  void shouldDropWhenFull() {
+
+    // GIVEN a ring of 4 slots, filled
+    AccessLogRing<Integer> ring = new AccessLogRing<>(4);
+    for (int i = 0; i < 4; i++) {
+      assertThat(ring.offer(i)).isTrue();
+    }
+
+    // WHEN offering more
+    // THEN the offer is dropped, until an element is polled
+    assertThat(ring.offer(4)).isFalse();
+    assertThat(ring.poll()).isZero();
+    assertThat(ring.offer(4)).isTrue();
+    List<Integer> polled = new ArrayList<>();
+    for (Integer element = ring.poll(); element != null; element = ring.poll()) {
+      polled.add(element);
+    }
+    assertThat(polled).containsExactly(1, 2, 3, 4);
+    assertThat(ring.size()).isZero();
+  }
+
+  /** Test that concurrent producers lose no element nor publish one twice */
+  @Test
+  @DisplayName("UNIT-RING-002: Concurrent producers, every accepted element polled once")
+  void shouldKeepEveryAcceptedElement() throws Exception {
+
+    // GIVEN 8 producers offering 10,000 elements each to a small ring
+    AccessLogRing<Integer> ring = new AccessLogRing<>(1024);
+    AtomicInteger accepted = new AtomicInteger();
+    Set<Integer> polled = new HashSet<>();
+    try (ExecutorService producers = Executors.newFixedThreadPool(8)) {
+      for (int p = 0; p < 8; p++) {
+        int producer = p;
+        producers.execute(
+            () -> {
+              for (int i = 0; i < 10_000; i++) {
+                if (ring.offer(producer * 10_000 + i)) {
+                  accepted.incrementAndGet();
+                }
+              }
+            });
+      }
+
+      // WHEN a single consumer polls meanwhile
+      producers.shutdown();
+      while (!producers.isTerminated() || ring.size() > 0) {
+        Integer element = ring.poll();
+        if (element != null) {
+          assertThat(polled.add(element)).as("polled twice: %d", element).isTrue();
+        }
+      }
+    }
+
+    // THEN every accepted element was polled
+    assertThat(polled).hasSize(accepted.get());
+  }
+
+  /** Test that the capacity must be a power of two */
+  @Test
+  @DisplayName("UNIT-RING-003: Capacity not a power of two rejected")
+  void shouldRejectInvalidCapacity() {
+    assertThatThrownBy(() -> new AccessLogRing<>(1000))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,109 @@
+package com.datashare.api.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.datashare.api.monitoring.DatashareMetrics.AuthOutcome;
+import com.datashare.api.monitoring.DatashareMetrics.LoginOutcome;
+import com.datashare.api.monitoring.DatashareMetrics.Presign;
+import com.datashare.api.monitoring.DatashareMetrics.TokenOutcome;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+/** Unit Test Set for the business metrics */
+public class DatashareMetricsTest {
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private DatashareMetrics metrics;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    metrics = new DatashareMetrics(meterRegistry);
+  }
+
+  /** Test that presign times are recorded by URL kind */
+  @Test
+  @DisplayName("UNIT-METRICS-001: Presign latency recorded per operation")
+  void shouldRecordPresignLatencyPerOperation() {
+
+    // WHEN an upload and two downloads are presigned
+    metrics.presign(Presign.UPLOAD, 2_000_000);
+    metrics.presign(Presign.DOWNLOAD, 1_000_000);
+    metrics.presign(Presign.DOWNLOAD, 3_000_000);
+
+    // THEN each kind has its own timer
+    Timer upload = meterRegistry.get("datashare.presign").tag("operation", "upload").timer();
+    Timer download = meterRegistry.get("datashare.presign").tag("operation", "download").timer();
+    assertThat(upload.count()).isEqualTo(1);
+    assertThat(download.count()).isEqualTo(2);
+    assertThat(download.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(4.0);
+  }
+
+  /** Test that outcomes are counted under their own tag */
+  @Test
+  @DisplayName("UNIT-METRICS-002: Token, login and authentication outcomes counted by tag")
+  void shouldCountOutcomesByTag() {
+
+    // WHEN recording outcomes
+    metrics.tokenResolution(TokenOutcome.HIT);
+    metrics.tokenResolution(TokenOutcome.EXPIRED);
+    metrics.login(LoginOutcome.BAD_PASSWORD);
+    metrics.authentication(AuthOutcome.REJECTED, 1_000);
+    metrics.s3Delete(false, 1_000);
+
+    // THEN each outcome is counted apart, zero counts included
+    assertThat(counter("datashare.tokens.resolutions", "hit")).isEqualTo(1);
+    assertThat(counter("datashare.tokens.resolutions", "expired")).isEqualTo(1);
+    assertThat(counter("datashare.tokens.resolutions", "unknown")).isZero();
+    assertThat(counter("datashare.auth.logins", "bad-password")).isEqualTo(1);
+    assertThat(counter("datashare.auth.logins", "unknown-email")).isZero();
+    assertThat(
+            meterRegistry.get("datashare.auth.filter").tag("outcome", "rejected").timer().count())
+        .isEqualTo(1);
+    assertThat(
+            meterRegistry.get("datashare.s3.deletes").tag("outcome", "failure").timer().count())
+        .isEqualTo(1);
+  }
+
+  /** Test that the statements of a request are recorded under its URI pattern */
+  @Test
+  @DisplayName("UNIT-METRICS-003: Statements per request recorded by URI pattern")
+  void shouldRecordStatementsPerRequest() throws Exception {
+
+    // GIVEN a request running two statements
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/files/my");
+    StatementCounter inspector = new StatementCounter();
+    StatementsPerRequestFilter filter = new StatementsPerRequestFilter(metrics);
+
+    // WHEN the request goes through the filter
+    filter.doFilter(
+        request,
+        new MockHttpServletResponse(),
+        (req, res) -> {
+          inspector.inspect("select 1");
+          inspector.inspect("select 2");
+          req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/files/my");
+        });
+
+    // THEN two statements are recorded, and none once the request is over
+    DistributionSummary statements =
+        meterRegistry.get("datashare.http.db.statements").tag("uri", "/files/my").summary();
+    assertThat(statements.count()).isEqualTo(1);
+    assertThat(statements.totalAmount()).isEqualTo(2.0);
+    inspector.inspect("select 3");
+    assertThat(StatementCounter.stop()).isZero();
+  }
+
+  private double counter(String name, String outcome) {
+    return meterRegistry.get(name).tag("outcome", outcome).counter().count();
+  }
+}
@@ -0,0 +1,260 @@
+package com.datashare.api.performance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.datashare.api.dto.PresignedUploadRequest;
+import com.datashare.api.dto.PresignedUploadResponse;
+import com.datashare.api.performance.LoadGenerator.Operation;
+import com.datashare.api.performance.LoadGenerator.Report;
+import com.datashare.api.performance.LoadGenerator.Slo;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Load test of the main endpoints, on the in-memory database and an in-process S3 stand-in.
+ *
+ * <p>A realistic mix of registrations, logins, uploads, listings, downloads and deletions arrives
+ * at a fixed rate ({@link LoadGenerator}), and the latency percentiles of every endpoint are
+ * checked against service level objectives. Excluded from the integration tests, run with {@code
+ * make benchmark-api}; the load is set with {@code -Dload.rate} (requests per second), {@code
+ * -Dload.warmup} and {@code -Dload.duration} (seconds), the objectives as described in {@link
+ * Slo#fromSystemProperties(Slo)}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class EndpointLoadIT {
+
+  private static final String PASSWORD = "Secur3#2024";
+  private static final int SESSIONS = 20;
+  private static final int FILES_PER_SESSION = 20;
+
+  /** Default objectives, overridden by the system properties */
+  private static final Slo DEFAULT_SLO =
+      new Slo(
+          Map.of(
+              "register", Duration.ofMillis(2_000),
+              "login", Duration.ofMillis(1_000),
+              "upload", Duration.ofMillis(300),
+              "list", Duration.ofMillis(300),
+              "download", Duration.ofMillis(300),
+              "delete", Duration.ofMillis(300)),
+          Map.of(),
+          0.001);
+
+  private static final S3StandIn S3 = startS3StandIn();
+
+  private static final JsonMapper MAPPER = new JsonMapper();
+
+  @LocalServerPort private int port;
+
+  private final HttpClient client =
+      HttpClient.newBuilder()
+          .version(HttpClient.Version.HTTP_1_1)
+          .connectTimeout(Duration.ofSeconds(5))
+          .executor(Executors.newVirtualThreadPerTaskExecutor())
+          .build();
+
+  private final AtomicLong registrations = new AtomicLong();
+
+  private final List<Session> sessions = new ArrayList<>();
+
+  /** Files downloaded by the mix, never deleted */
+  private final List<String> sharedTokens = new ArrayList<>();
+
+  @DynamicPropertySource
+  static void configureProperties(DynamicPropertyRegistry registry) {
+    registry.add("aws.s3.endpoint", S3::endpoint);
+  }
+
+  @AfterAll
+  static void stopS3StandIn() {
+    S3.close();
+  }
+
+  @BeforeEach
+  void setUp() throws Exception {
+    // Log in the users of the mix, each with files to delete
+    for (int i = 0; i < SESSIONS; i++) {
+      String email = nextEmail();
+      assertThat(register(email)).as("register %s", email).isEqualTo(201);
+      Session session = login(email);
+      assertThat(session).as("login %s", email).isNotNull();
+      session.files().addAll(upload(session, FILES_PER_SESSION));
+      sessions.add(session);
+    }
+    // Share the files to download
+    sharedTokens.addAll(upload(sessions.getFirst(), FILES_PER_SESSION));
+  }
+
+  /** Test that every endpoint meets its objectives under an open-model load */
+  @Test
+  @DisplayName("BENCH-LOAD-001: Endpoints meet their latency objectives at a fixed arrival rate")
+  void endpointsMeetObjectives() {
+
+    // GIVEN a realistic mix of operations arriving at a fixed rate
+    LoadGenerator generator =
+        new LoadGenerator(
+            Double.parseDouble(System.getProperty("load.rate", "100")),
+            List.of(
+                new Operation("register", 2, () -> register(nextEmail()) == 201),
+                new Operation("login", 8, () -> login(anySession().email()) != null),
+                new Operation("upload", 15, this::uploadOne),
+                new Operation("list", 30, this::listFiles),
+                new Operation("download", 40, this::downloadShared),
+                new Operation("delete", 5, this::deleteOne)));
+
+    // WHEN running it after a warmup
+    generator.run(Duration.ofSeconds(Long.getLong("load.warmup", 10)));
+    Report report = generator.run(Duration.ofSeconds(Long.getLong("load.duration", 30)));
+    System.out.println(report.table());
+
+    // THEN every endpoint meets its objectives
+    report.assertMeets(Slo.fromSystemProperties(DEFAULT_SLO));
+  }
+
+  private boolean uploadOne() throws Exception {
+    Session session = anySession();
+    HttpResponse<String> response = send(post(authenticated(session, "/files/upload"), pdf()));
+    if (response.statusCode() != 200) {
+      return false;
+    }
+    session
+        .files()
+        .add(MAPPER.readValue(response.body(), PresignedUploadResponse.class).getTokenString());
+    return true;
+  }
+
+  private boolean listFiles() throws Exception {
+    return send(authenticated(anySession(), "/files/my?limit=20").GET()).statusCode() == 200;
+  }
+
+  private boolean downloadShared() throws Exception {
+    String token = sharedTokens.get(ThreadLocalRandom.current().nextInt(sharedTokens.size()));
+    return send(request("/files/download/" + token).GET()).statusCode() == 200;
+  }
+
+  private boolean deleteOne() throws Exception {
+    Session session = anySession();
+    String token = session.files().pollFirst();
+    if (token == null) {
+      throw new IllegalStateException("No file left to delete");
+    }
+    return send(authenticated(session, "/files/my/" + token).DELETE()).statusCode() == 204;
+  }
+
+  private String nextEmail() {
+    return "load-" + registrations.incrementAndGet() + "@example.com";
+  }
+
+  /** Register a user, returning the response status */
+  private int register(String email) throws Exception {
+    return send(post(request("/auth/register"), credentials(email))).statusCode();
+  }
+
+  /** Log in a user, returning its session, or null if the login failed */
+  private Session login(String email) throws Exception {
+    HttpResponse<String> response = send(post(request("/auth/login"), credentials(email)));
+    if (response.statusCode() != 200) {
+      return null;
+    }
+    Map<String, String> cookies =
+        response.headers().allValues("Set-Cookie").stream()
+            .map(cookie -> cookie.substring(0, cookie.indexOf(';')))
+            .collect(
+                Collectors.toMap(
+                    cookie -> cookie.substring(0, cookie.indexOf('=')),
+                    cookie -> cookie.substring(cookie.indexOf('=') + 1),
+                    (first, second) -> second));
+    return new Session(
+        email,
+        "AUTH-TOKEN=" + cookies.get("AUTH-TOKEN") + "; XSRF-TOKEN=" + cookies.get("XSRF-TOKEN"),
+        cookies.get("XSRF-TOKEN"),
+        new ConcurrentLinkedDeque<>());
+  }
+
+  /** Get upload URLs for new files of a user, returning their download tokens */
+  private List<String> upload(Session session, int count) throws Exception {
+    List<PresignedUploadRequest> files = IntStream.range(0, count).mapToObj(i -> pdf()).toList();
+    HttpResponse<String> response =
+        send(post(authenticated(session, "/files/upload/batch"), files));
+    assertThat(response.statusCode()).as("upload").isEqualTo(200);
+    return MAPPER
+        .readValue(response.body(), new TypeReference<List<PresignedUploadResponse>>() {})
+        .stream()
+        .map(PresignedUploadResponse::getTokenString)
+        .toList();
+  }
+
+  private Session anySession() {
+    return sessions.get(ThreadLocalRandom.current().nextInt(sessions.size()));
+  }
+
+  private HttpRequest.Builder authenticated(Session session, String path) {
+    return request(path)
+        .header("Cookie", session.cookie())
+        .header("X-XSRF-TOKEN", session.csrfToken());
+  }
+
+  private HttpRequest.Builder request(String path) {
+    return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+        .timeout(Duration.ofSeconds(10));
+  }
+
+  private HttpResponse<String> send(HttpRequest.Builder request)
+      throws IOException, InterruptedException {
+    return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+  }
+
+  private static HttpRequest.Builder post(HttpRequest.Builder request, Object body) {
+    return request
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body)));
+  }
+
+  private static Map<String, String> credentials(String email) {
+    return Map.of("email", email, "password", PASSWORD);
+  }
+
+  private static PresignedUploadRequest pdf() {
+    return new PresignedUploadRequest("report.pdf", "application/pdf", 1_048_576, 7);
+  }
+
+  private static S3StandIn startS3StandIn() {
+    try {
+      return S3StandIn.start();
+    } catch (IOException e) {
+      throw new IllegalStateException("S3 stand-in failed to start", e);
+    }
+  }
+
+  /** A logged-in user of the mix, with the tokens of its files */
+  private record Session(String email, String cookie, String csrfToken, Deque<String> files) {}
+}
@@ -0,0 +1,263 @@
+package com.datashare.api.performance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.assertj.core.api.SoftAssertions;
+
+/**
+ * Open-model load generator.
+ *
+ * <p>Requests are started at a fixed arrival rate, whatever the response times, each on its own
+ * virtual thread. The latency of a request is measured from its intended start time rather than
+ * from when it was actually sent, so that a stalled server is charged for the requests it delayed
+ * (no coordinated omission). Latencies are recorded per endpoint in HdrHistograms, in
+ * microseconds.
+ */
+public class LoadGenerator {
+
+  /** A request of the mix */
+  @FunctionalInterface
+  public interface Call {
+
+    /**
+     * Send the request and wait for its response.
+     *
+     * @return true if the response is the expected one
+     */
+    boolean send() throws Exception;
+  }
+
+  /**
+   * An operation of the mix.
+   *
+   * @param endpoint the name under which the latencies are recorded
+   * @param weight the share of the arrivals, relative to the other operations
+   * @param call the request
+   */
+  public record Operation(String endpoint, int weight, Call call) {}
+
+  private final double rate;
+  private final List<Operation> operations;
+  private final int[] cumulativeWeights;
+
+  /**
+   * Create a load generator.
+   *
+   * @param rate the arrival rate, in requests per second
+   * @param operations the mix of operations
+   */
+  public LoadGenerator(double rate, List<Operation> operations) {
+    if (rate <= 0) {
+      throw new IllegalArgumentException("Arrival rate must be positive");
+    }
+    this.rate = rate;
+    this.operations = List.copyOf(operations);
+    this.cumulativeWeights = new int[operations.size()];
+    int total = 0;
+    for (int i = 0; i < operations.size(); i++) {
+      total += operations.get(i).weight();
+      cumulativeWeights[i] = total;
+    }
+  }
+
+  /**
+   * Run the mix for a duration, then wait for the requests in flight.
+   *
+   * @param duration the arrival period
+   * @return the latencies and errors of the run
+   */
+  public Report run(Duration duration) {
+    Map<String, Histogram> latencies = new LinkedHashMap<>();
+    Map<String, LongAdder> errors = new LinkedHashMap<>();
+    for (Operation operation : operations) {
+      latencies.putIfAbsent(operation.endpoint(), new ConcurrentHistogram(3));
+      errors.putIfAbsent(operation.endpoint(), new LongAdder());
+    }
+
+    long interval = (long) (1_000_000_000 / rate);
+    long arrivals = duration.toNanos() / interval;
+    long maxLag = 0;
+    long start = System.nanoTime();
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (long i = 0; i < arrivals; i++) {
+        long intended = start + i * interval;
+        long wait;
+        while ((wait = intended - System.nanoTime()) > 0) {
+          LockSupport.parkNanos(wait);
+        }
+        maxLag = Math.max(maxLag, System.nanoTime() - intended);
+
+        Operation operation = pick();
+        Histogram histogram = latencies.get(operation.endpoint());
+        LongAdder failures = errors.get(operation.endpoint());
+        executor.execute(
+            () -> {
+              boolean ok;
+              try {
+                ok = operation.call().send();
+              } catch (Exception e) {
+                ok = false;
+              }
+              histogram.recordValue((System.nanoTime() - intended) / 1_000);
+              if (!ok) {
+                failures.increment();
+              }
+            });
+      }
+    }
+
+    Map<String, Long> errorCounts = new LinkedHashMap<>();
+    errors.forEach((endpoint, count) -> errorCounts.put(endpoint, count.sum()));
+    return new Report(duration, latencies, errorCounts, Duration.ofNanos(maxLag));
+  }
+
+  /** Pick an operation at random, according to the weights */
+  private Operation pick() {
+    int draw =
+        ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+    int index = Arrays.binarySearch(cumulativeWeights, draw + 1);
+    return operations.get(index >= 0 ? index : -index - 1);
+  }
+
+  /**
+   * Latencies and errors of a run.
+   *
+   * @param duration the arrival period
+   * @param latencies the latencies per endpoint, in microseconds
+   * @param errors the number of failed requests per endpoint
+   * @param maxScheduleLag the largest delay of an arrival, on the generator side
+   */
+  public record Report(
+      Duration duration,
+      Map<String, Histogram> latencies,
+      Map<String, Long> errors,
+      Duration maxScheduleLag) {
+
+    /**
+     * Format the report as a table, one line per endpoint.
+     *
+     * @return the table
+     */
+    public String table() {
+      StringBuilder table =
+          new StringBuilder(
+              String.format(
+                  "%n%-10s %8s %8s %10s %10s %10s %10s %8s%n",
+                  "endpoint",
+                  "count",
+                  "req/s",
+                  "p50 (ms)",
+                  "p99 (ms)",
+                  "p99.9 (ms)",
+                  "max (ms)",
+                  "errors"));
+      latencies.forEach(
+          (endpoint, histogram) ->
+              table.append(
+                  String.format(
+                      "%-10s %8d %8.1f %10.1f %10.1f %10.1f %10.1f %8d%n",
+                      endpoint,
+                      histogram.getTotalCount(),
+                      histogram.getTotalCount() / (duration.toMillis() / 1000.0),
+                      millis(histogram, 50),
+                      millis(histogram, 99),
+                      millis(histogram, 99.9),
+                      histogram.getMaxValue() / 1000.0,
+                      errors.get(endpoint))));
+      table.append(String.format("max schedule lag: %d ms%n", maxScheduleLag.toMillis()));
+      return table.toString();
+    }
+
+    /**
+     * Check the report against service level objectives, reporting every violation at once.
+     *
+     * @param slo the objectives
+     */
+    public void assertMeets(Slo slo) {
+      SoftAssertions softly = new SoftAssertions();
+      latencies.forEach(
+          (endpoint, histogram) -> {
+            long count = histogram.getTotalCount();
+            double errorRate = count == 0 ? 0 : (double) errors.get(endpoint) / count;
+            softly
+                .assertThat(errorRate)
+                .as("%s error rate", endpoint)
+                .isLessThanOrEqualTo(slo.maxErrorRate());
+            Duration p99 = slo.p99().get(endpoint);
+            if (p99 != null) {
+              softly
+                  .assertThat(millis(histogram, 99))
+                  .as("%s p99 (ms)", endpoint)
+                  .isLessThanOrEqualTo((double) p99.toMillis());
+            }
+            Duration p999 = slo.p999().get(endpoint);
+            if (p999 != null) {
+              softly
+                  .assertThat(millis(histogram, 99.9))
+                  .as("%s p99.9 (ms)", endpoint)
+                  .isLessThanOrEqualTo((double) p999.toMillis());
+            }
+          });
+      softly.assertAll();
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+      return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+  }
+
+  /**
+   * Service level objectives of a load test.
+   *
+   * @param p99 the maximum p99 latency per endpoint, endpoints without objective are not checked
+   * @param p999 the maximum p99.9 latency per endpoint
+   * @param maxErrorRate the maximum share of failed requests of every endpoint
+   */
+  public record Slo(Map<String, Duration> p99, Map<String, Duration> p999, double maxErrorRate) {
+
+    /**
+     * Read objectives from system properties, falling back to defaults.
+     *
+     * <p>Latencies are given per endpoint in milliseconds, e.g. {@code
+     * -Dload.slo.p99=login=500,list=100}, and the error rate as a fraction, e.g. {@code
+     * -Dload.slo.error-rate=0.01}.
+     *
+     * @param defaults the objectives of the properties which are not set
+     * @return the objectives
+     */
+    public static Slo fromSystemProperties(Slo defaults) {
+      String errorRate = System.getProperty("load.slo.error-rate");
+      return new Slo(
+          latencies(System.getProperty("load.slo.p99"), defaults.p99()),
+          latencies(System.getProperty("load.slo.p999"), defaults.p999()),
+          errorRate != null ? Double.parseDouble(errorRate) : defaults.maxErrorRate());
+    }
+
+    private static Map<String, Duration> latencies(
+        String property, Map<String, Duration> defaults) {
+      if (property == null || property.isBlank()) {
+        return defaults;
+      }
+      Map<String, Duration> latencies = new LinkedHashMap<>(defaults);
+      for (String objective : property.split(",")) {
+        String[] parts = objective.split("=");
+        assertThat(parts).as("SLO %s, expected endpoint=millis", objective).hasSize(2);
+        latencies.put(parts[0].trim(), Duration.ofMillis(Long.parseLong(parts[1].trim())));
+      }
+      return latencies;
+    }
+  }
+}
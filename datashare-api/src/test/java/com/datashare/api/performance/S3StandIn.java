@@ -0,0 +1,61 @@
+package com.datashare.api.performance;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executors;
+
+/**
+ * In-process stand-in of the S3 endpoint, for load tests.
+ *
+ * <p>Acknowledges every request without storing anything ({@code 204} for a delete, {@code 200}
+ * otherwise), so that the S3 calls of the application cost a local round trip instead of failing
+ * or timing out. Presigned URLs are signed locally and never reach it.
+ */
+public class S3StandIn implements AutoCloseable {
+
+  private final HttpServer server;
+
+  private S3StandIn(HttpServer server) {
+    this.server = server;
+  }
+
+  /**
+   * Start a stand-in on a free local port.
+   *
+   * @return the started stand-in
+   */
+  public static S3StandIn start() throws IOException {
+    HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    server.createContext("/", S3StandIn::acknowledge);
+    server.start();
+    return new S3StandIn(server);
+  }
+
+  /**
+   * Get the endpoint to configure as {@code aws.s3.endpoint}.
+   *
+   * @return the stand-in URL
+   */
+  public String endpoint() {
+    return "http://localhost:" + server.getAddress().getPort();
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+  }
+
+  private static void acknowledge(HttpExchange exchange) throws IOException {
+    try (exchange;
+        InputStream body = exchange.getRequestBody()) {
+      body.transferTo(OutputStream.nullOutputStream());
+      int status = "DELETE".equals(exchange.getRequestMethod()) ? 204 : 200;
+      exchange.sendResponseHeaders(status, -1);
+    }
+  }
+}
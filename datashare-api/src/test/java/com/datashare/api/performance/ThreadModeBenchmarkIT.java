@@ -0,0 +1,224 @@
+package com.datashare.api.performance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.datashare.api.DatashareApiApplication;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+/**
+ * Benchmark of the platform threads mode (Tomcat pool) against the virtual threads mode.
+ *
+ * <p>Both modes serve the same blocking endpoint to {@value #CLIENTS} concurrent clients: a
+ * database query followed by a {@value #REMOTE_LATENCY_MS} ms blocking call standing for an S3
+ * round trip. Excluded from the integration tests, run with {@code make benchmark-api}.
+ *
+ * <p>The comparison depends on the hardware, so it is only reported. It is checked on demand with
+ * {@code -Dbench.threads.check=true}: the virtual threads must then reach {@code
+ * bench.threads.min-speedup} (default {@value #DEFAULT_MIN_SPEEDUP}) times the platform throughput,
+ * with a lower p99.
+ */
+@Tag("benchmark")
+public class ThreadModeBenchmarkIT {
+
+  private static final int CLIENTS = 1_000;
+  private static final long REMOTE_LATENCY_MS = 20;
+  private static final Duration WARMUP = Duration.ofSeconds(5);
+  private static final Duration MEASUREMENT = Duration.ofSeconds(15);
+  private static final String PASSWORD = "Secur3#2024";
+  private static final double DEFAULT_MIN_SPEEDUP = 1.2;
+
+  /** Test that virtual threads lift the concurrency ceiling of the Tomcat pool */
+  @Test
+  @DisplayName("BENCH-THREADS-001: Platform versus virtual threads at 1000 concurrent clients")
+  public void compareThreadModes() throws Exception {
+
+    // WHEN running the same load in both modes
+    Result platform = run(false);
+    Result virtual = run(true);
+
+    System.out.printf(
+        "%n%-10s %12s %10s %10s %8s%n", "mode", "requests/s", "p50 (ms)", "p99 (ms)", "errors");
+    System.out.println(platform);
+    System.out.println(virtual);
+    double speedup = virtual.throughput() / platform.throughput();
+    System.out.printf(
+        "virtual/platform: throughput x%.2f, p99 x%.2f%n", speedup, virtual.p99() / platform.p99());
+
+    // THEN no request failed
+    assertThat(platform.errors()).isZero();
+    assertThat(virtual.errors()).isZero();
+
+    // AND, on demand, the virtual threads are not bound by the Tomcat pool
+    if (Boolean.getBoolean("bench.threads.check")) {
+      double minSpeedup =
+          Double.parseDouble(
+              System.getProperty("bench.threads.min-speedup", String.valueOf(DEFAULT_MIN_SPEEDUP)));
+      assertThat(speedup).as("throughput speedup").isGreaterThanOrEqualTo(minSpeedup);
+      assertThat(virtual.p99()).as("virtual p99").isLessThan(platform.p99());
+    }
+  }
+
+  /** Start the application in a threads mode and load it with concurrent clients */
+  private Result run(boolean virtualThreads) throws Exception {
+    try (ConfigurableApplicationContext context =
+        new SpringApplicationBuilder(DatashareApiApplication.class)
+            .profiles("test")
+            .properties(
+                "server.port=0",
+                "spring.docker.compose.enabled=false",
+                "spring.threads.virtual.enabled=" + virtualThreads)
+            .initializers(ThreadModeBenchmarkIT::registerBlockingEndpoint)
+            .run()) {
+
+      int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+      HttpClient client =
+          HttpClient.newBuilder()
+              .version(HttpClient.Version.HTTP_1_1)
+              .executor(Executors.newVirtualThreadPerTaskExecutor())
+              .build();
+      String cookie = login(client, port);
+      HttpRequest request =
+          HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/bench/blocking"))
+              .header("Cookie", cookie)
+              .build();
+
+      load(client, request, WARMUP);
+      return Result.of(virtualThreads ? "virtual" : "platform", load(client, request, MEASUREMENT));
+    }
+  }
+
+  /** Send requests in a closed loop from every client, returning the latencies and errors */
+  private static Samples load(HttpClient client, HttpRequest request, Duration duration)
+      throws Exception {
+    long deadline = System.nanoTime() + duration.toNanos();
+    AtomicLong errors = new AtomicLong();
+    List<Future<long[]>> clients = new ArrayList<>();
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < CLIENTS; i++) {
+        clients.add(
+            executor.submit(
+                () -> {
+                  long[] latencies = new long[1024];
+                  int count = 0;
+                  while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                      HttpResponse<Void> response =
+                          client.send(request, HttpResponse.BodyHandlers.discarding());
+                      if (response.statusCode() != 200) {
+                        errors.incrementAndGet();
+                      }
+                    } catch (Exception e) {
+                      errors.incrementAndGet();
+                    }
+                    if (count == latencies.length) {
+                      latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = System.nanoTime() - start;
+                  }
+                  return Arrays.copyOf(latencies, count);
+                }));
+      }
+
+      List<long[]> all = new ArrayList<>();
+      for (Future<long[]> future : clients) {
+        all.add(future.get());
+      }
+      long[] latencies = all.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+      return new Samples(latencies, errors.get(), duration);
+    }
+  }
+
+  /** Register and log in the benchmark user, returning its authentication cookie */
+  private static String login(HttpClient client, int port) throws Exception {
+    String credentials = "{\"email\":\"bench@example.com\",\"password\":\"" + PASSWORD + "\"}";
+    for (String path : List.of("/auth/register", "/auth/login")) {
+      HttpResponse<Void> response =
+          client.send(
+              HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                  .header("Content-Type", "application/json")
+                  .POST(HttpRequest.BodyPublishers.ofString(credentials))
+                  .build(),
+              HttpResponse.BodyHandlers.discarding());
+      if (path.endsWith("login")) {
+        return response.headers().allValues("Set-Cookie").stream()
+            .filter(cookie -> cookie.startsWith("AUTH-TOKEN="))
+            .map(cookie -> cookie.substring(0, cookie.indexOf(';')))
+            .findFirst()
+            .orElseThrow();
+      }
+    }
+    throw new IllegalStateException("Login failed");
+  }
+
+  /**
+   * Register the benchmark endpoint as a router function, so that it is not picked up by the
+   * component scan of the other tests
+   */
+  private static void registerBlockingEndpoint(ConfigurableApplicationContext context) {
+    ((GenericApplicationContext) context)
+        .registerBean(
+            "blockingEndpoint",
+            RouterFunction.class,
+            () ->
+                RouterFunctions.route()
+                    .GET(
+                        "/bench/blocking",
+                        request -> {
+                          JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+                          Long files =
+                              jdbcTemplate.queryForObject("SELECT COUNT(*) FROM files", Long.class);
+                          Thread.sleep(REMOTE_LATENCY_MS);
+                          return ServerResponse.ok().body(files);
+                        })
+                    .build());
+  }
+
+  /** Latencies, in nanoseconds and sorted, and errors of a load */
+  private record Samples(long[] latencies, long errors, Duration duration) {}
+
+  /** Throughput and latency percentiles of a threads mode */
+  private record Result(String mode, double throughput, double p50, double p99, long errors) {
+
+    static Result of(String mode, Samples samples) {
+      long[] latencies = samples.latencies();
+      return new Result(
+          mode,
+          latencies.length / (samples.duration().toMillis() / 1000.0),
+          percentile(latencies, 0.50),
+          percentile(latencies, 0.99),
+          samples.errors());
+    }
+
+    static double percentile(long[] sorted, double quantile) {
+      return sorted[(int) Math.ceil(quantile * sorted.length) - 1] / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%-10s %12.0f %10.1f %10.1f %8d", mode, throughput, p50, p99, errors);
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package com.datashare.api.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.datashare.api.handler.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/** BoundedPasswordEncoder Unit Test Set */
+public class BoundedPasswordEncoderTest {
+
+  private final CountDownLatch started = new CountDownLatch(1);
+
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private BoundedPasswordEncoder encoder;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    encoder =
+        new BoundedPasswordEncoder(
+            new BlockingEncoder(), 1, 1, Duration.ofSeconds(2), meterRegistry);
+  }
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    encoder.close();
+  }
+
+  /** Test that hashes are computed by the delegate */
+  @Test
+  @DisplayName("UNIT-HASH-001: Hashes delegated and timed")
+  void shouldDelegateHashes() {
+
+    // GIVEN a delegate which does not block
+    release.countDown();
+
+    // WHEN encoding and matching a password
+    String hash = encoder.encode("password");
+    boolean matches = encoder.matches("password", hash);
+
+    // THEN the delegate results are returned and the hashes timed
+    assertThat(hash).isEqualTo("hash:password");
+    assertThat(matches).isTrue();
+    assertThat(
+            meterRegistry.get("datashare.auth.hashing").tag("operation", "encode").timer().count())
+        .isEqualTo(1);
+    assertThat(
+            meterRegistry.get("datashare.auth.hashing").tag("operation", "matches").timer().count())
+        .isEqualTo(1);
+  }
+
+  /** Test that hashes beyond the threads and the queue are rejected */
+  @Test
+  @DisplayName("UNIT-HASH-002: Hash rejected with a retry delay when the queue is full")
+  void shouldRejectHashWhenQueueIsFull() throws Exception {
+
+    // GIVEN a running hash and a queued one
+    CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+    while (meterRegistry.get("datashare.auth.hashing.queue").gauge().value() < 1) {
+      Thread.onSpinWait();
+    }
+
+    // WHEN a third hash is requested
+    // THEN it is rejected at once, with the retry delay
+    assertThatThrownBy(() -> encoder.matches("c", "hash:c"))
+        .isInstanceOf(TooManyRequestsException.class)
+        .extracting(e -> ((TooManyRequestsException) e).getRetryAfter())
+        .isEqualTo(Duration.ofSeconds(2));
+    assertThat(meterRegistry.get("datashare.auth.hashing.rejected").counter().count())
+        .isEqualTo(1);
+
+    // AND the accepted hashes complete once the pool is released
+    release.countDown();
+    assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hash:a");
+    assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hash:b");
+  }
+
+  /** Delegate hashing once released */
+  private class BlockingEncoder implements PasswordEncoder {
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return "hash:" + rawPassword;
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+      return encode(rawPassword).equals(encodedPassword);
+    }
+  }
+}
@@ -0,0 +1,117 @@
+package com.datashare.api.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datashare.api.configuration.CacheConfig;
+import com.datashare.api.entities.User;
+import com.datashare.api.repository.UserRepository;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+/** Unit Test Set for the cached user details resolution */
+@SpringJUnitConfig(classes = {CacheConfig.class, CustomUserDetailService.class})
+public class CustomUserDetailServiceTest {
+
+  private static final String EMAIL = "cached@example.com";
+
+  @MockitoBean private UserRepository userRepository;
+
+  @Autowired private CustomUserDetailService customUserDetailService;
+
+  @Autowired private CacheManager cacheManager;
+
+  @BeforeEach
+  void setUp() {
+    cacheManager.getCache(CacheConfig.USERS).clear();
+  }
+
+  /** Test that a resolved user is served from the cache on the next request */
+  @Test
+  @DisplayName("UNIT-USER-CACHE-001: Repeated lookups hit the database once")
+  void shouldServeRepeatedLookupsFromCache() {
+
+    // GIVEN an existing user
+    User user = new User(1L, EMAIL, "hashedPassword", null);
+    when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+
+    // WHEN loading the principal twice
+    UserPrincipal first = customUserDetailService.loadPrincipal(EMAIL);
+    UserPrincipal second = customUserDetailService.loadPrincipal(EMAIL);
+
+    // THEN the same principal is returned and the repository is queried once
+    assertThat(first.getId()).isEqualTo(1L);
+    assertThat(first.getUsername()).isEqualTo(EMAIL);
+    assertThat(second).isSameAs(first);
+    verify(userRepository, times(1)).findByEmail(EMAIL);
+  }
+
+  /** Test that an evicted user is reloaded from the database */
+  @Test
+  @DisplayName("UNIT-USER-CACHE-002: Evicted user is reloaded")
+  void shouldReloadEvictedUser() {
+
+    // GIVEN a cached user
+    User user = new User(2L, EMAIL, "hashedPassword", null);
+    when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+    customUserDetailService.loadPrincipal(EMAIL);
+
+    // WHEN the user is evicted and loaded again
+    customUserDetailService.evictPrincipal(EMAIL);
+    customUserDetailService.loadPrincipal(EMAIL);
+
+    // THEN the repository is queried again
+    verify(userRepository, times(2)).findByEmail(EMAIL);
+  }
+
+  /** Test that unknown users are not cached */
+  @Test
+  @DisplayName("UNIT-USER-CACHE-003: Unknown users are not cached")
+  void shouldNotCacheUnknownUser() {
+
+    // GIVEN an unknown user
+    when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.empty());
+
+    // WHEN loading the user twice
+    assertThrows(
+        UsernameNotFoundException.class, () -> customUserDetailService.loadPrincipal(EMAIL));
+    assertThrows(
+        UsernameNotFoundException.class, () -> customUserDetailService.loadPrincipal(EMAIL));
+
+    // THEN the repository is queried each time
+    verify(userRepository, times(2)).findByEmail(EMAIL);
+    assertThat(cacheManager.getCache(CacheConfig.USERS).get(EMAIL)).isNull();
+  }
+
+  /** Test that the cached principal carries no password, unlike the user checking credentials */
+  @Test
+  @DisplayName("UNIT-USER-CACHE-004: Cached principal without password hash")
+  void shouldCachePrincipalWithoutPassword() {
+
+    // GIVEN an existing user
+    User user = new User(3L, EMAIL, "hashedPassword", null);
+    when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+
+    // WHEN loading the principal, then the user details
+    customUserDetailService.loadPrincipal(EMAIL);
+    UserDetails details = customUserDetailService.loadUserByUsername(EMAIL);
+
+    // THEN only the user details carry the password, and they are not cached
+    Object cached = cacheManager.getCache(CacheConfig.USERS).get(EMAIL).get();
+    assertThat(cached).isInstanceOf(ClaimsPrincipal.class);
+    assertThat(((UserPrincipal) cached).getPassword()).isNull();
+    assertThat(details.getPassword()).isEqualTo("hashedPassword");
+    verify(userRepository, times(2)).findByEmail(EMAIL);
+  }
+}
@@ -1,17 +1,23 @@
 package com.datashare.api.security;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.datashare.api.entities.User;
+import com.datashare.api.monitoring.DatashareMetrics;
+import com.datashare.api.monitoring.DatashareMetrics.AuthOutcome;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
 import java.io.IOException;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -21,8 +27,10 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.util.ReflectionTestUtils;
 
 /** Unit Test Set for JWT Authentication Filter */
 @ExtendWith(MockitoExtension.class)
@@ -30,16 +38,19 @@ public class JwtAuthenticationFilterTest {
 
   @Mock private JwtService jwtService;
 
-  @Mock private UserDetailsService userDetailsService;
+  @Mock private CustomUserDetailService userDetailsService;
 
   @Mock private FilterChain filterChain;
 
+  @Mock private DatashareMetrics metrics;
+
   @InjectMocks private JwtAuthenticationFilter jwtAuthenticationFilter;
 
   private MockHttpServletRequest request;
   private MockHttpServletResponse response;
   private User testUser;
   private String validToken;
+  private Jwt decodedToken;
 
   @BeforeEach
   void setUp() {
@@ -53,6 +64,7 @@ public class JwtAuthenticationFilterTest {
     testUser = new User(1L, "test@example.com", "hashedPassword", null);
 
     validToken = "valid.jwt.token";
+    decodedToken = mock(Jwt.class);
   }
 
   /** Test that with a valid token, the context is authenticated */
@@ -64,9 +76,10 @@ public class JwtAuthenticationFilterTest {
     Cookie authCookie = new Cookie("AUTH-TOKEN", validToken);
     request.setCookies(authCookie);
 
-    when(jwtService.extractUsername(validToken)).thenReturn(testUser.getEmail());
-    when(userDetailsService.loadUserByUsername(testUser.getEmail())).thenReturn(testUser);
-    when(jwtService.isTokenValid(validToken, testUser)).thenReturn(true);
+    when(jwtService.decode(validToken)).thenReturn(decodedToken);
+    when(jwtService.extractUsername(decodedToken)).thenReturn(testUser.getEmail());
+    when(userDetailsService.loadPrincipal(testUser.getEmail())).thenReturn(testUser);
+    when(jwtService.isTokenValid(decodedToken, testUser)).thenReturn(true);
 
     // WHEN filter
     jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -77,9 +90,11 @@ public class JwtAuthenticationFilterTest {
         .isEqualTo(testUser);
     assertThat(SecurityContextHolder.getContext().getAuthentication().isAuthenticated()).isTrue();
     verify(filterChain, times(1)).doFilter(request, response);
-    verify(jwtService, times(1)).extractUsername(validToken);
-    verify(userDetailsService, times(1)).loadUserByUsername(testUser.getEmail());
-    verify(jwtService, times(1)).isTokenValid(validToken, testUser);
+    verify(jwtService, times(1)).decode(validToken);
+    verify(jwtService, times(1)).extractUsername(decodedToken);
+    verify(userDetailsService, times(1)).loadPrincipal(testUser.getEmail());
+    verify(jwtService, times(1)).isTokenValid(decodedToken, testUser);
+    verify(metrics).authentication(eq(AuthOutcome.AUTHENTICATED), anyLong());
   }
 
   /** Test that without AUTH token the context is ignored */
@@ -96,8 +111,8 @@ public class JwtAuthenticationFilterTest {
     assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
 
     verify(filterChain, times(1)).doFilter(request, response);
-    verify(jwtService, never()).extractUsername(anyString());
-    verify(userDetailsService, never()).loadUserByUsername(anyString());
+    verify(jwtService, never()).decode(anyString());
+    verify(userDetailsService, never()).loadPrincipal(anyString());
   }
 
   /** Test that the context is rejected if isTokenValid returns false */
@@ -111,9 +126,10 @@ public class JwtAuthenticationFilterTest {
     request.setCookies(authCookie);
 
     // AND the isTokenValid return false
-    when(jwtService.extractUsername(validToken)).thenReturn(testUser.getEmail());
-    when(userDetailsService.loadUserByUsername(testUser.getEmail())).thenReturn(testUser);
-    when(jwtService.isTokenValid(validToken, testUser)).thenReturn(false);
+    when(jwtService.decode(validToken)).thenReturn(decodedToken);
+    when(jwtService.extractUsername(decodedToken)).thenReturn(testUser.getEmail());
+    when(userDetailsService.loadPrincipal(testUser.getEmail())).thenReturn(testUser);
+    when(jwtService.isTokenValid(decodedToken, testUser)).thenReturn(false);
 
     // WHEN filter
     jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -121,7 +137,7 @@ public class JwtAuthenticationFilterTest {
     // THEN the context is not authenticated
     assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
     verify(filterChain, times(1)).doFilter(request, response);
-    verify(jwtService, times(1)).isTokenValid(validToken, testUser);
+    verify(jwtService, times(1)).isTokenValid(decodedToken, testUser);
   }
 
   /** Test that the filter can handle inexisting user */
@@ -134,8 +150,9 @@ public class JwtAuthenticationFilterTest {
     request.setCookies(authCookie);
 
     // AND an inexisting user
-    when(jwtService.extractUsername(validToken)).thenReturn("nonexistent@example.com");
-    when(userDetailsService.loadUserByUsername("nonexistent@example.com"))
+    when(jwtService.decode(validToken)).thenReturn(decodedToken);
+    when(jwtService.extractUsername(decodedToken)).thenReturn("nonexistent@example.com");
+    when(userDetailsService.loadPrincipal("nonexistent@example.com"))
         .thenThrow(
             new org.springframework.security.core.userdetails.UsernameNotFoundException(
                 "User not found"));
@@ -159,9 +176,10 @@ public class JwtAuthenticationFilterTest {
     Cookie csrfCookie = new Cookie("XSRF-TOKEN", "csrf-value");
     request.setCookies(sessionCookie, authCookie, csrfCookie);
 
-    when(jwtService.extractUsername(validToken)).thenReturn(testUser.getEmail());
-    when(userDetailsService.loadUserByUsername(testUser.getEmail())).thenReturn(testUser);
-    when(jwtService.isTokenValid(validToken, testUser)).thenReturn(true);
+    when(jwtService.decode(validToken)).thenReturn(decodedToken);
+    when(jwtService.extractUsername(decodedToken)).thenReturn(testUser.getEmail());
+    when(userDetailsService.loadPrincipal(testUser.getEmail())).thenReturn(testUser);
+    when(jwtService.isTokenValid(decodedToken, testUser)).thenReturn(true);
 
     // WHEN filter
     jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -170,4 +188,30 @@ public class JwtAuthenticationFilterTest {
     assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
     verify(filterChain, times(1)).doFilter(request, response);
   }
+
+  /** Test that the stateless mode authenticates from the token claims alone */
+  @Test
+  @DisplayName("UNIT-JWT-FILTER-006: Should authenticate from claims without loading the user")
+  void testStatelessAuthentication() throws ServletException, IOException {
+
+    // GIVEN the stateless mode and a token carrying the identity claims
+    ReflectionTestUtils.setField(jwtAuthenticationFilter, "stateless", true);
+    request.setCookies(new Cookie("AUTH-TOKEN", validToken));
+    ClaimsPrincipal principal =
+        new ClaimsPrincipal(1L, testUser.getEmail(), List.of(new SimpleGrantedAuthority("USER")));
+
+    when(jwtService.decode(validToken)).thenReturn(decodedToken);
+    when(jwtService.extractUsername(decodedToken)).thenReturn(testUser.getEmail());
+    when(jwtService.toPrincipal(decodedToken)).thenReturn(principal);
+    when(jwtService.isTokenValid(decodedToken, principal)).thenReturn(true);
+
+    // WHEN filter
+    jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+    // THEN authenticated with the claims principal and no user lookup
+    assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal())
+        .isEqualTo(principal);
+    verify(userDetailsService, never()).loadPrincipal(anyString());
+    verify(filterChain, times(1)).doFilter(request, response);
+  }
 }
@@ -7,19 +7,28 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.datashare.api.configuration.CacheConfig;
+import com.datashare.api.configuration.CacheProperties;
+import com.datashare.api.entities.User;
 import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
 import org.springframework.security.oauth2.jwt.JwtException;
 
 /**
@@ -260,4 +269,126 @@ public class JwtServiceTest {
 
     assertTrue(jwtService.isTokenExpired("invalid"));
   }
+
+  /** Test that a verified token is decoded only once */
+  @Test
+  @DisplayName("UNIT-JWT-014: Should verify a token only once while it is valid")
+  void decode_shouldVerifySignatureOnce() {
+
+    // GIVEN a service with a verified-token cache
+    JwtService cachedService = cachedJwtService();
+    Jwt jwt = mock(Jwt.class);
+    when(jwt.getExpiresAt()).thenReturn(Instant.now().plusSeconds(3600));
+    when(jwt.getSubject()).thenReturn(EMAIL);
+    when(jwtDecoder.decode("valid")).thenReturn(jwt);
+
+    // WHEN querying the same token several times
+    String subject = cachedService.extractUsername("valid");
+    boolean isValid = cachedService.isTokenValid("valid", testUser);
+    boolean isExpired = cachedService.isTokenExpired("valid");
+
+    // THEN the signature is verified once
+    assertThat(subject).isEqualTo(EMAIL);
+    assertTrue(isValid);
+    assertFalse(isExpired);
+    verify(jwtDecoder, times(1)).decode("valid");
+  }
+
+  /** Test that an expired token is never served from the cache */
+  @Test
+  @DisplayName("UNIT-JWT-015: Should not cache an expired token")
+  void decode_shouldNotCacheExpiredToken() {
+
+    // GIVEN a service with a verified-token cache and an expired token
+    JwtService cachedService = cachedJwtService();
+    Jwt jwt = mock(Jwt.class);
+    when(jwt.getExpiresAt()).thenReturn(Instant.now().minusSeconds(10));
+    when(jwtDecoder.decode("expired")).thenReturn(jwt);
+
+    // WHEN decoding the token twice
+    cachedService.decode("expired");
+    cachedService.decode("expired");
+
+    // THEN the token is verified each time
+    verify(jwtDecoder, times(2)).decode("expired");
+  }
+
+  /** Test that an invalid token is not cached */
+  @Test
+  @DisplayName("UNIT-JWT-016: Should not cache an invalid token")
+  void decode_shouldNotCacheInvalidToken() {
+
+    // GIVEN a service with a verified-token cache and an invalid token
+    JwtService cachedService = cachedJwtService();
+    when(jwtDecoder.decode("invalid")).thenThrow(new JwtException("bad token"));
+
+    // WHEN decoding the token twice THEN it is rejected each time
+    assertNull(cachedService.decode("invalid"));
+    assertNull(cachedService.decode("invalid"));
+    verify(jwtDecoder, times(2)).decode("invalid");
+  }
+
+  /** Test that the user id and roles are carried by the generated token */
+  @Test
+  @DisplayName("UNIT-JWT-017: Should add the uid and roles claims to the token")
+  void generateToken_shouldAddIdentityClaims() {
+
+    // GIVEN a persisted user
+    User user = new User(42L, EMAIL, PASSWORD, null);
+    when(jwt.getTokenValue()).thenReturn(TOKEN);
+    when(jwtEncoder.encode(any())).thenReturn(jwt);
+
+    // WHEN generating a token
+    jwtService.generateToken(user);
+
+    // THEN the claims identify the user
+    ArgumentCaptor<JwtEncoderParameters> captor =
+        ArgumentCaptor.forClass(JwtEncoderParameters.class);
+    verify(jwtEncoder).encode(captor.capture());
+    Map<String, Object> claims = captor.getValue().getClaims().getClaims();
+    assertThat(claims.get(JwtService.UID_CLAIM)).isEqualTo(42L);
+    assertThat(claims.get(JwtService.ROLES_CLAIM)).isEqualTo(List.of("ROLE_USER"));
+  }
+
+  /** Test that a principal is rebuilt from the token claims */
+  @Test
+  @DisplayName("UNIT-JWT-018: Should build the principal from the token claims")
+  void toPrincipal_shouldUseClaims() {
+
+    // GIVEN a token carrying the identity claims
+    when(jwt.getSubject()).thenReturn(EMAIL);
+    when(jwt.getClaims())
+        .thenReturn(Map.of(JwtService.UID_CLAIM, 42L, JwtService.ROLES_CLAIM, List.of("USER")));
+
+    // WHEN building the principal
+    ClaimsPrincipal principal = jwtService.toPrincipal(jwt);
+
+    // THEN it matches the claims
+    assertThat(principal.getId()).isEqualTo(42L);
+    assertThat(principal.getUsername()).isEqualTo(EMAIL);
+    assertThat(principal.getAuthorities()).extracting("authority").containsExactly("USER");
+  }
+
+  /** Test that tokens without a uid claim have no claims-only principal */
+  @Test
+  @DisplayName("UNIT-JWT-019: Should return null principal when the uid claim is missing")
+  void toPrincipal_shouldReturnNullWithoutUid() {
+
+    // GIVEN a token issued before the uid claim existed
+    when(jwt.getSubject()).thenReturn(EMAIL);
+    when(jwt.getClaims()).thenReturn(Map.of("sub", EMAIL));
+
+    // WHEN building the principal THEN none is returned
+    assertNull(jwtService.toPrincipal(jwt));
+  }
+
+  /** Creates a JwtService backed by the application verified-token cache */
+  private JwtService cachedJwtService() {
+    return new JwtService(
+        jwtEncoder,
+        jwtDecoder,
+        EXPIRATION_SECONDS,
+        ISSUER,
+        new CacheConfig(new CacheProperties()).cacheManager());
+  }
 }
@@ -0,0 +1,55 @@
+package com.datashare.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** BloomFilter Unit Test Set */
+public class BloomFilterTest {
+
+  private static final int TOKENS = 100_000;
+
+  /** Test that added values are always found and absent ones rarely */
+  @Test
+  @DisplayName("UNIT-BLOOM-001: No false negative, false positives near the target rate")
+  void shouldNeverMissAddedValues() {
+    // Arrange
+    BloomFilter filter = new BloomFilter(TOKENS, 0.01);
+    TokenAllocator issued = new TokenAllocator("issued", 1000, new AtomicLong()::getAndIncrement);
+    TokenAllocator guesses = new TokenAllocator("guesses", 1000, new AtomicLong()::getAndIncrement);
+    String[] tokens = new String[TOKENS];
+
+    // Act
+    for (int i = 0; i < TOKENS; i++) {
+      tokens[i] = issued.next();
+      filter.add(tokens[i]);
+    }
+    int falsePositives = 0;
+    for (int i = 0; i < TOKENS; i++) {
+      if (filter.mightContain(guesses.next())) {
+        falsePositives++;
+      }
+    }
+
+    // Assert
+    for (String token : tokens) {
+      assertThat(filter.mightContain(token)).isTrue();
+    }
+    assertThat((double) falsePositives / TOKENS).isLessThan(0.02);
+    assertThat(filter.expectedFalsePositiveRate()).isBetween(0.005, 0.02);
+  }
+
+  /** Test that an empty filter reports nothing */
+  @Test
+  @DisplayName("UNIT-BLOOM-002: Empty filter contains nothing")
+  void shouldContainNothingWhenEmpty() {
+    // Arrange
+    BloomFilter filter = new BloomFilter(10, 0.01);
+
+    // Act & Assert
+    assertThat(filter.mightContain("ABCDEF")).isFalse();
+    assertThat(filter.expectedFalsePositiveRate()).isZero();
+  }
+}
@@ -0,0 +1,79 @@
+package com.datashare.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+import com.datashare.api.entities.File;
+import com.datashare.api.entities.Token;
+import com.datashare.api.repository.FileRepository;
+import com.datashare.api.repository.TokenRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+/** ExpiredShareReaper Integration Test with the database */
+@SpringBootTest
+@ActiveProfiles("test")
+public class ExpiredShareReaperIT {
+
+  @Autowired private ExpiredShareReaper reaper;
+
+  @Autowired private FileRepository fileRepository;
+
+  @Autowired private TokenRepository tokenRepository;
+
+  @MockitoBean private ObjectStorage objectStorage;
+
+  @BeforeEach
+  void setup() {
+    tokenRepository.deleteAll();
+    fileRepository.deleteAll();
+    when(objectStorage.deleteObjects(anyCollection()))
+        .thenAnswer(invocation -> new HashSet<>(invocation.getArgument(0)));
+  }
+
+  /** Test that only the expired shares are removed from the database */
+  @Test
+  @DisplayName("INTEG-REAPER-001: Expired shares removed, valid shares kept")
+  public void shouldReapOnlyExpiredShares() {
+    // GIVEN expired shares spread over several pages and a valid share
+    Instant now = Instant.now();
+    for (int i = 0; i < 1_200; i++) {
+      share("EXP" + i, now.minus(Duration.ofMinutes(i + 1)));
+    }
+    share("VALID", now.plus(Duration.ofDays(1)));
+
+    // WHEN the reaper runs
+    int reaped = reaper.run();
+
+    // THEN only the valid share is left
+    assertThat(reaped).isEqualTo(1_200);
+    List<Token> tokens = tokenRepository.findAll();
+    assertThat(tokens).extracting(Token::getTokenString).containsExactly("VALID");
+    assertThat(fileRepository.count()).isEqualTo(1);
+  }
+
+  /** Creates a shared file whose token expires at the given instant */
+  private void share(String tokenString, Instant expiresAt) {
+    File file = new File();
+    file.setFilename(tokenString + ".txt");
+    file.setS3Key("uploads/" + tokenString);
+    file.setCreatedAt(Instant.now());
+
+    Token token = new Token();
+    token.setTokenString(tokenString);
+    token.setExpiresAt(expiresAt);
+    token.setFile(file);
+    file.setToken(token);
+    fileRepository.save(file);
+  }
+}
@@ -0,0 +1,173 @@
+package com.datashare.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.datashare.api.configuration.ReaperProperties;
+import com.datashare.api.dto.ExpiredShare;
+import com.datashare.api.repository.FileRepository;
+import com.datashare.api.repository.TokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/** ExpiredShareReaper Unit Test Set */
+@ExtendWith(MockitoExtension.class)
+public class ExpiredShareReaperTest {
+
+  @Mock TokenRepository tokenRepository;
+
+  @Mock FileRepository fileRepository;
+
+  @Mock ObjectStorage objectStorage;
+
+  @Mock FileVersions fileVersions;
+
+  @Mock PlatformTransactionManager transactionManager;
+
+  private ReaperProperties properties;
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private ExpiredShareReaper reaper;
+
+  @BeforeEach
+  void setUp() {
+    properties = new ReaperProperties();
+    properties.setPageSize(2);
+    properties.setPause(Duration.ZERO);
+    meterRegistry = new SimpleMeterRegistry();
+    reaper =
+        new ExpiredShareReaper(
+            tokenRepository,
+            fileRepository,
+            objectStorage,
+            fileVersions,
+            new TransactionTemplate(transactionManager),
+            properties,
+            meterRegistry);
+  }
+
+  /** Test that expired shares are reaped page by page */
+  @Test
+  @DisplayName("UNIT-REAPER-001: Expired shares reaped in keyset pages")
+  public void shouldReapExpiredSharesInPages() {
+    // Arrange: 3 expired shares in pages of 2
+    Instant expiredAt = Instant.now().minusSeconds(3600);
+    ExpiredShare first = new ExpiredShare(1L, 11L, 7L, "uploads/1", expiredAt);
+    ExpiredShare second = new ExpiredShare(2L, 12L, 8L, "uploads/2", expiredAt);
+    ExpiredShare third = new ExpiredShare(3L, 13L, 7L, "uploads/3", expiredAt.plusSeconds(1));
+    when(tokenRepository.findExpiredShares(
+            any(Instant.class), eq(Instant.EPOCH), eq(0L), eq(Limit.of(2))))
+        .thenReturn(List.of(first, second));
+    when(tokenRepository.findExpiredShares(
+            any(Instant.class), eq(expiredAt), eq(2L), eq(Limit.of(2))))
+        .thenReturn(List.of(third));
+    when(objectStorage.deleteObjects(anyCollection()))
+        .thenReturn(Set.of("uploads/1", "uploads/2"), Set.of("uploads/3"));
+    when(tokenRepository.findOldestExpiration(any(Instant.class))).thenReturn(Optional.empty());
+
+    // Act
+    int reaped = reaper.run();
+
+    // Assert
+    assertThat(reaped).isEqualTo(3);
+    verify(tokenRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+    verify(fileRepository).deleteAllByIdInBatch(List.of(11L, 12L));
+    verify(tokenRepository).deleteAllByIdInBatch(List.of(3L));
+    verify(fileRepository).deleteAllByIdInBatch(List.of(13L));
+    verify(fileVersions).changed(List.of(7L, 8L));
+    verify(fileVersions).changed(List.of(7L));
+    verify(transactionManager, times(2)).commit(any());
+    assertThat(meterRegistry.counter("datashare.reaper.reaped").count()).isEqualTo(3);
+    assertThat(meterRegistry.get("datashare.reaper.lag").gauge().value()).isZero();
+  }
+
+  /** Test that shares whose object could not be deleted are kept */
+  @Test
+  @DisplayName("UNIT-REAPER-002: Shares whose object deletion failed are kept")
+  public void shouldKeepSharesWhoseObjectDeletionFailed() {
+    // Arrange
+    Instant expiredAt = Instant.now().minusSeconds(3600);
+    ExpiredShare kept = new ExpiredShare(1L, 11L, 7L, "uploads/1", expiredAt);
+    ExpiredShare reapable = new ExpiredShare(2L, 12L, 7L, "uploads/2", expiredAt);
+    when(tokenRepository.findExpiredShares(
+            any(Instant.class), eq(Instant.EPOCH), eq(0L), eq(Limit.of(2))))
+        .thenReturn(List.of(kept, reapable));
+    when(tokenRepository.findExpiredShares(
+            any(Instant.class), eq(expiredAt), eq(2L), eq(Limit.of(2))))
+        .thenReturn(List.of());
+    when(objectStorage.deleteObjects(anyCollection())).thenReturn(Set.of("uploads/2"));
+    when(tokenRepository.findOldestExpiration(any(Instant.class)))
+        .thenReturn(Optional.of(expiredAt));
+
+    // Act
+    int reaped = reaper.run();
+
+    // Assert
+    assertThat(reaped).isEqualTo(1);
+    verify(tokenRepository).deleteAllByIdInBatch(List.of(2L));
+    verify(fileRepository).deleteAllByIdInBatch(List.of(12L));
+    assertThat(meterRegistry.counter("datashare.reaper.failures").count()).isEqualTo(1);
+    assertThat(meterRegistry.get("datashare.reaper.lag").gauge().value()).isGreaterThan(3_000);
+  }
+
+  /** Test that a run stops after the maximum number of pages */
+  @Test
+  @DisplayName("UNIT-REAPER-003: Run stops after the maximum number of pages")
+  public void shouldStopAfterMaxPages() {
+    // Arrange: an endless backlog of full pages
+    properties.setMaxPagesPerRun(1);
+    Instant expiredAt = Instant.now().minusSeconds(3600);
+    when(tokenRepository.findExpiredShares(any(Instant.class), any(), anyLong(), any()))
+        .thenReturn(
+            List.of(
+                new ExpiredShare(1L, 11L, 7L, "uploads/1", expiredAt),
+                new ExpiredShare(2L, 12L, 7L, "uploads/2", expiredAt)));
+    when(objectStorage.deleteObjects(anyCollection())).thenReturn(Set.of("uploads/1", "uploads/2"));
+    when(tokenRepository.findOldestExpiration(any(Instant.class)))
+        .thenReturn(Optional.of(expiredAt));
+
+    // Act
+    reaper.run();
+
+    // Assert
+    verify(tokenRepository, times(1))
+        .findExpiredShares(any(Instant.class), any(), anyLong(), any());
+  }
+
+  /** Test that a disabled reaper does nothing */
+  @Test
+  @DisplayName("UNIT-REAPER-004: Disabled reaper does nothing")
+  public void shouldNotRunWhenDisabled() {
+    // Arrange
+    properties.setEnabled(false);
+
+    // Act
+    reaper.scheduledRun();
+
+    // Assert
+    verifyNoInteractions(tokenRepository, objectStorage);
+    verify(fileRepository, never()).deleteAllByIdInBatch(any());
+  }
+}
@@ -0,0 +1,79 @@
+package com.datashare.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.datashare.api.dto.PresignedUploadRequest;
+import com.datashare.api.dto.PresignedUploadResponse;
+import com.datashare.api.repository.TokenRepository;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.Collections;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/** Integration Test Set for the database statements of FileService */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+public class FileServiceIT {
+
+  @Autowired private FileService fileService;
+
+  @Autowired private TokenRepository tokenRepository;
+
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  public void setUp() {
+    // Reserve the first blocks of ids, so that no sequence call is counted
+    fileService.createUploadUrl("warmup.pdf", "application/pdf", 1_000L, 3, 1L);
+
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  /** Test that an upload registration inserts the file and its token in one transaction */
+  @Test
+  @DisplayName("INTEG-FILE-STMT-001: Upload registration runs exactly two inserts")
+  public void uploadRegistrationRunsTwoInserts() {
+
+    // WHEN registering an upload
+    PresignedUploadResponse response =
+        fileService.createUploadUrl("report.pdf", "application/pdf", 1_000L, 3, 1L);
+
+    // THEN only the file and token rows were inserted, atomically
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    assertThat(statistics.getEntityInsertCount()).isEqualTo(2);
+    assertThat(statistics.getEntityLoadCount()).isZero();
+    assertThat(statistics.getSuccessfulTransactionCount()).isEqualTo(1);
+
+    // AND the token resolves to the file
+    assertThat(tokenRepository.findByTokenString(response.getTokenString())).isPresent();
+  }
+
+  /** Test that a batch upload registration inserts each table rows in a single JDBC batch */
+  @Test
+  @DisplayName("INTEG-FILE-STMT-002: Batch upload registration runs one batch per table")
+  public void batchUploadRegistrationRunsOneBatchPerTable() {
+
+    // GIVEN 200 files to upload
+    List<PresignedUploadRequest> requests =
+        Collections.nCopies(200, new PresignedUploadRequest("a.pdf", "application/pdf", 1L, 3));
+
+    // WHEN registering the batch
+    List<PresignedUploadResponse> responses = fileService.createUploadUrls(requests, 1L);
+
+    // THEN the 400 rows were inserted by two batched statements, without sequence call
+    assertThat(responses).hasSize(200);
+    assertThat(statistics.getEntityInsertCount()).isEqualTo(400);
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    assertThat(statistics.getSuccessfulTransactionCount()).isEqualTo(1);
+  }
+}
@@ -1,10 +1,15 @@
 package com.datashare.api.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.datashare.api.configuration.S3Properties;
+import com.datashare.api.dto.MultipartCompleteRequest;
+import com.datashare.api.dto.MultipartUploadRequest;
+import com.datashare.api.dto.MultipartUploadResponse;
 import com.datashare.api.dto.PresignedDownloadResponse;
 import com.datashare.api.dto.PresignedUploadResponse;
 import com.datashare.api.entities.File;
@@ -12,6 +17,7 @@ import com.datashare.api.entities.User;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URI;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -60,6 +66,10 @@ public class FileServiceLocalStackIT {
 
   @Autowired private FileService fileService;
 
+  @Autowired private MultipartUploadService multipartUploadService;
+
+  @Autowired private ObjectStorage objectStorage;
+
   @BeforeEach
   void setup() {
     // Replace S3 endpoint with the localstack
@@ -156,12 +166,56 @@ public class FileServiceLocalStackIT {
 
     // Vérifie qu'elle existe
     assertObjectExists(s3Properties.getBucket(), file.getS3Key());
+    assertTrue(objectStorage.exists(file.getS3Key()).join());
 
-    // DELETE
-    fileService.deleteMyFile(user, uploadRes.getTokenString());
+    // DELETE (the S3 deletion completes asynchronously)
+    fileService.deleteMyFile(user, uploadRes.getTokenString()).join();
 
     // Vérifie supprimé
     assertObjectDeleted(s3Properties.getBucket(), file.getS3Key());
+    assertFalse(objectStorage.exists(file.getS3Key()).join());
+
+    // CLEANUP
+    cleanupBucket();
+  }
+
+  /** Test that a multipart upload is completed from presigned part URLs */
+  @Test
+  @DisplayName("INTEG-S3-004: Multipart upload with presigned part URLs")
+  public void shouldUploadFileInPartsWithPresignedUrls() throws Exception {
+    // GIVEN a started multipart upload
+    User user = new User(1L, "test@mail.com", "password", null);
+    String content = "This is test content uploaded in a single part";
+    MultipartUploadResponse res =
+        multipartUploadService.createMultipartUpload(
+            new MultipartUploadRequest(
+                "multipart.txt",
+                "text/plain",
+                content.length(),
+                MultipartUploadService.MIN_PART_SIZE,
+                7),
+            user.getId());
+    assertEquals(1, res.getPartUrls().size());
+
+    // WHEN the part is uploaded and the upload completed
+    HttpURLConnection conn =
+        (HttpURLConnection) new URI(res.getPartUrls().get(0)).toURL().openConnection();
+    conn.setDoOutput(true);
+    conn.setRequestMethod("PUT");
+    conn.getOutputStream().write(content.getBytes());
+    assertEquals(200, conn.getResponseCode());
+    String etag = conn.getHeaderField("ETag");
+    conn.disconnect();
+
+    multipartUploadService.completeMultipartUpload(
+        user,
+        res.getTokenString(),
+        new MultipartCompleteRequest(
+            res.getUploadId(), List.of(new MultipartCompleteRequest.Part(1, etag))));
+
+    // THEN the object exists in S3
+    File file = tokenService.validateToken(res.getTokenString());
+    assertObjectExists(s3Properties.getBucket(), file.getS3Key());
 
     // CLEANUP
     cleanupBucket();
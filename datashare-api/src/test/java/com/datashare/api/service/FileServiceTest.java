@@ -5,19 +5,31 @@ import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 import com.datashare.api.configuration.S3Properties;
+import com.datashare.api.dto.FileCursor;
+import com.datashare.api.dto.FileHistory;
+import com.datashare.api.dto.FileListing;
+import com.datashare.api.dto.FilePage;
 import com.datashare.api.dto.PresignedDownloadResponse;
+import com.datashare.api.dto.PresignedUploadRequest;
 import com.datashare.api.dto.PresignedUploadResponse;
+import com.datashare.api.dto.SharedFile;
 import com.datashare.api.entities.File;
 import com.datashare.api.entities.Token;
 import com.datashare.api.entities.User;
 import com.datashare.api.handler.InvalidTokenException;
 import com.datashare.api.handler.UserNotFileOwnerException;
+import com.datashare.api.monitoring.DatashareMetrics;
+import com.datashare.api.monitoring.DatashareMetrics.Presign;
+import com.datashare.api.monitoring.DatashareMetrics.TokenOutcome;
 import com.datashare.api.repository.FileRepository;
 import com.datashare.api.repository.TokenRepository;
 import java.net.URI;
 import java.net.URL;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -25,10 +37,12 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.CacheControl;
 import org.springframework.security.core.Authentication;
-import software.amazon.awssdk.services.s3.S3Client;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
-import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
@@ -47,7 +61,13 @@ public class FileServiceTest {
 
   @Mock TokenService tokenService;
 
-  @Mock S3Client s3Client;
+  @Mock ObjectStorage objectStorage;
+
+  @Mock PresignedDownloadUrls downloadUrls;
+
+  @Mock DatashareMetrics metrics;
+
+  @Mock FileVersions fileVersions;
 
   @Mock Authentication authentication;
 
@@ -116,7 +136,7 @@ public class FileServiceTest {
     Token token = new Token();
     token.setExpiresAt(Instant.now());
     token.setTokenString("TOKEN123");
-    when(tokenService.generateToken(any(File.class), any(Instant.class))).thenReturn(token);
+    when(tokenService.attachToken(any(File.class), any(Instant.class))).thenReturn(token);
 
     // Act
     PresignedUploadResponse response =
@@ -133,7 +153,7 @@ public class FileServiceTest {
     verify(fileRepository, times(1)).save(any(File.class));
 
     // Verify token was generated
-    verify(tokenService, times(1)).generateToken(any(File.class), any(Instant.class));
+    verify(tokenService, times(1)).attachToken(any(File.class), any(Instant.class));
   }
 
   /** Test successful upload URL creation with default expiration */
@@ -158,7 +178,7 @@ public class FileServiceTest {
     Token token = new Token();
     token.setTokenString("TOKEN456");
     token.setExpiresAt(Instant.now());
-    when(tokenService.generateToken(any(File.class), any(Instant.class))).thenReturn(token);
+    when(tokenService.attachToken(any(File.class), any(Instant.class))).thenReturn(token);
 
     // Act
     PresignedUploadResponse response =
@@ -192,7 +212,7 @@ public class FileServiceTest {
     Token token = new Token();
     token.setTokenString("TOKEN123");
     token.setExpiresAt(Instant.now());
-    when(tokenService.generateToken(any(File.class), any(Instant.class))).thenReturn(token);
+    when(tokenService.attachToken(any(File.class), any(Instant.class))).thenReturn(token);
 
     // Act
     PresignedUploadResponse response =
@@ -212,28 +232,25 @@ public class FileServiceTest {
     // Arrange
     String tokenString = "TOKEN123";
 
-    File mockFile = new File();
-    mockFile.setId(1L);
-    mockFile.setFilename("document.pdf");
-    mockFile.setContentType("application/pdf");
-    mockFile.setSize(5_000_000L);
-    mockFile.setS3Key("uploads/uuid-document.pdf");
-    mockFile.setCreatedAt(Instant.now());
-
-    Token mockToken = new Token();
-    mockToken.setTokenString(tokenString);
-    mockToken.setExpiresAt(Instant.now().plusSeconds(86400));
-    mockToken.setFile(mockFile);
-    mockFile.setToken(mockToken);
-
-    when(tokenService.validateToken(tokenString)).thenReturn(mockFile);
-    when(s3Properties.getBucket()).thenReturn("test-bucket");
+    SharedFile sharedFile =
+        new SharedFile(
+            1L,
+            5L,
+            "uploads/uuid-document.pdf",
+            "document.pdf",
+            "application/pdf",
+            5_000_000L,
+            Instant.now(),
+            Instant.now().plusSeconds(86400));
+
+    when(tokenService.resolveToken(tokenString)).thenReturn(sharedFile);
 
     PresignedGetObjectRequest mockPresignedRequest = mock(PresignedGetObjectRequest.class);
     URL mockUrl = new URI("https://s3.amazonaws.com/test-bucket/uploads/uuid-document.pdf").toURL();
+    Instant urlExpiresAt = Instant.now().plusSeconds(600);
     when(mockPresignedRequest.url()).thenReturn(mockUrl);
-    when(presigner.presignGetObject(any(GetObjectPresignRequest.class)))
-        .thenReturn(mockPresignedRequest);
+    when(mockPresignedRequest.expiration()).thenReturn(urlExpiresAt);
+    when(downloadUrls.get("uploads/uuid-document.pdf")).thenReturn(mockPresignedRequest);
 
     // Act
     PresignedDownloadResponse response = fileService.createDownloadUrl(tokenString);
@@ -246,9 +263,12 @@ public class FileServiceTest {
     assertEquals(
         "https://s3.amazonaws.com/test-bucket/uploads/uuid-document.pdf",
         response.getDownloadUrl());
+    assertEquals(urlExpiresAt, response.getDownloadUrlExpiresAt());
 
-    // Verify token validation was called
-    verify(tokenService, times(1)).validateToken(tokenString);
+    // Verify token resolution was called
+    verify(tokenService, times(1)).resolveToken(tokenString);
+    verify(metrics).tokenResolution(TokenOutcome.HIT);
+    verify(metrics).presign(eq(Presign.DOWNLOAD), anyLong());
   }
 
   /** Test download URL creation with invalid token */
@@ -257,12 +277,13 @@ public class FileServiceTest {
   public void shouldThrowExceptionForInvalidToken() throws Exception {
     // Arrange
     String invalidToken = "INVALID";
-    when(tokenService.validateToken(invalidToken))
-        .thenThrow(new InvalidTokenException("Unknown token"));
+    when(tokenService.resolveToken(invalidToken))
+        .thenThrow(new InvalidTokenException(InvalidTokenException.Reason.UNKNOWN));
 
     // Act & Assert
     assertThrows(InvalidTokenException.class, () -> fileService.createDownloadUrl(invalidToken));
-    verify(tokenService, times(1)).validateToken(invalidToken);
+    verify(tokenService, times(1)).resolveToken(invalidToken);
+    verify(metrics).tokenResolution(TokenOutcome.UNKNOWN);
   }
 
   /** Test download URL creation with expired token */
@@ -271,12 +292,13 @@ public class FileServiceTest {
   public void shouldThrowExceptionForExpiredToken() throws Exception {
     // Arrange
     String expiredToken = "EXPIRED";
-    when(tokenService.validateToken(expiredToken))
-        .thenThrow(new InvalidTokenException("Expired token"));
+    when(tokenService.resolveToken(expiredToken))
+        .thenThrow(new InvalidTokenException(InvalidTokenException.Reason.EXPIRED));
 
     // Act & Assert
     assertThrows(InvalidTokenException.class, () -> fileService.createDownloadUrl(expiredToken));
-    verify(tokenService, times(1)).validateToken(expiredToken);
+    verify(tokenService, times(1)).resolveToken(expiredToken);
+    verify(metrics).tokenResolution(TokenOutcome.EXPIRED);
   }
 
   /** Test file metadata is correctly saved */
@@ -301,7 +323,7 @@ public class FileServiceTest {
     Token token = new Token();
     token.setTokenString("TOKEN999");
     token.setExpiresAt(Instant.now());
-    when(tokenService.generateToken(any(File.class), any(Instant.class))).thenReturn(token);
+    when(tokenService.attachToken(any(File.class), any(Instant.class))).thenReturn(token);
 
     // Act
     fileService.createUploadUrl(filename, contentType, size, 5, userId);
@@ -317,6 +339,7 @@ public class FileServiceTest {
     assertEquals(userId, savedFile.getUserId());
     assertTrue(savedFile.getS3Key().startsWith("uploads/"));
     assertTrue(savedFile.getS3Key().endsWith(filename));
+    verify(fileVersions).changed(userId);
   }
 
   /** Test case-insensitive extension validation */
@@ -364,7 +387,7 @@ public class FileServiceTest {
     Token token = new Token();
     token.setTokenString("TOKEN_CUSTOM_EXP");
     token.setExpiresAt(Instant.now().plus(expirationDays, ChronoUnit.DAYS));
-    when(tokenService.generateToken(any(File.class), any(Instant.class))).thenReturn(token);
+    when(tokenService.attachToken(any(File.class), any(Instant.class))).thenReturn(token);
 
     // Act
     PresignedUploadResponse response =
@@ -373,7 +396,7 @@ public class FileServiceTest {
     // Assert
     assertNotNull(response);
     ArgumentCaptor<Instant> expiresAtCaptor = ArgumentCaptor.forClass(Instant.class);
-    verify(tokenService, times(1)).generateToken(any(File.class), expiresAtCaptor.capture());
+    verify(tokenService, times(1)).attachToken(any(File.class), expiresAtCaptor.capture());
 
     Instant capturedExpires = expiresAtCaptor.getValue();
     Instant now = Instant.now();
@@ -393,17 +416,20 @@ public class FileServiceTest {
     File file = new File();
     file.setId(20L);
     file.setUserId(42L);
+    file.setS3Key("uploads/del");
     Token token = new Token();
     token.setTokenString(tokenString);
     token.setFile(file);
     file.setToken(token);
 
     when(tokenService.validateToken(tokenString)).thenReturn(file);
+    CompletableFuture<Void> deletion = new CompletableFuture<>();
+    when(objectStorage.deleteObject("uploads/del")).thenReturn(deletion);
 
     User user = new User(42L, "test@mail.com", "password", null);
 
     // Act
-    fileService.deleteMyFile(user, tokenString);
+    CompletableFuture<Void> result = fileService.deleteMyFile(user, tokenString);
 
     // Assert: fileRepository.delete called with the file that contained the token
     ArgumentCaptor<File> captor = ArgumentCaptor.forClass(File.class);
@@ -413,6 +439,14 @@ public class FileServiceTest {
     assertNotNull(
         deleted.getToken(),
         "Token should be present on the entity passed to delete (cascade will remove it)");
+    verify(tokenService, times(1)).evictToken(tokenString);
+    verify(downloadUrls, times(1)).evict(file.getS3Key());
+    verify(fileVersions).changed(42L);
+
+    // Assert: the S3 deletion is not awaited
+    assertFalse(result.isDone());
+    deletion.complete(null);
+    assertTrue(result.isDone());
   }
 
   /** Test deleting a file by a non-owner throws UserNotFileOwnerException */
@@ -432,6 +466,7 @@ public class FileServiceTest {
     assertThrows(
         UserNotFileOwnerException.class, () -> fileService.deleteMyFile(user, tokenString));
     verify(fileRepository, never()).delete(any(File.class));
+    verifyNoInteractions(fileVersions);
   }
 
   /** Test deleting a file when token is invalid throws InvalidTokenException */
@@ -448,5 +483,267 @@ public class FileServiceTest {
     // Act & Assert
     assertThrows(InvalidTokenException.class, () -> fileService.deleteMyFile(user, tokenString));
     verify(fileRepository, never()).delete(any(File.class));
+    verifyNoInteractions(fileVersions);
+  }
+
+  /** Test that a download response is cacheable while its URL keeps the minimum lifetime */
+  @Test
+  @DisplayName("UNIT-FILE-017: Download response cacheable until the URL min remaining lifetime")
+  public void shouldCacheDownloadResponseWhileUrlIsValid() {
+    // Arrange: URL valid 10 minutes, 2 minutes minimum remaining lifetime
+    when(s3Properties.getDownloadUrl()).thenReturn(new S3Properties.DownloadUrl());
+    Instant now = Instant.now();
+    PresignedDownloadResponse response = new PresignedDownloadResponse();
+    response.setExpiresAt(now.plus(1, ChronoUnit.DAYS));
+    response.setDownloadUrlExpiresAt(now.plus(10, ChronoUnit.MINUTES));
+
+    // Act
+    CacheControl cacheControl = fileService.downloadCacheControl(response);
+
+    // Assert: cacheable for about 8 minutes, by the browser only
+    assertTrue(cacheControl.getHeaderValue().contains("private"));
+    long maxAge = maxAge(cacheControl);
+    assertTrue(maxAge > 470 && maxAge <= 480, "Unexpected max-age: " + maxAge);
+  }
+
+  /** Test that a download response is never cached beyond the token expiration */
+  @Test
+  @DisplayName("UNIT-FILE-018: Download response not cacheable beyond token expiration")
+  public void shouldNotCacheDownloadResponseBeyondTokenExpiration() {
+    // Arrange: token expiring in one minute
+    when(s3Properties.getDownloadUrl()).thenReturn(new S3Properties.DownloadUrl());
+    Instant now = Instant.now();
+    PresignedDownloadResponse response = new PresignedDownloadResponse();
+    response.setExpiresAt(now.plus(1, ChronoUnit.MINUTES));
+    response.setDownloadUrlExpiresAt(now.plus(10, ChronoUnit.MINUTES));
+
+    // Act
+    long maxAge = maxAge(fileService.downloadCacheControl(response));
+
+    // Assert
+    assertTrue(maxAge > 50 && maxAge <= 60, "Unexpected max-age: " + maxAge);
+  }
+
+  /** Test that a download response with an almost expired token is not stored */
+  @Test
+  @DisplayName("UNIT-FILE-019: Download response not stored when token expires now")
+  public void shouldNotStoreDownloadResponseWhenTokenExpires() {
+    // Arrange
+    when(s3Properties.getDownloadUrl()).thenReturn(new S3Properties.DownloadUrl());
+    Instant now = Instant.now();
+    PresignedDownloadResponse response = new PresignedDownloadResponse();
+    response.setExpiresAt(now);
+    response.setDownloadUrlExpiresAt(now.plus(10, ChronoUnit.MINUTES));
+
+    // Act & Assert
+    assertEquals("no-store", fileService.downloadCacheControl(response).getHeaderValue());
+  }
+
+  /** Extracts the max-age directive of a caching policy */
+  private static long maxAge(CacheControl cacheControl) {
+    String header = cacheControl.getHeaderValue();
+    return Long.parseLong(header.replaceAll(".*max-age=(\\d+).*", "$1"));
+  }
+
+  /** Test successful batch upload URL creation */
+  @Test
+  @DisplayName("UNIT-FILE-020: Successful batch upload URL creation")
+  public void shouldCreateUploadUrlsInBatch() throws Exception {
+    // Arrange
+    List<PresignedUploadRequest> requests =
+        List.of(
+            new PresignedUploadRequest("a.pdf", "application/pdf", 1_000L, 3),
+            new PresignedUploadRequest("b.png", "image/png", 2_000L, null));
+
+    when(s3Properties.getBucket()).thenReturn("test-bucket");
+    PresignedPutObjectRequest mockPresignedRequest = mock(PresignedPutObjectRequest.class);
+    when(mockPresignedRequest.url())
+        .thenReturn(new URI("https://s3.amazonaws.com/test-bucket/uploads/key").toURL());
+    when(presigner.presignPutObject(any(PutObjectPresignRequest.class)))
+        .thenReturn(mockPresignedRequest);
+    when(tokenService.attachToken(any(File.class), any(Instant.class)))
+        .thenAnswer(
+            invocation -> {
+              Token token = new Token();
+              token.setTokenString("TOKEN" + invocation.getArgument(0, File.class).getFilename());
+              token.setExpiresAt(invocation.getArgument(1));
+              return token;
+            });
+
+    // Act
+    List<PresignedUploadResponse> responses = fileService.createUploadUrls(requests, 1L);
+
+    // Assert: one response per request, in order
+    assertEquals(2, responses.size());
+    assertEquals("TOKENa.pdf", responses.get(0).getTokenString());
+    assertEquals("TOKENb.png", responses.get(1).getTokenString());
+    assertTrue(responses.get(0).getExpiresAt().isBefore(responses.get(1).getExpiresAt()));
+
+    // Verify all files were saved at once
+    ArgumentCaptor<List<File>> captor = ArgumentCaptor.captor();
+    verify(fileRepository, times(1)).saveAll(captor.capture());
+    verify(fileRepository, never()).save(any(File.class));
+    assertEquals(2, captor.getValue().size());
+    assertEquals(1L, captor.getValue().get(0).getUserId());
+    verify(presigner, times(2)).presignPutObject(any(PutObjectPresignRequest.class));
+  }
+
+  /** Test that a batch with one invalid file is rejected as a whole */
+  @Test
+  @DisplayName("UNIT-FILE-021: Batch with a forbidden extension is rejected")
+  public void shouldRejectBatchWithForbiddenExtension() {
+    // Arrange
+    List<PresignedUploadRequest> requests =
+        List.of(
+            new PresignedUploadRequest("a.pdf", "application/pdf", 1_000L, null),
+            new PresignedUploadRequest("virus.exe", "application/octet-stream", 1_000L, null));
+
+    // Act & Assert
+    assertThrows(IllegalArgumentException.class, () -> fileService.createUploadUrls(requests, 1L));
+    verify(presigner, never()).presignPutObject(any(PutObjectPresignRequest.class));
+    verify(fileRepository, never()).saveAll(any());
+  }
+
+  /** Test that empty and oversized batches are rejected */
+  @Test
+  @DisplayName("UNIT-FILE-022: Empty and oversized batches are rejected")
+  public void shouldRejectEmptyAndOversizedBatches() {
+    // Arrange
+    List<PresignedUploadRequest> tooMany =
+        Collections.nCopies(
+            FileService.MAX_BATCH_SIZE + 1,
+            new PresignedUploadRequest("a.pdf", "application/pdf", 1_000L, null));
+
+    // Act & Assert
+    assertThrows(IllegalArgumentException.class, () -> fileService.createUploadUrls(List.of(), 1L));
+    assertThrows(IllegalArgumentException.class, () -> fileService.createUploadUrls(tooMany, 1L));
+    verify(presigner, never()).presignPutObject(any(PutObjectPresignRequest.class));
+  }
+
+  /** Test that a full page returns the cursor of its last file */
+  @Test
+  @DisplayName("UNIT-FILE-023: File history page returns the next cursor")
+  public void shouldReturnNextCursorWhenMoreFiles() {
+    // Arrange
+    Instant now = Instant.parse("2026-01-01T10:00:00Z");
+    List<FileListing> rows =
+        List.of(
+            new FileListing(1L, "a.txt", "text/plain", 10L, "TOKEN1", now, now),
+            new FileListing(2L, "b.txt", "text/plain", 20L, "TOKEN2", now, now),
+            new FileListing(3L, "c.txt", "text/plain", 30L, null, now, null));
+    when(fileVersions.history(1L)).thenReturn(new FileHistory(0L, rows));
+
+    // Act
+    FilePage page = fileService.listMyFiles(1L, null, 2);
+
+    // Assert: the first page is cut from the cached history head
+    assertEquals(2, page.files().size());
+    assertEquals("a.txt", page.files().get(0).getFilename());
+    assertEquals("TOKEN2", page.files().get(1).getDownloadToken());
+    assertEquals(new FileCursor(now, 2L), FileCursor.decode(page.nextCursor()));
+    verifyNoInteractions(fileRepository);
+  }
+
+  /** Test that the cursor is used as keyset position and the last page has no cursor */
+  @Test
+  @DisplayName("UNIT-FILE-024: File history last page has no next cursor")
+  public void shouldReturnNoCursorOnLastPage() {
+    // Arrange
+    Instant now = Instant.parse("2026-01-01T10:00:00Z");
+    String cursor = new FileCursor(now, 2L).encode();
+    when(fileRepository.findListingByUserId(1L, now, 2L, Limit.of(3)))
+        .thenReturn(List.of(new FileListing(3L, "c.txt", "text/plain", 30L, null, now, null)));
+
+    // Act
+    FilePage page = fileService.listMyFiles(1L, cursor, 2);
+
+    // Assert
+    assertEquals(1, page.files().size());
+    assertNull(page.files().get(0).getDownloadToken());
+    assertNull(page.nextCursor());
+  }
+
+  /** Test that malformed cursors and out of range page sizes are rejected */
+  @Test
+  @DisplayName("UNIT-FILE-025: File history rejects invalid cursor and page size")
+  public void shouldRejectInvalidCursorAndPageSize() {
+    // Act & Assert
+    assertThrows(IllegalArgumentException.class, () -> fileService.listMyFiles(1L, "bad!", 10));
+    assertThrows(IllegalArgumentException.class, () -> fileService.listMyFiles(1L, "YWJj", 10));
+    assertThrows(IllegalArgumentException.class, () -> fileService.listMyFiles(1L, null, 0));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> fileService.listMyFiles(1L, null, FileService.MAX_PAGE_SIZE + 1));
+    verifyNoInteractions(fileRepository);
+  }
+
+  /** Test that the file history entity tag is made of the owner and the version of the list */
+  @Test
+  @DisplayName("UNIT-FILE-026: File history entity tag follows the version of the list")
+  public void shouldBuildListingETagFromVersion() {
+    // Arrange
+    when(fileVersions.version(1L)).thenReturn(0L, 3L);
+
+    // Act & Assert
+    assertEquals("1-0", fileService.listingETag(1L));
+    assertEquals("1-3", fileService.listingETag(1L));
+    verify(fileVersions, never()).history(any());
+    verifyNoInteractions(fileRepository);
+  }
+
+  /** Test that a first page larger than the cached history head is read from the database */
+  @Test
+  @DisplayName("UNIT-FILE-027: File history first page beyond the default size not cached")
+  public void shouldReadLargeFirstPageFromDatabase() {
+    // Arrange
+    int limit = FileService.DEFAULT_PAGE_SIZE + 1;
+    when(fileRepository.findListingByUserId(1L, Instant.EPOCH, 0L, Limit.of(limit + 1)))
+        .thenReturn(List.of());
+
+    // Act
+    FilePage page = fileService.listMyFiles(1L, null, limit);
+
+    // Assert
+    assertEquals(0, page.files().size());
+    assertNull(page.nextCursor());
+    verify(fileVersions, never()).history(any());
+  }
+
+  /** Test that the caches and the S3 object are left untouched until the deletion is committed */
+  @Test
+  @DisplayName("UNIT-FILE-028: Delete file evicts and deletes the object after commit")
+  public void shouldDeleteObjectAfterCommit() throws Exception {
+    // Arrange
+    String tokenString = "DEL456";
+    File file = new File();
+    file.setId(22L);
+    file.setUserId(42L);
+    file.setS3Key("uploads/del2");
+    when(tokenService.validateToken(tokenString)).thenReturn(file);
+    when(objectStorage.deleteObject("uploads/del2"))
+        .thenReturn(CompletableFuture.completedFuture(null));
+
+    User user = new User(42L, "test@mail.com", "password", null);
+
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      // Act
+      CompletableFuture<Void> result = fileService.deleteMyFile(user, tokenString);
+
+      // Assert: nothing outside the database before the commit
+      verify(fileRepository).delete(file);
+      verifyNoInteractions(objectStorage, downloadUrls);
+      verify(tokenService, never()).evictToken(any());
+      assertFalse(result.isDone());
+
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(TransactionSynchronization::afterCommit);
+
+      verify(tokenService).evictToken(tokenString);
+      verify(downloadUrls).evict("uploads/del2");
+      assertTrue(result.isDone());
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
   }
 }
@@ -0,0 +1,208 @@
+package com.datashare.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.datashare.api.configuration.CacheConfig;
+import com.datashare.api.dto.FileHistory;
+import com.datashare.api.dto.FileListing;
+import com.datashare.api.repository.FileRepository;
+import com.datashare.api.repository.FileVersionRepository;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/** FileVersions Unit Test Set */
+@ExtendWith(MockitoExtension.class)
+public class FileVersionsTest {
+
+  @Mock FileVersionRepository repository;
+
+  @Mock FileRepository fileRepository;
+
+  @Mock PlatformTransactionManager transactionManager;
+
+  private Cache history;
+
+  private FileVersions fileVersions;
+
+  @BeforeEach
+  void setUp() {
+    CacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.FILE_HISTORY);
+    history = cacheManager.getCache(CacheConfig.FILE_HISTORY);
+    fileVersions = new FileVersions(repository, fileRepository, transactionManager, cacheManager);
+  }
+
+  /** Test that a user without version is at version 0 */
+  @Test
+  @DisplayName("UNIT-VERSION-001: Version 0 until the first change")
+  public void shouldStartAtZero() {
+    // Arrange
+    when(repository.findVersionByUserId(1L)).thenReturn(Optional.empty(), Optional.of(4L));
+
+    // Act & Assert
+    assertThat(fileVersions.current(1L)).isZero();
+    assertThat(fileVersions.current(1L)).isEqualTo(4);
+  }
+
+  /** Test that the first change inserts the version, the next ones increment it */
+  @Test
+  @DisplayName("UNIT-VERSION-002: First change inserts the version, null owners ignored")
+  public void shouldInsertFirstVersion() {
+    // Arrange
+    when(repository.increment(1L)).thenReturn(0);
+    when(repository.insertFirst(1L)).thenReturn(1);
+    when(repository.increment(2L)).thenReturn(1);
+
+    // Act
+    fileVersions.changed(Arrays.asList(1L, 2L, null, 2L));
+    fileVersions.changed((Long) null);
+
+    // Assert: one transaction for all the owners
+    verify(repository).insertFirst(1L);
+    verify(repository, never()).insertFirst(2L);
+    verify(transactionManager).commit(any());
+  }
+
+  /** Test that a version created by a concurrent transaction is incremented */
+  @Test
+  @DisplayName("UNIT-VERSION-003: Concurrent first version incremented")
+  public void shouldIncrementConcurrentFirstVersion() {
+    // Arrange
+    when(repository.increment(1L)).thenReturn(0, 1);
+    when(repository.insertFirst(1L)).thenReturn(0);
+
+    // Act
+    fileVersions.changed(1L);
+
+    // Assert
+    verify(repository, times(2)).increment(1L);
+    verify(repository).insertFirst(1L);
+  }
+
+  /** Test that a change made in a transaction is bumped in it, and evicted after its commit */
+  @Test
+  @DisplayName("UNIT-VERSION-004: Change in a transaction bumped in it, evicted after commit")
+  public void shouldBumpInTransaction() {
+    // Arrange
+    when(repository.increment(1L)).thenReturn(1);
+    history.put(1L, new FileHistory(1L, List.of()));
+    TransactionSynchronizationManager.initSynchronization();
+    TransactionSynchronizationManager.setActualTransactionActive(true);
+    try {
+      // Act
+      fileVersions.changed(1L);
+
+      // Assert: bumped in the caller's transaction, still cached until the commit
+      verify(repository).increment(1L);
+      verifyNoInteractions(transactionManager);
+      assertThat(history.get(1L)).isNotNull();
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(TransactionSynchronization::afterCommit);
+      assertThat(history.get(1L)).isNull();
+    } finally {
+      TransactionSynchronizationManager.setActualTransactionActive(false);
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  /** Test that the history head is cached until a change of the list is recorded */
+  @Test
+  @DisplayName("UNIT-VERSION-005: History head cached until the next change")
+  public void shouldCacheHistoryUntilChanged() {
+    // Arrange
+    Instant now = Instant.parse("2026-01-01T10:00:00Z");
+    FileListing row = new FileListing(1L, "a.txt", "text/plain", 10L, "TOKEN1", now, now);
+    Limit head = Limit.of(FileService.DEFAULT_PAGE_SIZE + 1);
+    when(repository.findVersionByUserId(1L))
+        .thenReturn(Optional.of(2L), Optional.of(2L), Optional.of(3L));
+    when(fileRepository.findListingByUserId(1L, Instant.EPOCH, 0L, head))
+        .thenReturn(List.of(row), List.of());
+    when(repository.increment(1L)).thenReturn(1);
+
+    // Act
+    FileHistory first = fileVersions.history(1L);
+    FileHistory cached = fileVersions.history(1L);
+    fileVersions.changed(1L);
+    FileHistory reloaded = fileVersions.history(1L);
+
+    // Assert: one load before the change, one after
+    assertThat(first).isSameAs(cached);
+    assertThat(first).isEqualTo(new FileHistory(2L, List.of(row)));
+    assertThat(first.nextExpiration()).isEqualTo(now);
+    assertThat(reloaded).isEqualTo(new FileHistory(3L, List.of()));
+    verify(fileRepository, times(2)).findListingByUserId(1L, Instant.EPOCH, 0L, head);
+  }
+
+  /** Test that a failed bump of an already committed change does not fail it */
+  @Test
+  @DisplayName("UNIT-VERSION-006: Failed bump outside a transaction logged, head evicted")
+  public void shouldNotFailCommittedChange() {
+    // Arrange
+    when(repository.increment(1L)).thenThrow(new QueryTimeoutException("timeout"));
+    history.put(1L, new FileHistory(1L, List.of()));
+
+    // Act
+    fileVersions.changed(1L);
+
+    // Assert
+    verify(transactionManager).rollback(any());
+    assertThat(history.get(1L)).isNull();
+  }
+
+  /** Test that a head loaded across a change is not kept in the cache */
+  @Test
+  @DisplayName("UNIT-VERSION-007: History head loaded across a change not cached")
+  public void shouldNotCacheHistoryLoadedAcrossChange() {
+    // Arrange: the version moves between the load and the check
+    Limit head = Limit.of(FileService.DEFAULT_PAGE_SIZE + 1);
+    when(repository.findVersionByUserId(1L))
+        .thenReturn(Optional.of(2L), Optional.of(3L), Optional.of(3L));
+    when(fileRepository.findListingByUserId(1L, Instant.EPOCH, 0L, head)).thenReturn(List.of());
+
+    // Act
+    FileHistory stale = fileVersions.history(1L);
+
+    // Assert: served once, then reloaded under the new version
+    assertThat(stale.version()).isEqualTo(2L);
+    assertThat(history.get(1L)).isNull();
+    assertThat(fileVersions.history(1L).version()).isEqualTo(3L);
+    assertThat(history.get(1L)).isNotNull();
+  }
+
+  /** Test that the version is read from the cached head, or alone from its row on a miss */
+  @Test
+  @DisplayName("UNIT-VERSION-008: Version read without loading the history head")
+  public void shouldReadVersionWithoutLoadingHistory() {
+    // Arrange
+    when(repository.findVersionByUserId(1L)).thenReturn(Optional.of(4L));
+    history.put(2L, new FileHistory(7L, List.of()));
+
+    // Act & Assert
+    assertThat(fileVersions.version(1L)).isEqualTo(4L);
+    assertThat(fileVersions.version(2L)).isEqualTo(7L);
+    assertThat(history.get(1L)).isNull();
+    verify(repository, never()).findVersionByUserId(2L);
+    verifyNoInteractions(fileRepository);
+  }
+}
@@ -0,0 +1,163 @@
+package com.datashare.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import com.datashare.api.cache.CacheInvalidation;
+import com.datashare.api.cache.InvalidationBus;
+import com.datashare.api.cache.KeysAdded;
+import com.datashare.api.cache.LoopbackInvalidationBus;
+import com.datashare.api.configuration.TokenProperties;
+import com.datashare.api.repository.TokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/** KnownTokens Unit Test Set, two instances sharing a loopback bus */
+@ExtendWith(MockitoExtension.class)
+public class KnownTokensTest {
+
+  @Mock TokenRepository tokenRepository;
+
+  @Mock PlatformTransactionManager transactionManager;
+
+  private final LoopbackInvalidationBus bus = new LoopbackInvalidationBus();
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private KnownTokens nodeA;
+
+  private KnownTokens nodeB;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    nodeA = knownTokens(meterRegistry);
+    nodeB = knownTokens(new SimpleMeterRegistry());
+  }
+
+  /** Test that guesses are rejected once the filter is built, and issued tokens never */
+  @Test
+  @DisplayName("UNIT-KNOWN-001: Guesses rejected once built, false positives counted")
+  void shouldRejectGuessesOnceBuilt() {
+    // Arrange
+    when(tokenRepository.streamTokenStrings()).thenReturn(Stream.of("ABCDEF", "GHJKLM"));
+
+    // Act & Assert: every token let through before the first build
+    assertThat(nodeA.isUnknown("GUESS2")).isFalse();
+    nodeA.notFound("GUESS2");
+    nodeA.rebuild();
+    assertThat(nodeA.isUnknown("ABCDEF")).isFalse();
+    assertThat(nodeA.isUnknown("GHJKLM")).isFalse();
+    assertThat(nodeA.isUnknown("GUESS2")).isTrue();
+    nodeA.notFound("GHJKLM");
+
+    // Assert
+    assertThat(filterResults("rejected")).isEqualTo(1.0);
+    assertThat(filterResults("false-positive")).isEqualTo(1.0);
+  }
+
+  /** Test that a token issued on one instance is let through by the others */
+  @Test
+  @DisplayName("UNIT-KNOWN-002: Token issued on another instance let through")
+  void shouldAcceptTokenIssuedElsewhere() {
+    // Arrange
+    when(tokenRepository.streamTokenStrings()).thenReturn(Stream.empty(), Stream.empty());
+    nodeA.rebuild();
+    nodeB.rebuild();
+
+    // Act
+    nodeA.issued("NEWTKN");
+
+    // Assert
+    assertThat(nodeA.isUnknown("NEWTKN")).isFalse();
+    assertThat(nodeB.isUnknown("NEWTKN")).isFalse();
+    assertThat(nodeB.isUnknown("GUESS2")).isTrue();
+  }
+
+  /** Test that every token is let through while missed announcements are not rebuilt */
+  @Test
+  @DisplayName("UNIT-KNOWN-003: Missed invalidations let every token through until rebuilt")
+  void shouldLetThroughUntilRebuiltAfterGap() throws Exception {
+    // Arrange
+    CountDownLatch release = new CountDownLatch(1);
+    when(tokenRepository.streamTokenStrings())
+        .thenReturn(Stream.of("ABCDEF"))
+        .thenAnswer(
+            invocation -> {
+              release.await(5, TimeUnit.SECONDS);
+              return Stream.of("ABCDEF", "MISSED");
+            });
+    nodeA.rebuild();
+
+    // Act
+    bus.publish(CacheInvalidation.all());
+
+    // Assert: let through during the rebuild, rejected after
+    assertThat(nodeA.isUnknown("MISSED")).isFalse();
+    release.countDown();
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!nodeA.isUnknown("GUESS2") && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(nodeA.isUnknown("GUESS2")).isTrue();
+    assertThat(nodeA.isUnknown("MISSED")).isFalse();
+  }
+
+  /** Test that the tokens issued by a transaction are announced in one message after its commit */
+  @Test
+  @DisplayName("UNIT-KNOWN-004: Tokens of a transaction announced at once after commit")
+  void shouldAnnounceTransactionTokensAtOnce() {
+    // Arrange
+    when(tokenRepository.streamTokenStrings()).thenReturn(Stream.empty());
+    nodeB.rebuild();
+    List<KeysAdded> announced = new CopyOnWriteArrayList<>();
+    bus.subscribeAdded(announced::add);
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      // Act
+      nodeA.issued("TOKEN1");
+      nodeA.issued("TOKEN2");
+      nodeA.issued("TOKEN3");
+
+      // Assert: nothing before the commit, then a single message
+      assertThat(announced).isEmpty();
+      assertThat(nodeB.isUnknown("TOKEN2")).isTrue();
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(TransactionSynchronization::afterCommit);
+      assertThat(announced).hasSize(1);
+      assertThat(announced.getFirst().keys()).containsExactly("TOKEN1", "TOKEN2", "TOKEN3");
+      assertThat(nodeB.isUnknown("TOKEN2")).isFalse();
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  private KnownTokens knownTokens(SimpleMeterRegistry registry) {
+    StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of("bus", bus));
+    return new KnownTokens(
+        tokenRepository,
+        transactionManager,
+        new TokenProperties(),
+        beans.getBeanProvider(InvalidationBus.class),
+        registry);
+  }
+
+  private double filterResults(String result) {
+    return meterRegistry.get("datashare.tokens.filter").tag("result", result).counter().count();
+  }
+}
@@ -0,0 +1,234 @@
+package com.datashare.api.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.datashare.api.configuration.S3Properties;
+import com.datashare.api.dto.MultipartCompleteRequest;
+import com.datashare.api.dto.MultipartUploadRequest;
+import com.datashare.api.dto.MultipartUploadResponse;
+import com.datashare.api.entities.File;
+import com.datashare.api.entities.Token;
+import com.datashare.api.entities.User;
+import com.datashare.api.handler.UserNotFileOwnerException;
+import com.datashare.api.repository.FileRepository;
+import java.net.URI;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedUploadPartRequest;
+import software.amazon.awssdk.services.s3.presigner.model.UploadPartPresignRequest;
+
+/** MultipartUploadService Unit Test Set */
+@ExtendWith(MockitoExtension.class)
+public class MultipartUploadServiceTest {
+
+  private static final long MIB = 1024 * 1024;
+
+  @Mock S3Presigner presigner;
+
+  @Mock S3Properties s3Properties;
+
+  @Mock FileRepository fileRepository;
+
+  @Mock TokenService tokenService;
+
+  @Mock S3Client s3Client;
+
+  @Mock FileVersions fileVersions;
+
+  @Mock PresignedDownloadUrls downloadUrls;
+
+  @InjectMocks MultipartUploadService multipartUploadService;
+
+  /** Test that a multipart upload is started with one presigned URL per part */
+  @Test
+  @DisplayName("UNIT-MULTIPART-001: Multipart upload started with one URL per part")
+  public void shouldCreateMultipartUpload() throws Exception {
+    // Arrange: 12 MiB in 5 MiB parts
+    when(s3Properties.getBucket()).thenReturn("test-bucket");
+    when(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+        .thenReturn(CreateMultipartUploadResponse.builder().uploadId("UPLOAD-1").build());
+    PresignedUploadPartRequest presignedPart = mock(PresignedUploadPartRequest.class);
+    when(presignedPart.url()).thenReturn(new URI("https://s3/test-bucket/part").toURL());
+    when(presigner.presignUploadPart(any(UploadPartPresignRequest.class)))
+        .thenReturn(presignedPart);
+    Token token = new Token();
+    token.setTokenString("TOKEN1");
+    token.setExpiresAt(Instant.now());
+    when(tokenService.generateToken(any(File.class), any(Instant.class))).thenReturn(token);
+
+    // Act
+    MultipartUploadResponse response =
+        multipartUploadService.createMultipartUpload(
+            new MultipartUploadRequest("video.mp4", "video/mp4", 12 * MIB, 5 * MIB, 3), 1L);
+
+    // Assert
+    assertEquals("UPLOAD-1", response.getUploadId());
+    assertEquals("TOKEN1", response.getTokenString());
+    assertEquals(5 * MIB, response.getPartSize());
+    assertEquals(3, response.getPartUrls().size());
+
+    ArgumentCaptor<UploadPartPresignRequest> captor =
+        ArgumentCaptor.forClass(UploadPartPresignRequest.class);
+    verify(presigner, times(3)).presignUploadPart(captor.capture());
+    assertEquals(
+        List.of(1, 2, 3),
+        captor.getAllValues().stream()
+            .map(request -> request.uploadPartRequest().partNumber())
+            .sorted()
+            .toList());
+    assertTrue(
+        captor.getAllValues().stream()
+            .allMatch(request -> "UPLOAD-1".equals(request.uploadPartRequest().uploadId())));
+  }
+
+  /** Test that parts smaller than the S3 minimum are rejected */
+  @Test
+  @DisplayName("UNIT-MULTIPART-002: Part size below 5 MiB rejected")
+  public void shouldRejectTooSmallParts() {
+    MultipartUploadRequest request =
+        new MultipartUploadRequest("video.mp4", "video/mp4", 12 * MIB, MIB, null);
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> multipartUploadService.createMultipartUpload(request, 1L));
+    verifyNoInteractions(s3Client);
+  }
+
+  /** Test that the file checks also apply to multipart uploads */
+  @Test
+  @DisplayName("UNIT-MULTIPART-003: Forbidden extension rejected")
+  public void shouldRejectForbiddenExtension() {
+    MultipartUploadRequest request =
+        new MultipartUploadRequest(
+            "virus.exe", "application/octet-stream", 12 * MIB, 5 * MIB, null);
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> multipartUploadService.createMultipartUpload(request, 1L));
+    verifyNoInteractions(s3Client);
+  }
+
+  /** Test that the upload is completed with the parts in ascending order */
+  @Test
+  @DisplayName("UNIT-MULTIPART-004: Upload completed with sorted parts")
+  public void shouldCompleteMultipartUpload() throws Exception {
+    // Arrange
+    when(s3Properties.getBucket()).thenReturn("test-bucket");
+    when(tokenService.validateToken("TOKEN1")).thenReturn(file(42L));
+    MultipartCompleteRequest request =
+        new MultipartCompleteRequest(
+            "UPLOAD-1",
+            List.of(
+                new MultipartCompleteRequest.Part(2, "etag-2"),
+                new MultipartCompleteRequest.Part(1, "etag-1")));
+
+    // Act
+    multipartUploadService.completeMultipartUpload(user(42L), "TOKEN1", request);
+
+    // Assert
+    ArgumentCaptor<CompleteMultipartUploadRequest> captor =
+        ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+    verify(s3Client).completeMultipartUpload(captor.capture());
+    CompleteMultipartUploadRequest completed = captor.getValue();
+    assertEquals("uploads/key-video.mp4", completed.key());
+    assertEquals("UPLOAD-1", completed.uploadId());
+    assertEquals(1, completed.multipartUpload().parts().get(0).partNumber());
+    assertEquals("etag-2", completed.multipartUpload().parts().get(1).eTag());
+  }
+
+  /** Test that only the owner can complete an upload */
+  @Test
+  @DisplayName("UNIT-MULTIPART-005: Completion by non-owner is forbidden")
+  public void shouldRejectCompletionByNonOwner() throws Exception {
+    // Arrange
+    when(tokenService.validateToken("TOKEN1")).thenReturn(file(100L));
+    MultipartCompleteRequest request =
+        new MultipartCompleteRequest(
+            "UPLOAD-1", List.of(new MultipartCompleteRequest.Part(1, "etag-1")));
+
+    // Act & Assert
+    assertThrows(
+        UserNotFileOwnerException.class,
+        () -> multipartUploadService.completeMultipartUpload(user(42L), "TOKEN1", request));
+    verifyNoInteractions(s3Client);
+  }
+
+  /** Test that an aborted upload releases its parts and deletes the file metadata */
+  @Test
+  @DisplayName("UNIT-MULTIPART-006: Aborted upload deletes the file")
+  public void shouldAbortMultipartUpload() throws Exception {
+    // Arrange
+    File file = file(42L);
+    when(s3Properties.getBucket()).thenReturn("test-bucket");
+    when(tokenService.validateToken("TOKEN1")).thenReturn(file);
+
+    // Act
+    multipartUploadService.abortMultipartUpload(user(42L), "TOKEN1", "UPLOAD-1");
+
+    // Assert
+    ArgumentCaptor<AbortMultipartUploadRequest> captor =
+        ArgumentCaptor.forClass(AbortMultipartUploadRequest.class);
+    verify(s3Client).abortMultipartUpload(captor.capture());
+    assertEquals("UPLOAD-1", captor.getValue().uploadId());
+    verify(fileRepository).delete(file);
+    verify(tokenService).evictToken("TOKEN1");
+    verify(downloadUrls).evict("uploads/key-video.mp4");
+  }
+
+  /** Test that the S3 upload is aborted when the file metadata cannot be stored */
+  @Test
+  @DisplayName("UNIT-MULTIPART-007: Failed insert aborts the started upload")
+  public void shouldAbortUploadWhenInsertFails() throws Exception {
+    // Arrange: a single part
+    when(s3Properties.getBucket()).thenReturn("test-bucket");
+    when(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+        .thenReturn(CreateMultipartUploadResponse.builder().uploadId("UPLOAD-1").build());
+    PresignedUploadPartRequest presignedPart = mock(PresignedUploadPartRequest.class);
+    when(presignedPart.url()).thenReturn(new URI("https://s3/test-bucket/part").toURL());
+    when(presigner.presignUploadPart(any(UploadPartPresignRequest.class)))
+        .thenReturn(presignedPart);
+    when(tokenService.generateToken(any(File.class), any(Instant.class)))
+        .thenThrow(new IllegalStateException("database down"));
+    MultipartUploadRequest request =
+        new MultipartUploadRequest("video.mp4", "video/mp4", 5 * MIB, 5 * MIB, null);
+
+    // Act
+    assertThrows(
+        IllegalStateException.class,
+        () -> multipartUploadService.createMultipartUpload(request, 1L));
+
+    // Assert
+    ArgumentCaptor<AbortMultipartUploadRequest> captor =
+        ArgumentCaptor.forClass(AbortMultipartUploadRequest.class);
+    verify(s3Client).abortMultipartUpload(captor.capture());
+    assertEquals("UPLOAD-1", captor.getValue().uploadId());
+    verifyNoInteractions(fileVersions);
+  }
+
+  private static File file(Long userId) {
+    File file = new File();
+    file.setId(1L);
+    file.setUserId(userId);
+    file.setS3Key("uploads/key-video.mp4");
+    return file;
+  }
+
+  private static User user(Long id) {
+    return new User(id, "test@mail.com", "password", null);
+  }
+}
@@ -0,0 +1,173 @@
+package com.datashare.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datashare.api.configuration.S3Properties;
+import com.datashare.api.monitoring.DatashareMetrics;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectResponse;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Error;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+/** ObjectStorage Unit Test Set */
+@ExtendWith(MockitoExtension.class)
+public class ObjectStorageTest {
+
+  @Mock S3Client s3Client;
+
+  @Mock S3AsyncClient s3AsyncClient;
+
+  @Mock S3Properties s3Properties;
+
+  @Mock DatashareMetrics metrics;
+
+  @InjectMocks ObjectStorage objectStorage;
+
+  /** Test that keys are deleted in chunks of at most 1000 keys */
+  @Test
+  @DisplayName("UNIT-STORAGE-001: Objects deleted in chunks of 1000 keys")
+  public void shouldDeleteObjectsInChunks() {
+    // Arrange
+    List<String> keys = IntStream.range(0, 2_500).mapToObj(i -> "uploads/key-" + i).toList();
+    when(s3Properties.getBucket()).thenReturn("test-bucket");
+    when(s3Client.deleteObjects(any(DeleteObjectsRequest.class)))
+        .thenReturn(DeleteObjectsResponse.builder().build());
+
+    // Act
+    Set<String> deleted = objectStorage.deleteObjects(keys);
+
+    // Assert
+    assertThat(deleted).hasSize(2_500);
+    ArgumentCaptor<DeleteObjectsRequest> captor =
+        ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+    verify(s3Client, times(3)).deleteObjects(captor.capture());
+    assertThat(captor.getAllValues())
+        .extracting(request -> request.delete().objects().size())
+        .containsExactly(1_000, 1_000, 500);
+    assertThat(captor.getAllValues()).allMatch(request -> request.delete().quiet());
+  }
+
+  /** Test that keys in error are not reported as deleted */
+  @Test
+  @DisplayName("UNIT-STORAGE-002: Keys in error are not reported as deleted")
+  public void shouldLeaveOutKeysInError() {
+    // Arrange
+    when(s3Properties.getBucket()).thenReturn("test-bucket");
+    when(s3Client.deleteObjects(any(DeleteObjectsRequest.class)))
+        .thenReturn(
+            DeleteObjectsResponse.builder()
+                .errors(S3Error.builder().key("b").code("AccessDenied").build())
+                .build());
+
+    // Act
+    Set<String> deleted = objectStorage.deleteObjects(List.of("a", "b", "c"));
+
+    // Assert
+    assertThat(deleted).containsExactlyInAnyOrder("a", "c");
+  }
+
+  /** Test that a failed call leaves out all its keys */
+  @Test
+  @DisplayName("UNIT-STORAGE-003: Failed call leaves out all its keys")
+  public void shouldLeaveOutKeysOfFailedCall() {
+    // Arrange
+    when(s3Properties.getBucket()).thenReturn("test-bucket");
+    when(s3Client.deleteObjects(any(DeleteObjectsRequest.class)))
+        .thenThrow(S3Exception.builder().message("Service unavailable").build());
+
+    // Act & Assert
+    assertThat(objectStorage.deleteObjects(List.of("a", "b"))).isEmpty();
+  }
+
+  /** Test that a single object is deleted through the asynchronous client */
+  @Test
+  @DisplayName("UNIT-STORAGE-004: Object deleted asynchronously")
+  public void shouldDeleteObjectAsynchronously() {
+    // Arrange
+    CompletableFuture<DeleteObjectResponse> response = new CompletableFuture<>();
+    when(s3Properties.getBucket()).thenReturn("test-bucket");
+    when(s3AsyncClient.deleteObject(any(DeleteObjectRequest.class))).thenReturn(response);
+
+    // Act
+    CompletableFuture<Void> deletion = objectStorage.deleteObject("uploads/a");
+
+    // Assert: completed with the S3 call only
+    assertThat(deletion).isNotDone();
+    response.complete(DeleteObjectResponse.builder().build());
+    assertThat(deletion).isCompleted();
+    ArgumentCaptor<DeleteObjectRequest> captor = ArgumentCaptor.forClass(DeleteObjectRequest.class);
+    verify(s3AsyncClient).deleteObject(captor.capture());
+    assertThat(captor.getValue().bucket()).isEqualTo("test-bucket");
+    assertThat(captor.getValue().key()).isEqualTo("uploads/a");
+    verify(metrics).s3Delete(eq(true), anyLong());
+  }
+
+  /** Test that a failed asynchronous delete fails its future */
+  @Test
+  @DisplayName("UNIT-STORAGE-005: Failed asynchronous delete fails the future")
+  public void shouldFailFutureOfFailedDelete() {
+    // Arrange
+    when(s3Properties.getBucket()).thenReturn("test-bucket");
+    when(s3AsyncClient.deleteObject(any(DeleteObjectRequest.class)))
+        .thenReturn(
+            CompletableFuture.failedFuture(
+                S3Exception.builder().message("Service unavailable").build()));
+
+    // Act & Assert
+    assertThatThrownBy(() -> objectStorage.deleteObject("uploads/a").join())
+        .isInstanceOf(CompletionException.class)
+        .hasCauseInstanceOf(S3Exception.class);
+    verify(metrics).s3Delete(eq(false), anyLong());
+  }
+
+  /** Test that the existence check maps a missing key to false */
+  @Test
+  @DisplayName("UNIT-STORAGE-006: Existence check of present and missing objects")
+  public void shouldCheckObjectExistence() {
+    // Arrange
+    when(s3Properties.getBucket()).thenReturn("test-bucket");
+    when(s3AsyncClient.headObject(any(HeadObjectRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(HeadObjectResponse.builder().build()))
+        .thenReturn(CompletableFuture.failedFuture(NoSuchKeyException.builder().build()))
+        .thenReturn(
+            CompletableFuture.failedFuture(
+                S3Exception.builder().statusCode(404).message("Not Found").build()))
+        .thenReturn(
+            CompletableFuture.failedFuture(
+                S3Exception.builder().statusCode(503).message("Slow Down").build()));
+
+    // Act & Assert
+    assertThat(objectStorage.exists("present").join()).isTrue();
+    assertThat(objectStorage.exists("missing").join()).isFalse();
+    assertThat(objectStorage.exists("missing-head").join()).isFalse();
+    assertThatThrownBy(() -> objectStorage.exists("throttled").join())
+        .isInstanceOf(CompletionException.class)
+        .hasCauseInstanceOf(S3Exception.class);
+  }
+}
@@ -0,0 +1,145 @@
+package com.datashare.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datashare.api.configuration.S3Properties;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
+
+/** Unit Test Set for the presigned download URLs memo */
+@ExtendWith(MockitoExtension.class)
+public class PresignedDownloadUrlsTest {
+
+  private static final String KEY = "uploads/uuid-document.pdf";
+
+  @Mock S3Presigner presigner;
+
+  private final AtomicLong nanos = new AtomicLong();
+
+  private S3Properties properties;
+
+  private PresignedDownloadUrls downloadUrls;
+
+  @BeforeEach
+  void setUp() {
+    properties = new S3Properties();
+    properties.setBucket("test-bucket");
+    // URLs valid 10 minutes, handed out for 8 minutes and re-signed after 7 minutes
+    downloadUrls = new PresignedDownloadUrls(presigner, properties, nanos::get, Runnable::run);
+  }
+
+  /** Test that a URL is signed once and then reused */
+  @Test
+  @DisplayName("UNIT-PRESIGN-001: URL is reused within its validity window")
+  void shouldReuseUrlWithinValidityWindow() {
+
+    // GIVEN a signed URL
+    PresignedGetObjectRequest first = mock(PresignedGetObjectRequest.class);
+    when(presigner.presignGetObject(any(GetObjectPresignRequest.class))).thenReturn(first);
+
+    // WHEN requesting it several times before the refresh point
+    downloadUrls.get(KEY);
+    advance(Duration.ofMinutes(5));
+    PresignedGetObjectRequest reused = downloadUrls.get(KEY);
+
+    // THEN it is signed once with the configured validity
+    assertThat(reused).isSameAs(first);
+    ArgumentCaptor<GetObjectPresignRequest> captor =
+        ArgumentCaptor.forClass(GetObjectPresignRequest.class);
+    verify(presigner, times(1)).presignGetObject(captor.capture());
+    assertThat(captor.getValue().signatureDuration()).isEqualTo(Duration.ofMinutes(10));
+    assertThat(captor.getValue().getObjectRequest().bucket()).isEqualTo("test-bucket");
+    assertThat(captor.getValue().getObjectRequest().key()).isEqualTo(KEY);
+  }
+
+  /** Test that a URL is re-signed shortly before it stops being handed out */
+  @Test
+  @DisplayName("UNIT-PRESIGN-002: URL is re-signed before its minimum remaining lifetime")
+  void shouldResignUrlBeforeMinimumRemainingLifetime() {
+
+    // GIVEN a signed URL
+    PresignedGetObjectRequest first = mock(PresignedGetObjectRequest.class);
+    PresignedGetObjectRequest second = mock(PresignedGetObjectRequest.class);
+    when(presigner.presignGetObject(any(GetObjectPresignRequest.class))).thenReturn(first, second);
+    downloadUrls.get(KEY);
+
+    // WHEN requesting it after the refresh point
+    advance(Duration.ofMinutes(7).plusSeconds(1));
+    downloadUrls.get(KEY);
+
+    // THEN it is re-signed and the new URL is handed out
+    assertThat(downloadUrls.get(KEY)).isSameAs(second);
+    verify(presigner, times(2)).presignGetObject(any(GetObjectPresignRequest.class));
+  }
+
+  /** Test that a URL without its minimum remaining lifetime is never handed out */
+  @Test
+  @DisplayName("UNIT-PRESIGN-003: URL is not handed out past its minimum remaining lifetime")
+  void shouldNotHandOutUrlPastMinimumRemainingLifetime() {
+
+    // GIVEN a signed URL not requested since
+    PresignedGetObjectRequest first = mock(PresignedGetObjectRequest.class);
+    PresignedGetObjectRequest second = mock(PresignedGetObjectRequest.class);
+    when(presigner.presignGetObject(any(GetObjectPresignRequest.class))).thenReturn(first, second);
+    downloadUrls.get(KEY);
+
+    // WHEN requesting it with less than 2 minutes left
+    advance(Duration.ofMinutes(8).plusSeconds(1));
+
+    // THEN a new URL is signed
+    assertThat(downloadUrls.get(KEY)).isSameAs(second);
+  }
+
+  /** Test that an evicted URL is signed again */
+  @Test
+  @DisplayName("UNIT-PRESIGN-004: Evicted URL is signed again")
+  void shouldSignEvictedUrlAgain() {
+
+    // GIVEN a signed URL
+    when(presigner.presignGetObject(any(GetObjectPresignRequest.class)))
+        .thenReturn(mock(PresignedGetObjectRequest.class));
+    downloadUrls.get(KEY);
+
+    // WHEN it is evicted and requested again
+    downloadUrls.evict(KEY);
+    downloadUrls.get(KEY);
+
+    // THEN it is signed again
+    verify(presigner, times(2)).presignGetObject(any(GetObjectPresignRequest.class));
+  }
+
+  /** Test that inconsistent settings are rejected */
+  @Test
+  @DisplayName("UNIT-PRESIGN-005: Minimum remaining lifetime must be shorter than the validity")
+  void shouldRejectInconsistentSettings() {
+
+    // GIVEN a minimum remaining lifetime longer than the validity
+    properties.getDownloadUrl().setMinRemaining(Duration.ofMinutes(15));
+
+    // WHEN creating the memo THEN it is rejected
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new PresignedDownloadUrls(presigner, properties, nanos::get, Runnable::run));
+  }
+
+  /** Advances the memo clock */
+  private void advance(Duration duration) {
+    nanos.addAndGet(duration.toNanos());
+  }
+}
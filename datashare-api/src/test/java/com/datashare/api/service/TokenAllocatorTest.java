@@ -0,0 +1,187 @@
+package com.datashare.api.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** TokenAllocator Unit Test Set */
+public class TokenAllocatorTest {
+
+  /** Test that tokens are valid 6-character strings of the alphabet */
+  @Test
+  @DisplayName("UNIT-ALLOC-001: Allocated tokens use the token alphabet")
+  public void shouldAllocateTokensOfTheAlphabet() {
+    // Arrange
+    TokenAllocator allocator = new TokenAllocator("key", 10, new AtomicLong()::getAndIncrement);
+
+    // Act & Assert
+    for (int i = 0; i < 1000; i++) {
+      String token = allocator.next();
+      assertEquals(TokenAllocator.TOKEN_LENGTH, token.length());
+      assertTrue(token.chars().allMatch(c -> TokenAllocator.ALPHABET.indexOf(c) >= 0), token);
+    }
+  }
+
+  /** Test that the permutation is a bijection and depends on the key */
+  @Test
+  @DisplayName("UNIT-ALLOC-002: Permutation is injective and keyed")
+  public void shouldPermuteWithoutCollisionsDependingOnKey() {
+    // Arrange
+    TokenAllocator first = new TokenAllocator("key-1", 1, new AtomicLong()::getAndIncrement);
+    TokenAllocator second = new TokenAllocator("key-2", 1, new AtomicLong()::getAndIncrement);
+    Set<Long> images = new HashSet<>();
+    int differences = 0;
+
+    // Act
+    for (long value = 0; value < 100_000; value++) {
+      long image = first.permute(value);
+      assertTrue(image >= 0 && image < TokenAllocator.TOKEN_SPACE);
+      assertTrue(images.add(image), "Collision for " + value);
+      if (image != second.permute(value)) {
+        differences++;
+      }
+    }
+
+    // Assert consecutive values are spread over the space, differently for another key
+    assertTrue(differences > 99_000);
+    assertNotEquals(first.permute(0) + 1, first.permute(1));
+  }
+
+  /** Test that counter values are reserved by blocks from the shared source */
+  @Test
+  @DisplayName("UNIT-ALLOC-003: Counter blocks are reserved once per block size")
+  public void shouldReserveBlocks() {
+    // Arrange
+    AtomicLong sequence = new AtomicLong();
+    TokenAllocator allocator = new TokenAllocator("key", 100, sequence::getAndIncrement);
+
+    // Act
+    for (int i = 0; i < 250; i++) {
+      allocator.next();
+    }
+
+    // Assert
+    assertEquals(3, sequence.get());
+  }
+
+  /** Test that the allocator refuses to wrap around the token space */
+  @Test
+  @DisplayName("UNIT-ALLOC-004: Exhausted token space is reported")
+  public void shouldFailWhenTokenSpaceIsExhausted() {
+    // Arrange
+    long lastBlock = TokenAllocator.TOKEN_SPACE / 1000;
+    TokenAllocator allocator = new TokenAllocator("key", 1000, () -> lastBlock);
+
+    // Act & Assert
+    IllegalStateException exception = assertThrows(IllegalStateException.class, allocator::next);
+    assertEquals("Token space exhausted", exception.getMessage());
+  }
+
+  /** Test that a missing key is rejected */
+  @Test
+  @DisplayName("UNIT-ALLOC-005: Allocator requires a key")
+  public void shouldRequireKey() {
+    assertThrows(IllegalArgumentException.class, () -> new TokenAllocator(" ", 10, () -> 0L));
+    assertThrows(IllegalArgumentException.class, () -> new TokenAllocator(null, 10, () -> 0L));
+  }
+
+  /**
+   * Test that millions of tokens allocated concurrently by two instances, sharing the key and the
+   * block sequence, never collide
+   */
+  @Test
+  @DisplayName("UNIT-ALLOC-006: Concurrent allocations never collide")
+  public void shouldNeverCollideUnderConcurrency() throws Exception {
+    // Arrange
+    int threads = 16;
+    int perThread = 250_000;
+    AtomicLong sequence = new AtomicLong();
+    List<TokenAllocator> instances =
+        List.of(
+            new TokenAllocator("shared-key", 1000, sequence::getAndIncrement),
+            new TokenAllocator("shared-key", 1000, sequence::getAndIncrement));
+
+    List<Callable<int[]>> tasks = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      TokenAllocator allocator = instances.get(t % instances.size());
+      tasks.add(
+          () -> {
+            int[] values = new int[perThread];
+            for (int i = 0; i < perThread; i++) {
+              values[i] = decode(allocator.next());
+            }
+            return values;
+          });
+    }
+
+    // Act
+    int[] all = new int[threads * perThread];
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      int offset = 0;
+      for (Future<int[]> future : executor.invokeAll(tasks)) {
+        System.arraycopy(future.get(), 0, all, offset, perThread);
+        offset += perThread;
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // Assert
+    Arrays.sort(all);
+    for (int i = 1; i < all.length; i++) {
+      assertNotEquals(all[i - 1], all[i], "Collision for " + TokenAllocator.encode(all[i]));
+    }
+  }
+
+  /** Test that the tokens of a legacy generator lying in the permutation's output are skipped */
+  @Test
+  @DisplayName("UNIT-ALLOC-007: Existing legacy tokens are skipped")
+  public void shouldSkipExistingTokens() {
+    // Arrange: a legacy token equal to the second output of the permutation
+    List<String> outputs = new ArrayList<>();
+    TokenAllocator reference = new TokenAllocator("key", 3, new AtomicLong()::getAndIncrement);
+    for (int i = 0; i < 4; i++) {
+      outputs.add(reference.next());
+    }
+    Set<String> legacy = Set.of(outputs.get(1));
+    List<List<String>> lookups = new ArrayList<>();
+    TokenAllocator allocator =
+        new TokenAllocator(
+            "key",
+            3,
+            new AtomicLong()::getAndIncrement,
+            tokens -> {
+              lookups.add(tokens);
+              return tokens.stream().filter(legacy::contains).toList();
+            });
+
+    // Act
+    List<String> allocated = List.of(allocator.next(), allocator.next(), allocator.next());
+
+    // Assert: the legacy token is never returned, each block is looked up once
+    assertEquals(List.of(outputs.get(0), outputs.get(2), outputs.get(3)), allocated);
+    assertEquals(2, lookups.size());
+    assertEquals(outputs.subList(0, 3), lookups.getFirst());
+  }
+
+  /** Decode a token string to its value in the token space */
+  private static int decode(String token) {
+    int value = 0;
+    for (int i = 0; i < token.length(); i++) {
+      value = value << 5 | TokenAllocator.ALPHABET.indexOf(token.charAt(i));
+    }
+    return value;
+  }
+}
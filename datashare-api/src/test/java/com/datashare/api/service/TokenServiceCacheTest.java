@@ -0,0 +1,131 @@
+package com.datashare.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datashare.api.configuration.CacheConfig;
+import com.datashare.api.dto.SharedFile;
+import com.datashare.api.handler.InvalidTokenException;
+import com.datashare.api.repository.FileRepository;
+import com.datashare.api.repository.TokenRepository;
+import java.time.Instant;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+/** Unit Test Set for the cached download token resolution */
+@SpringJUnitConfig(classes = {CacheConfig.class, TokenService.class})
+public class TokenServiceCacheTest {
+
+  private static final String TOKEN = "CACHED";
+
+  @MockitoBean private TokenRepository tokenRepository;
+
+  @MockitoBean private FileRepository fileRepository;
+
+  @MockitoBean private TokenAllocator tokenAllocator;
+
+  @MockitoBean private KnownTokens knownTokens;
+
+  @Autowired private TokenService tokenService;
+
+  @Autowired private CacheManager cacheManager;
+
+  @BeforeEach
+  void setUp() {
+    cacheManager.getCache(CacheConfig.TOKENS).clear();
+  }
+
+  /** Test that a resolved token is served from the cache on the next request */
+  @Test
+  @DisplayName("UNIT-TOKEN-CACHE-001: Repeated resolutions hit the database once")
+  void shouldServeRepeatedResolutionsFromCache() throws Exception {
+
+    // GIVEN a valid token
+    SharedFile sharedFile = sharedFile(Instant.now().plusSeconds(3600));
+    when(tokenRepository.findSharedFileByTokenString(TOKEN)).thenReturn(Optional.of(sharedFile));
+
+    // WHEN resolving the token twice
+    SharedFile first = tokenService.resolveToken(TOKEN);
+    SharedFile second = tokenService.resolveToken(TOKEN);
+
+    // THEN the same descriptor is returned and the repository is queried once
+    assertThat(second).isSameAs(first).isEqualTo(sharedFile);
+    verify(tokenRepository, times(1)).findSharedFileByTokenString(TOKEN);
+  }
+
+  /** Test that an evicted token is resolved again from the database */
+  @Test
+  @DisplayName("UNIT-TOKEN-CACHE-002: Evicted token is resolved again")
+  void shouldResolveEvictedTokenAgain() throws Exception {
+
+    // GIVEN a cached token
+    when(tokenRepository.findSharedFileByTokenString(TOKEN))
+        .thenReturn(Optional.of(sharedFile(Instant.now().plusSeconds(3600))));
+    tokenService.resolveToken(TOKEN);
+
+    // WHEN the token is evicted and resolved again
+    tokenService.evictToken(TOKEN);
+    tokenService.resolveToken(TOKEN);
+
+    // THEN the repository is queried again
+    verify(tokenRepository, times(2)).findSharedFileByTokenString(TOKEN);
+  }
+
+  /** Test that expired tokens are not cached */
+  @Test
+  @DisplayName("UNIT-TOKEN-CACHE-003: Expired tokens are not cached")
+  void shouldNotCacheExpiredToken() {
+
+    // GIVEN an expired token
+    when(tokenRepository.findSharedFileByTokenString(TOKEN))
+        .thenReturn(Optional.of(sharedFile(Instant.now().minusSeconds(1))));
+
+    // WHEN resolving the token twice
+    assertThrows(InvalidTokenException.class, () -> tokenService.resolveToken(TOKEN));
+    assertThrows(InvalidTokenException.class, () -> tokenService.resolveToken(TOKEN));
+
+    // THEN the repository is queried each time
+    verify(tokenRepository, times(2)).findSharedFileByTokenString(TOKEN);
+    assertThat(cacheManager.getCache(CacheConfig.TOKENS).get(TOKEN)).isNull();
+  }
+
+  /** Test that a cached descriptor is never served beyond the token expiration */
+  @Test
+  @DisplayName("UNIT-TOKEN-CACHE-004: Cached token expires with the token")
+  void shouldExpireCachedTokenWithTheToken() throws Exception {
+
+    // GIVEN a token about to expire
+    when(tokenRepository.findSharedFileByTokenString(TOKEN))
+        .thenReturn(Optional.of(sharedFile(Instant.now().plusMillis(200))));
+    tokenService.resolveToken(TOKEN);
+
+    // WHEN the token expiration is reached
+    Thread.sleep(300);
+
+    // THEN it is no longer served from the cache
+    assertThat(cacheManager.getCache(CacheConfig.TOKENS).get(TOKEN)).isNull();
+    assertThrows(InvalidTokenException.class, () -> tokenService.resolveToken(TOKEN));
+  }
+
+  /** Creates a shared file descriptor expiring at the given instant */
+  private static SharedFile sharedFile(Instant expiresAt) {
+    return new SharedFile(
+        1L,
+        2L,
+        "uploads/key-cached.pdf",
+        "cached.pdf",
+        "application/pdf",
+        1_000L,
+        Instant.now(),
+        expiresAt);
+  }
+}
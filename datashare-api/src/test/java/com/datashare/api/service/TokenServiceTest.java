@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
+import com.datashare.api.dto.SharedFile;
 import com.datashare.api.entities.File;
 import com.datashare.api.entities.Token;
 import com.datashare.api.handler.InvalidTokenException;
@@ -11,12 +12,14 @@ import com.datashare.api.repository.FileRepository;
 import com.datashare.api.repository.TokenRepository;
 import java.time.Instant;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 /** TokenService Unit Test Set */
@@ -27,6 +30,12 @@ public class TokenServiceTest {
 
   @Mock FileRepository fileRepository;
 
+  @Mock KnownTokens knownTokens;
+
+  @Spy
+  TokenAllocator tokenAllocator =
+      new TokenAllocator("test-key", 1000, new AtomicLong()::getAndIncrement);
+
   @InjectMocks TokenService tokenService;
 
   /** Test successful token generation */
@@ -293,4 +302,99 @@ public class TokenServiceTest {
     Token savedToken = tokenCaptor.getValue().getToken();
     assertEquals(expiresAt, savedToken.getExpiresAt());
   }
+
+  /** Test successful token resolution */
+  @Test
+  @DisplayName("UNIT-TOKEN-013: Token resolution returns the shared file descriptor")
+  public void shouldResolveTokenSuccessfully() throws Exception {
+    // Arrange
+    String tokenString = "RES123";
+    SharedFile sharedFile = sharedFile(Instant.now().plusSeconds(86400));
+    when(tokenRepository.findSharedFileByTokenString(tokenString))
+        .thenReturn(Optional.of(sharedFile));
+
+    // Act
+    SharedFile result = tokenService.resolveToken(tokenString);
+
+    // Assert
+    assertEquals(sharedFile, result);
+    verify(tokenRepository, never()).findByTokenString(any());
+  }
+
+  /** Test token resolution with non-existent token */
+  @Test
+  @DisplayName("UNIT-TOKEN-014: Token resolution fails for non-existent token")
+  public void shouldFailResolutionForNonExistentToken() {
+    // Arrange
+    when(tokenRepository.findSharedFileByTokenString("INVALID")).thenReturn(Optional.empty());
+
+    // Act & Assert
+    InvalidTokenException exception =
+        assertThrows(InvalidTokenException.class, () -> tokenService.resolveToken("INVALID"));
+    assertEquals("Unknown token", exception.getMessage());
+    verify(knownTokens).notFound("INVALID");
+  }
+
+  /** Test token resolution with expired token */
+  @Test
+  @DisplayName("UNIT-TOKEN-015: Token resolution fails for expired token")
+  public void shouldFailResolutionForExpiredToken() {
+    // Arrange
+    when(tokenRepository.findSharedFileByTokenString("EXP123"))
+        .thenReturn(Optional.of(sharedFile(Instant.now().minusSeconds(1))));
+
+    // Act & Assert
+    InvalidTokenException exception =
+        assertThrows(InvalidTokenException.class, () -> tokenService.resolveToken("EXP123"));
+    assertEquals("Expired token", exception.getMessage());
+  }
+
+  /** Creates a shared file descriptor expiring at the given instant */
+  private static SharedFile sharedFile(Instant expiresAt) {
+    return new SharedFile(
+        1L,
+        2L,
+        "uploads/key-test.pdf",
+        "test.pdf",
+        "application/pdf",
+        1_000L,
+        Instant.now(),
+        expiresAt);
+  }
+
+  /** Test that an attached token is not saved */
+  @Test
+  @DisplayName("UNIT-TOKEN-016: Attached token is linked to the file without saving it")
+  public void shouldAttachTokenWithoutSaving() {
+    // Arrange
+    File file = new File();
+    Instant expiresAt = Instant.now().plusSeconds(86400);
+
+    // Act
+    Token token = tokenService.attachToken(file, expiresAt);
+
+    // Assert
+    assertEquals(6, token.getTokenString().length());
+    assertEquals(token, file.getToken());
+    assertEquals(file, token.getFile());
+    assertEquals(expiresAt, token.getExpiresAt());
+    verifyNoInteractions(fileRepository, tokenRepository);
+  }
+
+  /** Test that a token rejected by the filter is never looked up */
+  @Test
+  @DisplayName("UNIT-TOKEN-017: Unknown token rejected by the filter without a lookup")
+  public void shouldRejectFilteredTokenWithoutLookup() {
+    // Arrange
+    when(knownTokens.isUnknown("GUESS2")).thenReturn(true);
+
+    // Act & Assert
+    InvalidTokenException resolution =
+        assertThrows(InvalidTokenException.class, () -> tokenService.resolveToken("GUESS2"));
+    InvalidTokenException validation =
+        assertThrows(InvalidTokenException.class, () -> tokenService.validateToken("GUESS2"));
+    assertEquals("Unknown token", resolution.getMessage());
+    assertEquals("Unknown token", validation.getMessage());
+    verifyNoInteractions(tokenRepository);
+  }
 }
@@ -0,0 +1,169 @@
+package com.datashare.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.datashare.api.service.UploadReconciler.StoredKey;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+/** UploadReconciler Unit Test Set */
+public class UploadReconcilerTest {
+
+  /** Test that keys found on one side only are reported */
+  @Test
+  @DisplayName("UNIT-RECONCILE-001: Orphan objects and rows are found by the merge")
+  public void shouldFindOrphansOnBothSides() {
+    // Arrange
+    List<String> orphanObjects = new ArrayList<>();
+    List<String> orphanRows = new ArrayList<>();
+
+    // Act
+    UploadReconciler.merge(
+        objects("uploads/a", "uploads/b", "uploads/d", "uploads/f"),
+        rows("uploads/b", "uploads/c", "uploads/d", "uploads/e"),
+        object -> orphanObjects.add(object.key()),
+        row -> orphanRows.add(row.s3Key()));
+
+    // Assert
+    assertThat(orphanObjects).containsExactly("uploads/a", "uploads/f");
+    assertThat(orphanRows).containsExactly("uploads/c", "uploads/e");
+  }
+
+  /** Test that empty sides are handled */
+  @Test
+  @DisplayName("UNIT-RECONCILE-002: Everything is orphan when the other side is empty")
+  public void shouldReportEverythingWhenOtherSideIsEmpty() {
+    // Arrange
+    List<String> orphanObjects = new ArrayList<>();
+    List<String> orphanRows = new ArrayList<>();
+
+    // Act
+    UploadReconciler.merge(
+        objects("uploads/a", "uploads/b"),
+        rows(),
+        object -> orphanObjects.add(object.key()),
+        row -> orphanRows.add(row.s3Key()));
+    UploadReconciler.merge(
+        objects(),
+        rows("uploads/c"),
+        object -> orphanObjects.add(object.key()),
+        row -> orphanRows.add(row.s3Key()));
+
+    // Assert
+    assertThat(orphanObjects).containsExactly("uploads/a", "uploads/b");
+    assertThat(orphanRows).containsExactly("uploads/c");
+  }
+
+  /** Test that several rows of the same object are not orphans */
+  @Test
+  @DisplayName("UNIT-RECONCILE-003: Duplicate rows of an existing object are not orphans")
+  public void shouldNotReportDuplicateRowsOfExistingObject() {
+    // Arrange
+    List<String> orphanRows = new ArrayList<>();
+
+    // Act
+    UploadReconciler.merge(
+        objects("uploads/a", "uploads/b"),
+        rows("uploads/a", "uploads/a", "uploads/b"),
+        object -> {},
+        row -> orphanRows.add(row.s3Key()));
+
+    // Assert
+    assertThat(orphanRows).isEmpty();
+  }
+
+  /** Test that the merge stops when a side is not sorted as S3 sorts keys */
+  @Test
+  @DisplayName("UNIT-RECONCILE-004: Unsorted keys abort the merge")
+  public void shouldAbortOnUnsortedKeys() {
+    // Arrange: a linguistic collation sorting lowercase before uppercase
+    List<String> orphans = new ArrayList<>();
+
+    // Act & Assert
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            UploadReconciler.merge(
+                objects("uploads/B", "uploads/a"),
+                rows("uploads/a", "uploads/B"),
+                object -> orphans.add(object.key()),
+                row -> orphans.add(row.s3Key())));
+  }
+
+  /** Test that keys are compared as S3 does, by UTF-8 bytes */
+  @Test
+  @DisplayName("UNIT-RECONCILE-005: Keys are sorted by UTF-8 bytes")
+  public void shouldSortKeysByUtf8Bytes() {
+    // Arrange: a supplementary character sorts after U+FFFD in UTF-8, before it in UTF-16
+    String replacement = "uploads/\uFFFD";
+    String emoji = "uploads/\uD83D\uDE00";
+    String[] keys = {replacement, emoji, "uploads/B", "uploads/a", "uploads"};
+
+    // Act
+    String[] sorted = Stream.of(keys).sorted(UploadReconciler.KEY_ORDER).toArray(String[]::new);
+
+    // Assert
+    assertThat(sorted).containsExactly("uploads", "uploads/B", "uploads/a", replacement, emoji);
+  }
+
+  /** Test the files keys query collation */
+  @Test
+  @DisplayName("UNIT-RECONCILE-006: Keys query uses the configured collation")
+  public void shouldBuildKeysQueryWithCollation() {
+    assertThat(UploadReconciler.storedKeysQuery("C"))
+        .contains("s3_key COLLATE \"C\" > ?")
+        .endsWith("ORDER BY s3_key COLLATE \"C\", id LIMIT ?");
+    assertThat(UploadReconciler.storedKeysQuery("")).endsWith("ORDER BY s3_key, id LIMIT ?");
+    assertThrows(
+        IllegalArgumentException.class, () -> UploadReconciler.storedKeysQuery("C\"; DROP"));
+  }
+
+  /** Test that the rows are read page by page, each page after the last row of the previous one */
+  @Test
+  @DisplayName("UNIT-RECONCILE-007: Rows are read by keyset pages")
+  public void shouldReadRowsByKeysetPages() {
+    // Arrange: 5 rows read 2 by 2
+    List<String> keys = List.of("uploads/a", "uploads/b", "uploads/b", "uploads/c", "uploads/d");
+    List<StoredKey> table =
+        IntStream.range(0, keys.size())
+            .mapToObj(i -> new StoredKey((long) i, 1L, keys.get(i), Instant.EPOCH))
+            .toList();
+    List<StoredKey> afters = new ArrayList<>();
+    Iterator<StoredKey> pages =
+        new UploadReconciler.StoredKeyPages(
+            last -> {
+              afters.add(last);
+              int from = last == null ? 0 : table.indexOf(last) + 1;
+              return table.subList(from, Math.min(from + 2, table.size()));
+            },
+            2);
+
+    // Act
+    List<StoredKey> read = new ArrayList<>();
+    pages.forEachRemaining(read::add);
+
+    // Assert: 3 pages, the last one short
+    assertThat(read).isEqualTo(table);
+    assertThat(afters).containsExactly(null, table.get(1), table.get(3));
+    assertThat(pages.hasNext()).isFalse();
+  }
+
+  private static Iterator<S3Object> objects(String... keys) {
+    return Arrays.stream(keys)
+        .map(key -> S3Object.builder().key(key).lastModified(Instant.EPOCH).build())
+        .iterator();
+  }
+
+  private static Iterator<StoredKey> rows(String... keys) {
+    return Arrays.stream(keys).map(key -> new StoredKey(1L, 1L, key, Instant.EPOCH)).iterator();
+  }
+}
@@ -53,7 +53,7 @@ public class UserServiceIT {
   public void login_successful_returns_token() throws Exception {
 
     // WHEN login with existing user
-    String token = userService.login(EMAIL, PASSWORD);
+    String token = userService.login(EMAIL, PASSWORD).token();
 
     // THEN a token is generated
     assertThat(token).isNotBlank();
@@ -3,14 +3,19 @@ package com.datashare.api.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.datashare.api.dto.LoginResult;
 import com.datashare.api.dto.RegisterResponse;
 import com.datashare.api.entities.User;
+import com.datashare.api.monitoring.DatashareMetrics;
+import com.datashare.api.monitoring.DatashareMetrics.LoginOutcome;
 import com.datashare.api.repository.UserRepository;
+import com.datashare.api.security.CustomUserDetailService;
 import com.datashare.api.security.JwtService;
-import java.util.Optional;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -18,9 +23,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
@@ -42,6 +49,8 @@ public class UserServiceTest {
   @Mock private JwtService jwtService;
   @Mock private UserRepository userRepository;
   @Mock private PasswordEncoder passwordEncoder;
+  @Mock private DatashareMetrics metrics;
+  @Mock private CustomUserDetailService userDetailService;
 
   /** Test that registering a null user throws IllegalArgumentException. */
   @Test
@@ -63,9 +72,11 @@ public class UserServiceTest {
   @DisplayName("UNIT-REGISTER-002: Register already existing user throws IllegalArgumentException")
   public void register_already_existing_user_throws_IllegalArgumentException() throws Exception {
 
-    // GIVEN the existing user
+    // GIVEN the existing user, rejected by the unique constraint
     User user = new User(null, EMAIL, PASSWORD, null);
-    when(userRepository.findByEmail(any())).thenReturn(Optional.of(user));
+    when(passwordEncoder.encode(anyString())).thenReturn(PASSWORD);
+    when(userRepository.saveAndFlush(any()))
+        .thenThrow(new DataIntegrityViolationException("uk_users_email"));
 
     // WHEN register with existing user
     Exception exception =
@@ -73,6 +84,7 @@ public class UserServiceTest {
 
     // THEN expect exception thrown with message "Email is already in use: ..."
     assertThat(exception.getMessage()).isEqualTo("Email is already in use: " + user.getEmail());
+    verify(userDetailService, never()).evictPrincipal(any());
   }
 
   /** Test that registering a new user successfully encodes the password and saves the user. */
@@ -82,18 +94,20 @@ public class UserServiceTest {
 
     // GIVEN the user does not exist
     User user = new User(null, EMAIL, PASSWORD, null);
-    when(userRepository.findByEmail(any())).thenReturn(Optional.empty());
-    when(passwordEncoder.encode(anyString())).thenReturn(PASSWORD);
-    // when(userRepository.save(any())).thenAnswer(invocation ->
-    // invocation.getArgument(0));
+    when(passwordEncoder.encode(anyString())).thenReturn("ENCODED");
 
     // WHEN registering the user
     RegisterResponse response = userService.register(user);
 
-    // THEN the user is saved in the repository with encoded password
+    // THEN the password is hashed before the user is inserted with it, without lookup
+    InOrder order = inOrder(passwordEncoder, userRepository, userDetailService);
+    order.verify(passwordEncoder).encode(PASSWORD);
     ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
-    verify(userRepository).save(userCaptor.capture());
-    assertThat(userCaptor.getValue()).isEqualTo(user);
+    order.verify(userRepository).saveAndFlush(userCaptor.capture());
+    order.verify(userDetailService).evictPrincipal(EMAIL);
+    assertThat(userCaptor.getValue().getEmail()).isEqualTo(EMAIL);
+    assertThat(userCaptor.getValue().getPassword()).isEqualTo("ENCODED");
+    verify(userRepository, never()).findByEmail(any());
     assertThat(response.getMessage()).isEqualTo("User registered successfully");
     assertThat(response.getEmail()).isEqualTo(String.valueOf(user.getEmail()));
   }
@@ -138,6 +152,7 @@ public class UserServiceTest {
 
     // THEN
     assertThat(exception.getMessage()).isEqualTo("Invalid email");
+    verify(metrics).login(LoginOutcome.UNKNOWN_EMAIL);
   }
 
   /** Test that logging in with a wrong password throws IllegalArgumentException. */
@@ -158,11 +173,12 @@ public class UserServiceTest {
     // THEN
     verify(passwordEncoder).matches("wrong", PASSWORD);
     assertThat(exception.getMessage()).isEqualTo("Invalid password");
+    verify(metrics).login(LoginOutcome.BAD_PASSWORD);
   }
 
-  /** Test that logging in with correct credentials successfully returns a JWT token. */
+  /** Test that logging in with correct credentials returns a JWT token with a single lookup. */
   @Test
-  @DisplayName("UNIT-LOGIN-004: Login successful returns token")
+  @DisplayName("UNIT-LOGIN-004: Login successful returns token and authorities")
   public void login_successful_returns_token() throws Exception {
     // GIVEN correct login and password
     User user = new User(null, EMAIL, PASSWORD, null);
@@ -171,9 +187,12 @@ public class UserServiceTest {
     when(jwtService.generateToken(any())).thenReturn(TOKEN);
 
     // WHEN
-    String actualToken = userService.login(EMAIL, PASSWORD);
+    LoginResult result = userService.login(EMAIL, PASSWORD);
 
-    // THEN
-    assertThat(actualToken).isEqualTo(TOKEN);
+    // THEN the token and authorities come from the same lookup
+    assertThat(result.token()).isEqualTo(TOKEN);
+    assertThat(result.authorities()).isEqualTo(user.getAuthorities());
+    verify(userRepository).loadUserByUsername(EMAIL);
+    verify(metrics).login(LoginOutcome.SUCCESS);
   }
 }
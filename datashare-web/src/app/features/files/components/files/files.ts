@@ -79,15 +79,44 @@ export class Files implements OnInit {
   }
 
   ngOnInit() {
+    this.loadFirstPage();
+  }
+
+  files = signal<FileMetadata[]>([]);
+  nextCursor = signal<string | null>(null);
+  loadingMore = signal(false);
+
+  /** Load the first page of files only, replacing the loaded ones */
+  loadFirstPage(): void {
     this.fileService
       .getMyFiles()
       .pipe(takeUntilDestroyed(this.destroyRef))
-      .subscribe((files) => {
-        this.files.set(files);
+      .subscribe((page) => {
+        this.files.set(page.files);
+        this.nextCursor.set(page.nextCursor);
       });
   }
 
-  files = signal<FileMetadata[]>([]);
+  /** Load the next page of files on demand, appended to the loaded ones */
+  loadMore(): void {
+    const cursor = this.nextCursor();
+    if (!cursor || this.loadingMore()) return;
+
+    this.loadingMore.set(true);
+    this.fileService
+      .getMyFiles(cursor)
+      .pipe(takeUntilDestroyed(this.destroyRef))
+      .subscribe({
+        next: (page) => {
+          this.files.update((files) => files.concat(page.files));
+          this.nextCursor.set(page.nextCursor);
+          this.loadingMore.set(false);
+        },
+        error: () => {
+          this.loadingMore.set(false);
+        },
+      });
+  }
   filter: string = "active";
 
   // Pagination
@@ -169,12 +198,7 @@ export class Files implements OnInit {
               this.message() || "Fichier supprimé avec succès",
             ),
           });
-          this.fileService
-            .getMyFiles()
-            .pipe(takeUntilDestroyed(this.destroyRef))
-            .subscribe((files) => {
-              this.files.set(files);
-            });
+          this.loadFirstPage();
         },
         error: (err: HttpErrorResponse) => {
           console.error("Delete error: ", err);
@@ -0,0 +1,10 @@
+import { FileMetadata } from "./metadata.model";
+
+/** Page of the user files */
+export interface FilesPage {
+  /** files of the page */
+  files: FileMetadata[];
+
+  /** cursor of the next page, null on the last page */
+  nextCursor: string | null;
+}
@@ -2,13 +2,14 @@
 
 import { inject, Injectable } from "@angular/core";
 import { HttpClient } from "@angular/common/http";
-import { catchError, Observable, tap, throwError } from "rxjs";
+import { catchError, map, Observable, tap, throwError } from "rxjs";
 
 import { ConfigService } from "../../../core/services/config.service";
 import { AuthService } from "../../../features/auth/services/auth.service";
 import { PresignedUpload } from "../models/presigned-upload.model";
 import { MessageSignals } from "../../../core/signals/message.signals";
 import { FileMetadata } from "../models/metadata.model";
+import { FilesPage } from "../models/files-page.model";
 import { PresignedDownload } from "../models/presigned-download.model";
 
 /**
@@ -83,16 +84,26 @@ export class FileService {
   }
 
   /**
-   * Get my files
+   * Get a page of my files
    *
-   * @returns array of file metadata
+   * The backend returns the files by pages: the next page is only loaded on
+   * demand, with the cursor of the previous one (X-Next-Cursor header).
+   *
+   * @param cursor cursor of the previous page, none for the first page
+   * @returns the files of the page and the cursor of the next one
    */
-  getMyFiles(): Observable<FileMetadata[]> {
+  getMyFiles(cursor?: string): Observable<FilesPage> {
     return this.http
-      .get<
-        FileMetadata[]
-      >(`${this.config.getEndpointUrl("files")}/my`, { withCredentials: true })
+      .get<FileMetadata[]>(`${this.config.getEndpointUrl("files")}/my`, {
+        params: cursor ? { cursor } : {},
+        withCredentials: true,
+        observe: "response",
+      })
       .pipe(
+        map((response) => ({
+          files: response.body ?? [],
+          nextCursor: response.headers.get("X-Next-Cursor"),
+        })),
         tap(() => {
           this.message.set(null);
         }),
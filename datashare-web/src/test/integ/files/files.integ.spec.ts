@@ -49,7 +49,7 @@ describe("Files (integ)", () => {
     };
 
     mockFileService = {
-      getMyFiles: vi.fn(() => of(mockFiles)),
+      getMyFiles: vi.fn(() => of({ files: mockFiles, nextCursor: null })),
       message: vi.fn(() => ""),
       getPresignedDownloadUrl: vi.fn(() => of(mockPresignedUrl)),
     };
@@ -113,7 +113,9 @@ describe("Files (integ)", () => {
   });
 
   it("should show empty state when no files", async () => {
-    mockFileService.getMyFiles.mockReturnValue(of([]));
+    mockFileService.getMyFiles.mockReturnValue(
+      of({ files: [], nextCursor: null }),
+    );
 
     fixture.detectChanges();
     fixture.detectChanges();
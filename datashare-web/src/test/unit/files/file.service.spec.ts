@@ -114,4 +114,43 @@ describe("FileService (unit)", () => {
     expect(req.request.headers.get("Content-Type")).toBe("image/png");
     req.flush({}, { status: 200, statusText: "OK" });
   });
+
+  it("should get one page of my files with the next cursor", () => {
+    // GIVEN a first page followed by another one
+    (mockConfigService.getEndpointUrl as any).mockReturnValue("/files");
+    let page: any;
+
+    // WHEN get my files
+    service.getMyFiles().subscribe((res) => {
+      page = res;
+    });
+
+    // THEN only the first page is loaded, with the cursor of the next one
+    const first = httpMock.expectOne("/files/my");
+    expect(first.request.withCredentials).toBe(true);
+    first.flush([{ tokenString: "A" }], {
+      headers: { "X-Next-Cursor": "NEXT" },
+    });
+    httpMock.expectNone("/files/my?cursor=NEXT");
+
+    expect(page.files.map((file: any) => file.tokenString)).toEqual(["A"]);
+    expect(page.nextCursor).toBe("NEXT");
+  });
+
+  it("should get the next page of my files with its cursor", () => {
+    // GIVEN the cursor of the previous page
+    (mockConfigService.getEndpointUrl as any).mockReturnValue("/files");
+    let page: any;
+
+    // WHEN get the next page
+    service.getMyFiles("NEXT").subscribe((res) => {
+      page = res;
+    });
+
+    // THEN the last page has no cursor
+    httpMock.expectOne("/files/my?cursor=NEXT").flush([{ tokenString: "B" }]);
+
+    expect(page.files.map((file: any) => file.tokenString)).toEqual(["B"]);
+    expect(page.nextCursor).toBeNull();
+  });
 });
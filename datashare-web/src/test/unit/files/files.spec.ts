@@ -63,7 +63,7 @@ describe("Files (unit)", () => {
     };
 
     mockFileService = {
-      getMyFiles: vi.fn(() => of([])),
+      getMyFiles: vi.fn(() => of({ files: [], nextCursor: null })),
       getPresignedDownloadUrl: vi.fn(() => of(mockPresignedUrl)),
       message: vi.fn(() => null),
       deleteMyFile: vi.fn(() => of(null)),
@@ -98,7 +98,9 @@ describe("Files (unit)", () => {
 
   describe("ngOnInit", () => {
     it("should load files on init", () => {
-      mockFileService.getMyFiles.mockReturnValue(of(mockFiles));
+      mockFileService.getMyFiles.mockReturnValue(
+        of({ files: mockFiles, nextCursor: null }),
+      );
 
       component.ngOnInit();
 
@@ -107,6 +109,37 @@ describe("Files (unit)", () => {
     });
   });
 
+  describe("loadMore", () => {
+    it("should append the next page on demand only", () => {
+      // GIVEN a first page followed by another one
+      const nextFile = { ...mockFiles[0], downloadToken: "DEF" };
+      mockFileService.getMyFiles.mockReturnValueOnce(
+        of({ files: mockFiles, nextCursor: "NEXT" }),
+      );
+      component.ngOnInit();
+      expect(mockFileService.getMyFiles).toHaveBeenLastCalledWith();
+
+      // WHEN more files are asked for
+      mockFileService.getMyFiles.mockReturnValueOnce(
+        of({ files: [nextFile], nextCursor: null }),
+      );
+      component.loadMore();
+
+      // THEN the next page is appended, and there is no more page
+      expect(mockFileService.getMyFiles).toHaveBeenLastCalledWith("NEXT");
+      expect(component.files()).toEqual([...mockFiles, nextFile]);
+      expect(component.nextCursor()).toBeNull();
+    });
+
+    it("should not load anything after the last page", () => {
+      mockFileService.getMyFiles.mockClear();
+
+      component.loadMore();
+
+      expect(mockFileService.getMyFiles).not.toHaveBeenCalled();
+    });
+  });
+
   describe("download", () => {
     it("should call download service with correct token", () => {
       mockFileService.getPresignedDownloadUrl.mockReturnValue(
@@ -154,7 +187,9 @@ describe("Files (unit)", () => {
       // GIVEN confirm OK + API success
       mockConfirmDialog.confirm.mockResolvedValue(true);
       mockFileService.deleteMyFile.mockReturnValue(of(null));
-      mockFileService.getMyFiles.mockReturnValue(of([]));
+      mockFileService.getMyFiles.mockReturnValue(
+        of({ files: [], nextCursor: null }),
+      );
 
       // WHEN delete appelé
       await component.delete(mockFiles[0]);
@@ -0,0 +1,49 @@
+-- ============================================================
+-- Migration: IDENTITY columns -> pooled sequences
+-- ============================================================
+-- Run once on an existing database, with the API stopped, before
+-- starting a version using sequence-based identifiers:
+--
+--   psql -v allocation_size=500 -f scripts/migrations/01_sequence-ids.sql
+--
+-- allocation_size is the INCREMENT BY of the sequences, i.e. the
+-- number of ids reserved by the API per sequence call (the API
+-- adopts the increment of the existing sequences).
+-- ============================================================
+
+\if :{?allocation_size}
+\else
+    \set allocation_size 500
+\endif
+
+BEGIN;
+
+-- ------------------------------------------------------------
+-- 1. Users
+-- ------------------------------------------------------------
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE users ALTER COLUMN id DROP DEFAULT;
+CREATE SEQUENCE IF NOT EXISTS users_seq;
+ALTER SEQUENCE users_seq INCREMENT BY :allocation_size;
+-- The first reserved block starts right after the highest existing id
+SELECT setval('users_seq', COALESCE(MAX(id), 0) + :allocation_size, false) FROM users;
+
+-- ------------------------------------------------------------
+-- 2. Files
+-- ------------------------------------------------------------
+ALTER TABLE files ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE files ALTER COLUMN id DROP DEFAULT;
+CREATE SEQUENCE IF NOT EXISTS files_seq;
+ALTER SEQUENCE files_seq INCREMENT BY :allocation_size;
+SELECT setval('files_seq', COALESCE(MAX(id), 0) + :allocation_size, false) FROM files;
+
+-- ------------------------------------------------------------
+-- 3. Tokens
+-- ------------------------------------------------------------
+ALTER TABLE tokens ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE tokens ALTER COLUMN id DROP DEFAULT;
+CREATE SEQUENCE IF NOT EXISTS tokens_seq;
+ALTER SEQUENCE tokens_seq INCREMENT BY :allocation_size;
+SELECT setval('tokens_seq', COALESCE(MAX(id), 0) + :allocation_size, false) FROM tokens;
+
+COMMIT;
@@ -48,6 +48,9 @@ TRUNCATE TABLE files CASCADE;
 ALTER SEQUENCE IF EXISTS users_id_seq RESTART WITH 1;
 ALTER SEQUENCE IF EXISTS roles_id_seq RESTART WITH 1;
 ALTER SEQUENCE IF EXISTS files_id_seq RESTART WITH 1;
+ALTER SEQUENCE IF EXISTS users_seq RESTART WITH 1;
+ALTER SEQUENCE IF EXISTS files_seq RESTART WITH 1;
+ALTER SEQUENCE IF EXISTS tokens_seq RESTART WITH 1;
 
 -- Insert default roles
 INSERT INTO roles (name) VALUES ('ROLE_USER') ON CONFLICT DO NOTHING;